@@ -0,0 +1,69 @@
+package com.example.akkajr.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.akkajr.core.actors.ActorRef;
+import com.example.akkajr.core.actors.ActorSystem;
+import com.example.akkajr.core.actors.Props;
+
+/**
+ * Actor creation and stop rates. Actors created by {@link #create()} are stopped outside of the
+ * measurement, at the end of each iteration.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ActorLifecycleBenchmark {
+
+    private static final Props NOOP = Props.create(BenchActors.NoopActor.class);
+
+    ActorSystem system;
+    final List<ActorRef> created = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchActors.quietLogging();
+        system = new ActorSystem();
+    }
+
+    @TearDown(Level.Iteration)
+    public void stopCreated() {
+        created.forEach(system::stop);
+        created.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        system.shutdown();
+    }
+
+    @Benchmark
+    public ActorRef create() {
+        ActorRef ref = system.actorOf(NOOP);
+        created.add(ref);
+        return ref;
+    }
+
+    @Benchmark
+    public void createAndStop() {
+        system.stop(system.actorOf(NOOP));
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.akkajr.bench;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.akkajr.core.actors.ActorRef;
+import com.example.akkajr.core.actors.ActorSystem;
+import com.example.akkajr.core.actors.Props;
+
+/**
+ * Ask round trip as done by ActorController: a temporary reply actor completes a future and stops
+ * itself. Includes the cost of creating and stopping the temporary actor.
+ */
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AskBenchmark {
+
+    ActorSystem system;
+    ActorRef echo;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchActors.quietLogging();
+        system = new ActorSystem();
+        echo = system.actorOf(Props.create(BenchActors.EchoActor.class), "echo");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        system.shutdown();
+    }
+
+    @Benchmark
+    public Object askRoundTrip() throws Exception {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        ActorRef replyTo = system.actorOf(Props.create(BenchActors.ReplyActor.class, future));
+        echo.tell("ping", replyTo);
+        return future.get(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.akkajr.bench;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.example.akkajr.core.actors.Actor;
+import com.example.akkajr.core.actors.ActorRef;
+
+/**
+ * Actors and helpers shared by the benchmarks.
+ */
+public final class BenchActors {
+
+    // JUL only keeps weak references to loggers, hold it so the level sticks
+    private static final Logger APP_LOGGER = Logger.getLogger("com.example");
+
+    private BenchActors() {
+    }
+
+    /**
+     * Per-message actor logging would dominate every measurement; keep warnings only.
+     */
+    public static void quietLogging() {
+        APP_LOGGER.setLevel(Level.WARNING);
+    }
+
+    public static class NoopActor extends Actor {
+        @Override
+        public void receive(Object message, ActorRef sender) {
+            // no-op
+        }
+    }
+
+    /**
+     * Acknowledges each message by incrementing the counter it carries.
+     */
+    public static class CountingActor extends Actor {
+        @Override
+        public void receive(Object message, ActorRef sender) {
+            ((AtomicLong) message).incrementAndGet();
+        }
+    }
+
+    /**
+     * Replies with the received message.
+     */
+    public static class EchoActor extends Actor {
+        @Override
+        public void receive(Object message, ActorRef sender) {
+            if (sender != null) {
+                sender.tell(message, getContext().getSelf());
+            }
+        }
+    }
+
+    /**
+     * Temporary reply actor used for ask, same pattern as ActorController.
+     */
+    public static class ReplyActor extends Actor {
+        private final CompletableFuture<Object> future;
+
+        public ReplyActor(CompletableFuture<Object> future) {
+            this.future = future;
+        }
+
+        @Override
+        public void receive(Object message, ActorRef sender) {
+            future.complete(message);
+            getContext().getSystem().stop(getContext().getSelf());
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.akkajr.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.akkajr.core.actors.ActorSystem;
+import com.example.akkajr.core.actors.Props;
+import com.example.akkajr.core.metrics.MetricsSnapshot;
+
+/**
+ * Cost of {@link ActorSystem#metricsSnapshot()} (polled every second by the SSE stream and the
+ * health indicator) as the number of live actors grows.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+@State(Scope.Benchmark)
+public class MetricsSnapshotBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    int actors;
+
+    ActorSystem system;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchActors.quietLogging();
+        system = new ActorSystem();
+        Props props = Props.create(BenchActors.NoopActor.class);
+        for (int i = 0; i < actors; i++) {
+            system.actorOf(props);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        system.shutdown();
+    }
+
+    @Benchmark
+    public MetricsSnapshot metricsSnapshot() {
+        return system.metricsSnapshot();
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.akkajr.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.akkajr.core.actors.Actor;
+import com.example.akkajr.core.actors.ActorRef;
+import com.example.akkajr.core.actors.ActorSystem;
+import com.example.akkajr.core.actors.ActorSystemSettings;
+import com.example.akkajr.core.actors.IdleStrategy;
+import com.example.akkajr.core.actors.Props;
+
+/**
+ * Latency of one round trip between two actors. A rally bounces between the pinger and an echo
+ * actor; the score is the average time per round trip. Run for each idle strategy of the
+ * dispatcher, which is what dominates the cost of waking the other side up.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PingPongBenchmark {
+
+    static final int ROUNDS = 1000;
+
+    @Param({"BLOCKING", "BACKOFF", "BUSY_SPIN"})
+    public IdleStrategy idleStrategy;
+
+    ActorSystem system;
+    ActorRef pinger;
+    ActorRef ponger;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchActors.quietLogging();
+        system = new ActorSystem(null, ActorSystemSettings.defaults().withDispatcher(ActorSystemSettings.DEFAULT_DISPATCHER,
+                new ActorSystemSettings.DispatcherSettings(2, 10, idleStrategy)));
+        ponger = system.actorOf(Props.create(BenchActors.EchoActor.class), "ponger");
+        pinger = system.actorOf(Props.create(PingerActor.class), "pinger");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        system.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROUNDS)
+    public void roundTrip() {
+        Rally rally = new Rally(ponger, ROUNDS);
+        pinger.tell(rally, null);
+        while (!rally.done) {
+            Thread.onSpinWait();
+        }
+    }
+
+    public static final class Rally {
+        final ActorRef ponger;
+        int remaining;
+        volatile boolean done;
+
+        Rally(ActorRef ponger, int rounds) {
+            this.ponger = ponger;
+            this.remaining = rounds;
+        }
+    }
+
+    public static class PingerActor extends Actor {
+        @Override
+        public void receive(Object message, ActorRef sender) {
+            Rally rally = (Rally) message;
+            if (rally.remaining-- > 0) {
+                rally.ponger.tell(rally, getContext().getSelf());
+            } else {
+                rally.done = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.akkajr.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+
+import com.example.akkajr.AkkajrApplication;
+import com.example.akkajr.messaging.AskMessage;
+import com.example.akkajr.messaging.Message;
+import com.example.akkajr.messaging.MessageService;
+
+/**
+ * Server process of the remote benchmarks: the full application, reachable over both HTTP and
+ * TCP as service "bench", whose agents answer every ask with its content as soon as it is
+ * delivered.
+ *
+ * <p>Arguments: HTTP port, TCP port.
+ */
+public class RemoteEchoServer {
+
+    private static final long START_TIMEOUT_MS = 120_000;
+    private static final Pattern TOTAL_MESSAGES = Pattern.compile("\"totalMessages\":(\\d+)");
+
+    public static void main(String[] args) {
+        SpringApplication app = new SpringApplication(AkkajrApplication.class, RemoteEchoServer.class);
+        app.run("--server.port=" + args[0],
+                "--app.remote.tcp.port=" + args[1],
+                "--app.service.name=bench",
+                "--app.remote.services=",
+                "--app.messages.journal.dir=",
+                "--logging.level.root=WARN");
+    }
+
+    @Bean
+    @Primary
+    MessageService echoMessageService() {
+        return new EchoMessageService();
+    }
+
+    static class EchoMessageService extends MessageService {
+        @Override
+        public void send(Message msg) {
+            super.send(msg);
+            if (msg instanceof AskMessage ask && !ask.getFutureResponse().isDone()) {
+                replyToAsk(ask.getReceiverId(), ask.getCorrelationId(), ask.getContent());
+            }
+        }
+    }
+
+    /**
+     * Starts the server in a second JVM on free ports and waits until both transports accept
+     * connections. Also silences stdout in this JVM, as the messaging clients log every message.
+     */
+    static Process start(int httpPort, int tcpPort) throws IOException, InterruptedException {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process server = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                RemoteEchoServer.class.getName(), String.valueOf(httpPort), String.valueOf(tcpPort))
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        awaitPort(server, httpPort);
+        awaitPort(server, tcpPort);
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        return server;
+    }
+
+    static void stop(Process server) throws InterruptedException {
+        server.destroy();
+        server.waitFor(30, TimeUnit.SECONDS);
+    }
+
+    static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    /**
+     * Messages delivered so far by the server, from /api/messages/stats.
+     */
+    static long delivered(HttpClient client, int httpPort) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + httpPort + "/api/messages/stats")).build();
+        String body = client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+        Matcher matcher = TOTAL_MESSAGES.matcher(body);
+        if (!matcher.find()) {
+            throw new IllegalStateException("Unexpected stats response: " + body);
+        }
+        return Long.parseLong(matcher.group(1));
+    }
+
+    private static void awaitPort(Process server, int port) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + START_TIMEOUT_MS;
+        while (true) {
+            try (Socket ignored = new Socket("localhost", port)) {
+                return;
+            } catch (IOException e) {
+                if (!server.isAlive() || System.currentTimeMillis() > deadline) {
+                    throw new IllegalStateException("Remote echo server did not start on port " + port, e);
+                }
+                Thread.sleep(100);
+            }
+        }
+    }
+}
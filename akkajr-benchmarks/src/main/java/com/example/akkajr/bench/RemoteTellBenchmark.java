@@ -0,0 +1,113 @@
+package com.example.akkajr.bench;
+
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.akkajr.messaging.Message;
+import com.example.akkajr.messaging.RemoteMessageClient;
+import com.example.akkajr.messaging.TcpMessageClient;
+
+/**
+ * End-to-end cross-service TELL throughput: a burst of TELLs to one remote agent, timed until
+ * the remote service ({@link RemoteEchoServer}, second JVM) reports all of them delivered.
+ * Compares one POST per TELL, TELLs coalesced into /api/messages/tell/batch, and the TCP
+ * transport.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RemoteTellBenchmark {
+
+    private static final int BURST = 1_000;
+    private static final long DELIVERY_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    @Param({"http", "http-batch", "tcp"})
+    String transport;
+
+    Process server;
+    int httpPort;
+    String url;
+    RemoteMessageClient http;
+    TcpMessageClient tcp;
+    HttpClient statsClient;
+    PrintStream stdout;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        BenchActors.quietLogging();
+        stdout = System.out;
+        httpPort = RemoteEchoServer.freePort();
+        int tcpPort = RemoteEchoServer.freePort();
+        server = RemoteEchoServer.start(httpPort, tcpPort);
+        statsClient = HttpClient.newHttpClient();
+        switch (transport) {
+            case "tcp" -> {
+                tcp = new TcpMessageClient();
+                url = "tcp://localhost:" + tcpPort;
+            }
+            case "http-batch" -> {
+                http = new RemoteMessageClient(Duration.ofMillis(5), 500);
+                url = "http://localhost:" + httpPort;
+            }
+            default -> {
+                http = new RemoteMessageClient(Duration.ZERO, 1);
+                url = "http://localhost:" + httpPort;
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        if (tcp != null) {
+            tcp.close();
+        }
+        if (http != null) {
+            http.close();
+        }
+        RemoteEchoServer.stop(server);
+        System.setOut(stdout);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BURST)
+    public long tellBurst() throws Exception {
+        long target = RemoteEchoServer.delivered(statsClient, httpPort) + BURST;
+        for (int i = 0; i < BURST; i++) {
+            Message msg = new Message("bench-client", "bench:sink", "tell");
+            if (tcp != null) {
+                tcp.sendTell(msg, url);
+            } else {
+                http.sendTell(msg, url);
+            }
+        }
+        long deadline = System.nanoTime() + DELIVERY_TIMEOUT_NANOS;
+        long delivered;
+        while ((delivered = RemoteEchoServer.delivered(statsClient, httpPort)) < target) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException((target - delivered) + " TELLs not delivered");
+            }
+            Thread.sleep(1);
+        }
+        return delivered;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.akkajr.bench;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.akkajr.messaging.AskMessage;
+import com.example.akkajr.messaging.RemoteMessageClient;
+import com.example.akkajr.messaging.TcpMessageClient;
+
+/**
+ * Cross-service ask round trip over HTTP/JSON (RemoteMessageClient to MessageController) versus
+ * the binary TCP transport (TcpMessageClient to TcpMessageServer). The remote service runs in a
+ * second JVM ({@link RemoteEchoServer}) on localhost; each benchmark thread asks its own agent,
+ * so concurrent asks share the transport but never block each other on the server.
+ *
+ * <p>Throughput gives round trips per second, SampleTime the latency percentiles (p0.99).
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(8)
+public class RemoteTransportBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Remote {
+
+        @Param({"http", "tcp"})
+        String transport;
+
+        Process server;
+        String url;
+        RemoteMessageClient http;
+        TcpMessageClient tcp;
+        final AtomicInteger agents = new AtomicInteger();
+        PrintStream stdout;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            BenchActors.quietLogging();
+            stdout = System.out;
+            int httpPort = RemoteEchoServer.freePort();
+            int tcpPort = RemoteEchoServer.freePort();
+            server = RemoteEchoServer.start(httpPort, tcpPort);
+            if ("tcp".equals(transport)) {
+                tcp = new TcpMessageClient();
+                url = "tcp://localhost:" + tcpPort;
+            } else {
+                http = new RemoteMessageClient();
+                url = "http://localhost:" + httpPort;
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws InterruptedException {
+            if (tcp != null) {
+                tcp.close();
+            }
+            RemoteEchoServer.stop(server);
+            System.setOut(stdout);
+        }
+
+        String ask(String agent, String content) throws Exception {
+            AskMessage ask = new AskMessage("bench-client", "bench:" + agent, content);
+            return (tcp != null ? tcp.sendAsk(ask, url) : http.sendAsk(ask, url)).get(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Agent {
+        String id;
+
+        @Setup(Level.Trial)
+        public void setUp(Remote remote) {
+            id = "echo-" + remote.agents.incrementAndGet();
+        }
+    }
+
+    @Benchmark
+    public String askRoundTrip(Remote remote, Agent agent) throws Exception {
+        return remote.ask(agent.id, "ping");
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.akkajr.bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.akkajr.core.actors.ActorRef;
+import com.example.akkajr.core.actors.ActorSystem;
+import com.example.akkajr.core.actors.MailboxType;
+import com.example.akkajr.core.actors.Props;
+
+/**
+ * Bytes allocated per message by the actor plumbing, for the default path (unbounded mailbox,
+ * tracing on) and the allocation-free one (ring mailbox, tracing off). The payload is a single
+ * shared object, so everything measured is runtime overhead. Run with the GC profiler and read
+ * {@code gc.alloc.rate.norm}:
+ * <pre>
+ * java -jar benchmarks.jar TellAllocation -prof gc
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TellAllocationBenchmark {
+
+    static final int BATCH = 1000;
+
+    @Param({"unbounded", "ring"})
+    public String mailbox;
+
+    @Param({"true", "false"})
+    public boolean tracing;
+
+    ActorSystem system;
+    ActorRef target;
+    final AtomicLong acked = new AtomicLong();
+    long sent;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchActors.quietLogging();
+        system = new ActorSystem();
+        system.setTracingEnabled(tracing);
+        MailboxType type = "ring".equals(mailbox) ? MailboxType.ring(2 * BATCH) : MailboxType.unbounded();
+        target = system.actorOf(Props.create(BenchActors.CountingActor.class).withMailbox(type), "target");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        system.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void tell() {
+        for (int i = 0; i < BATCH; i++) {
+            target.tell(acked, null);
+        }
+        sent += BATCH;
+        while (acked.get() < sent) {
+            Thread.onSpinWait();
+        }
+    }
+}
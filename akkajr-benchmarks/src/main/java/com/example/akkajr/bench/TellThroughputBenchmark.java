@@ -0,0 +1,97 @@
+package com.example.akkajr.bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.akkajr.core.actors.ActorRef;
+import com.example.akkajr.core.actors.ActorSystem;
+import com.example.akkajr.core.actors.Props;
+
+/**
+ * End-to-end tell throughput: each invocation sends a batch and waits until the receiving actor has
+ * processed it, so the mailbox cannot grow without bound during the run. Producer counts can be
+ * changed with -t.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TellThroughputBenchmark {
+
+    static final int BATCH = 1000;
+
+    ActorSystem system;
+    ActorRef shared;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchActors.quietLogging();
+        system = new ActorSystem();
+        shared = system.actorOf(Props.create(BenchActors.CountingActor.class), "shared");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        system.shutdown();
+    }
+
+    @State(Scope.Thread)
+    public static class Producer {
+        final AtomicLong acked = new AtomicLong();
+        long sent;
+        ActorRef own;
+
+        @Setup(Level.Trial)
+        public void setUp(TellThroughputBenchmark benchmark) {
+            own = benchmark.system.actorOf(Props.create(BenchActors.CountingActor.class));
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    @OperationsPerInvocation(BATCH)
+    public void oneProducer(Producer producer) {
+        sendBatch(producer, shared);
+    }
+
+    @Benchmark
+    @Threads(4)
+    @OperationsPerInvocation(BATCH)
+    public void nProducersOwnActor(Producer producer) {
+        sendBatch(producer, producer.own);
+    }
+
+    @Benchmark
+    @Threads(8)
+    @OperationsPerInvocation(BATCH)
+    public void manyToOne(Producer producer) {
+        sendBatch(producer, shared);
+    }
+
+    private static void sendBatch(Producer producer, ActorRef target) {
+        for (int i = 0; i < BATCH; i++) {
+            target.tell(producer.acked, null);
+        }
+        producer.sent += BATCH;
+        while (producer.acked.get() < producer.sent) {
+            Thread.onSpinWait();
+        }
+    }
+}
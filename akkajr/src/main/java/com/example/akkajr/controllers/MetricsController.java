@@ -4,15 +4,20 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.example.akkajr.core.actors.ActorSystem;
 import com.example.akkajr.core.metrics.MetricsSnapshot;
 import com.example.akkajr.core.metrics.ActorState;
+import com.example.akkajr.core.metrics.ActorLatencySnapshot;
+import com.example.akkajr.core.metrics.DeadLetterReport;
+import com.example.akkajr.core.metrics.HotActorsReport;
 import com.example.akkajr.core.observability.Alert;
 import com.example.akkajr.core.observability.ObservabilityService;
 import com.example.akkajr.core.observability.MessageEvent;
+import com.example.akkajr.core.observability.SamplingStats;
 
 import java.time.Duration;
 import java.util.List;
@@ -39,11 +44,34 @@ public class MetricsController {
         return ResponseEntity.ok(actorSystem.actorStates());
     }
 
+    /**
+     * Busiest actors (messages, processing time, backlog) without walking every actor.
+     */
+    @GetMapping("/actors/top")
+    public ResponseEntity<HotActorsReport> topActors(@RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(actorSystem.topActors(Math.max(1, Math.min(limit, 100))));
+    }
+
+    @GetMapping("/latency")
+    public ResponseEntity<List<ActorLatencySnapshot>> latency() {
+        return ResponseEntity.ok(actorSystem.latencySnapshots());
+    }
+
     @GetMapping("/events")
     public ResponseEntity<List<MessageEvent>> events() {
         return ResponseEntity.ok(actorSystem.recentEvents());
     }
 
+    @GetMapping("/events/sampling")
+    public ResponseEntity<SamplingStats> eventSampling() {
+        return ResponseEntity.ok(actorSystem.eventSamplingStats());
+    }
+
+    @GetMapping("/deadletters")
+    public ResponseEntity<DeadLetterReport> deadLetters() {
+        return ResponseEntity.ok(actorSystem.deadLetterReport());
+    }
+
     @GetMapping("/alerts")
     public ResponseEntity<List<Alert>> alerts() {
         MetricsSnapshot snapshot = actorSystem.metricsSnapshot();
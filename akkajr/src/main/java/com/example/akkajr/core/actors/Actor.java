@@ -24,4 +24,21 @@ public abstract class Actor {
     public void postStop() throws Exception {
         // optional override
     }
+
+    /**
+     * State to keep while the actor is passivated (see {@link Props#withPassivation}). Called before
+     * postStop, while the actor's resources are still available; returning null (the default)
+     * persists nothing.
+     */
+    public Object snapshotState() {
+        return null;
+    }
+
+    /**
+     * Restores the state saved by {@link #snapshotState()} when a passivated actor is recreated.
+     * Called before preStart.
+     */
+    public void restoreState(Object state) {
+        // optional override
+    }
 }
@@ -1,37 +1,57 @@
 package com.example.akkajr.core.actors;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.locks.Condition;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
+import com.example.akkajr.core.metrics.ActorLatency;
 import com.example.akkajr.core.observability.MessageEvent;
 
-final class ActorCell {
-    private final Actor actor;
+/**
+ * Runtime container of an actor. The cell is scheduled on its dispatcher whenever its mailbox has
+ * messages and processes at most {@link Dispatcher#throughput()} of them per turn before yielding
+ * the thread.
+ * <p>
+ * When its props enable passivation, an idle cell drops its actor instance and recreates it from
+ * the props on the next turn; the cell itself (path, mailbox) stays registered.
+ */
+final class ActorCell implements Runnable {
+    private static final Logger LOG = Logger.getLogger(ActorCell.class.getName());
+    private static final int BACKLOG_REPORT_MIN = 64;
+
+    private final AtomicReference<Actor> incarnation;
+    private final Props props;
     private final ActorPath path;
     private final ActorRef selfRef;
     private final ActorRef parentRef;
     private final ActorSystem system;
     private final Mailbox mailbox;
-    private final ExecutorService dispatcher;
+    private final Dispatcher dispatcher;
+    private final long passivationNanos;
+    private final ActorLatency latency;
+    private final ActorMeters meters;
     private final AtomicBoolean running = new AtomicBoolean(false);
-    private final AtomicBoolean paused = new AtomicBoolean(false);
-    private final ReentrantLock pauseLock = new ReentrantLock();
-    private final Condition unpaused = pauseLock.newCondition();
     private final AtomicLong processed = new AtomicLong(0);
     private final AtomicLong failed = new AtomicLong(0);
+    private volatile long lastActivityNanos;
+    private volatile ScheduledFuture<?> passivationTimer;
 
-    ActorCell(Actor actor, ActorPath path, ActorRef parentRef, ActorSystem system) {
-        this.actor = actor;
+    ActorCell(Actor actor, Props props, ActorPath path, ActorRef parentRef, ActorSystem system, Mailbox mailbox, Dispatcher dispatcher,
+              ActorMeters meters) {
+        this.incarnation = new AtomicReference<>(actor);
+        this.props = props;
         this.path = path;
         this.parentRef = parentRef;
         this.system = system;
-        this.mailbox = new Mailbox();
+        this.mailbox = mailbox;
+        this.dispatcher = dispatcher;
+        this.passivationNanos = (props != null && props.passivationTimeout() != null) ? props.passivationTimeout().toNanos() : 0L;
+        this.latency = system.latencyFor(actor.getClass());
+        this.meters = meters;
         this.selfRef = new ActorRef(this, path);
-        this.dispatcher = Executors.newSingleThreadExecutor(r -> new Thread(r, "actor-" + path.value()));
     }
 
     ActorRef ref() {
@@ -46,62 +66,124 @@ final class ActorCell {
         if (!running.compareAndSet(false, true)) {
             return;
         }
+        Actor actor = incarnation.get();
         actor.setContext(new ActorContext(system, selfRef, parentRef, path));
+        FlightEvents.ActorStarted started = new FlightEvents.ActorStarted();
+        started.begin();
         try {
             actor.preStart();
         } catch (Exception e) {
             throw new IllegalStateException("Actor preStart failed for " + path, e);
         }
-        dispatcher.submit(this::pump);
+        started.end();
+        if (started.shouldCommit()) {
+            started.path = path.value();
+            started.actorClass = actor.getClass();
+            started.commit();
+        }
+        touch();
+        // the mailbox is created in the scheduled state; release it now that preStart is done
+        mailbox.setAsIdle();
+        scheduleIfNeeded();
     }
 
     void enqueue(Object message, ActorRef sender) {
-        mailbox.enqueue(message, sender);
+        enqueue(message, sender, null);
+    }
+
+    /**
+     * Queues a message, running {@code onProcessed} after the actor has handled it. Returns false
+     * when the message became a dead letter instead (actor stopped or mailbox full); the callback
+     * is then never run.
+     */
+    boolean enqueue(Object message, ActorRef sender, Runnable onProcessed) {
+        if (mailbox.isClosed()) {
+            system.publishDeadLetter(message, sender, path.value());
+            return false;
+        }
+        if (!mailbox.enqueue(message, sender, system.isTracingEnabled(), onProcessed)) {
+            rejected(message, sender);
+            return false;
+        }
+        if (mailbox.isClosed()) {
+            // stop() closed and drained the mailbox while this message was being offered
+            drainToDeadLetters();
+            return false;
+        }
+        // read once: size() takes a lock on some mailboxes
+        int backlog = mailbox.size();
+        FlightEvents.MessageEnqueued enqueued = new FlightEvents.MessageEnqueued();
+        if (enqueued.shouldCommit()) {
+            enqueued.path = path.value();
+            enqueued.messageClass = message != null ? message.getClass() : null;
+            enqueued.mailboxSize = backlog;
+            enqueued.commit();
+        }
+        // report backlog growth at powers of two, so a stuck actor shows up without a check per message
+        if (backlog >= BACKLOG_REPORT_MIN && (backlog & (backlog - 1)) == 0) {
+            system.recordBacklog(path.value(), backlog);
+        }
+        scheduleIfNeeded();
+        return true;
     }
 
     void stop() {
         if (!running.compareAndSet(true, false)) {
             return;
         }
+        FlightEvents.ActorStopped stopped = new FlightEvents.ActorStopped();
+        stopped.begin();
         mailbox.close();
-        dispatcher.shutdownNow();
-        try {
-            actor.postStop();
-        } catch (Exception e) {
-            // keep shutdown resilient
-            actor.logger.warning("postStop failed for " + path + ": " + e.getMessage());
+        int dropped = mailbox.size();
+        drainToDeadLetters();
+        mailbox.cleanUp();
+        cancelPassivationTimer();
+        Actor actor = incarnation.getAndSet(null);
+        if (actor != null) {
+            postStop(actor);
+        } else if (passivationNanos > 0) {
+            system.passivationStore().remove(path);
+            system.recordPassivationEnded();
+        }
+        system.recordActorStopped(meters);
+        stopped.end();
+        if (stopped.shouldCommit()) {
+            stopped.path = path.value();
+            stopped.droppedMessages = dropped;
+            stopped.commit();
         }
-        system.recordActorStopped();
     }
 
     void pauseProcessing() {
-        pauseLock.lock();
-        try {
-            paused.set(true);
-        } finally {
-            pauseLock.unlock();
-        }
+        mailbox.suspend();
     }
 
     void resumeProcessing() {
-        pauseLock.lock();
-        try {
-            if (paused.compareAndSet(true, false)) {
-                unpaused.signalAll();
-            }
-        } finally {
-            pauseLock.unlock();
+        if (mailbox.resume()) {
+            scheduleIfNeeded();
         }
     }
 
     boolean isPaused() {
-        return paused.get();
+        return mailbox.isSuspended();
+    }
+
+    boolean isPassivated() {
+        return incarnation.get() == null && running.get();
     }
 
     int mailboxSize() {
         return mailbox.size();
     }
 
+    int remainingCapacity() {
+        return mailbox.remainingCapacity();
+    }
+
+    boolean isStopped() {
+        return mailbox.isClosed();
+    }
+
     long processedCount() {
         return processed.get();
     }
@@ -110,47 +192,245 @@ final class ActorCell {
         return failed.get();
     }
 
-    private void awaitIfPaused() throws InterruptedException {
-        pauseLock.lock();
-        try {
-            while (paused.get() && running.get()) {
-                unpaused.await();
-            }
-        } finally {
-            pauseLock.unlock();
+    private void scheduleIfNeeded() {
+        if (mailbox.hasMessages() && mailbox.setAsScheduled() && !dispatcher.execute(this)) {
+            mailbox.setAsIdle();
         }
     }
 
-    private void pump() {
-        while (running.get()) {
-            try {
-                Mailbox.MessageEnvelope envelope = mailbox.take();
-                if (mailbox.isPoison(envelope)) {
-                    break;
+    /**
+     * One dispatcher turn: drain up to {@link Dispatcher#throughput()} messages, then release the mailbox and
+     * reschedule if more work arrived in the meantime.
+     */
+    @Override
+    public void run() {
+        try {
+            Actor actor = incarnation.get();
+            if (actor == null) {
+                if (!mailbox.canProcess() || (actor = reactivate()) == null) {
+                    return;
                 }
-                awaitIfPaused();
-                if (!running.get()) {
+            }
+            int throughput = dispatcher.throughput();
+            int handled = 0;
+            long turnStart = System.nanoTime();
+            for (int i = 0; i < throughput && mailbox.canProcess(); i++) {
+                Mailbox.MessageEnvelope envelope = mailbox.poll();
+                if (envelope == null) {
                     break;
                 }
                 if (envelope.message instanceof PoisonPill) {
                     system.stop(selfRef);
                     break;
                 }
-                long start = System.nanoTime();
-                actor.logger.info("[ACTOR MSG] path=" + path + " msgId=" + envelope.messageId + " traceId=" + envelope.traceId + " sender=" + (envelope.sender != null ? envelope.sender.path() : "none") + " type=" + envelope.message.getClass().getSimpleName());
-                actor.receive(envelope.message, envelope.sender);
-                system.recordMessageProcessed(path, System.nanoTime() - start);
-                processed.incrementAndGet();
-                system.recordEvent(new MessageEvent("processed", System.currentTimeMillis(), path.value(), envelope.messageId, envelope.traceId, null));
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                break;
-            } catch (Exception e) {
-                actor.logger.warning("Actor " + path + " failed on message: " + e.getMessage());
-                system.recordMessageFailed(path);
-                failed.incrementAndGet();
-                system.recordEvent(new MessageEvent("failed", System.currentTimeMillis(), path.value(), null, null, e.getMessage()));
+                process(actor, envelope);
+                handled++;
+            }
+            if (handled > 0) {
+                system.recordTurn(path.value(), handled, System.nanoTime() - turnStart, mailbox.size());
+            }
+            touch();
+        } finally {
+            mailbox.setAsIdle();
+            scheduleIfNeeded();
+        }
+    }
+
+    private void process(Actor actor, Mailbox.MessageEnvelope envelope) {
+        long start = System.nanoTime();
+        latency.mailboxWait().record(start - envelope.enqueuedAt);
+        FlightEvents.MessageDequeued dequeued = new FlightEvents.MessageDequeued();
+        if (dequeued.shouldCommit()) {
+            dequeued.path = path.value();
+            dequeued.messageClass = envelope.message.getClass();
+            dequeued.mailboxWait = start - envelope.enqueuedAt;
+            dequeued.commit();
+        }
+        // per-message trace, built only when enabled: the string concatenation dominated allocations
+        if (actor.logger.isLoggable(Level.FINE)) {
+            actor.logger.fine("[ACTOR MSG] path=" + path + " msgId=" + envelope.messageId + " traceId=" + envelope.traceId + " sender=" + (envelope.sender != null ? envelope.sender.path() : "none") + " type=" + envelope.message.getClass().getSimpleName());
+        }
+        FlightEvents.MessageProcessed processing = new FlightEvents.MessageProcessed();
+        // only traced envelopes carry an id worth propagating
+        boolean traced = envelope.messageId != null;
+        if (traced) {
+            TraceContext.enter(envelope);
+        }
+        long serviceStart = System.nanoTime();
+        processing.begin();
+        try {
+            actor.receive(envelope.message, envelope.sender);
+            processing.end();
+            latency.serviceTime().record(System.nanoTime() - serviceStart);
+            if (processing.shouldCommit()) {
+                processing.path = path.value();
+                processing.messageClass = envelope.message.getClass();
+                processing.traceId = envelope.traceId;
+                processing.commit();
+            }
+            system.recordMessageProcessed(meters, System.nanoTime() - start);
+            processed.incrementAndGet();
+            if (system.sampleProcessedEvent()) {
+                system.recordEvent(new MessageEvent("processed", System.currentTimeMillis(), path.value(), envelope.messageId, envelope.traceId, envelope.parentId, null));
+            }
+        } catch (Exception e) {
+            latency.serviceTime().record(System.nanoTime() - serviceStart);
+            FlightEvents.MessageFailed failure = new FlightEvents.MessageFailed();
+            if (failure.shouldCommit()) {
+                failure.path = path.value();
+                failure.messageClass = envelope.message.getClass();
+                failure.exceptionClass = e.getClass();
+                failure.error = e.getMessage();
+                failure.commit();
+            }
+            actor.logger.warning("Actor " + path + " failed on message: " + e.getMessage());
+            system.recordMessageFailed(meters);
+            failed.incrementAndGet();
+            system.recordFailedEvent(new MessageEvent("failed", System.currentTimeMillis(), path.value(), envelope.messageId, envelope.traceId, envelope.parentId, e.getMessage()));
+        } finally {
+            if (traced) {
+                TraceContext.exit();
+            }
+            if (envelope.onProcessed != null) {
+                envelope.onProcessed.run();
+            }
+        }
+    }
+
+    /**
+     * The mailbox turned the message away: it becomes a dead letter. Only a full mailbox counts as
+     * an overflow; a mailbox closed by a concurrent stop does not.
+     */
+    private void rejected(Object message, ActorRef sender) {
+        FlightEvents.MailboxOverflow overflow = new FlightEvents.MailboxOverflow();
+        if (!mailbox.isClosed() && overflow.shouldCommit()) {
+            overflow.path = path.value();
+            overflow.mailboxType = mailbox.getClass().getSimpleName();
+            overflow.mailboxSize = mailbox.size();
+            overflow.action = "rejected " + (message != null ? message.getClass().getName() : "null");
+            overflow.commit();
+        }
+        system.publishDeadLetter(message, sender, path.value());
+    }
+
+    /**
+     * Messages still queued when the actor stops are reported as dead letters. The stop signal
+     * itself is not. Synchronized because a sender that raced with the stop drains too.
+     */
+    private synchronized void drainToDeadLetters() {
+        Mailbox.MessageEnvelope envelope;
+        while ((envelope = mailbox.pollDetached()) != null) {
+            if (!(envelope.message instanceof PoisonPill)) {
+                system.publishDeadLetter(envelope.message, envelope.sender, path.value());
+            }
+        }
+    }
+
+    private void postStop(Actor actor) {
+        try {
+            actor.postStop();
+        } catch (Exception e) {
+            // keep shutdown resilient
+            actor.logger.warning("postStop failed for " + path + ": " + e.getMessage());
+        }
+    }
+
+    private void touch() {
+        if (passivationNanos <= 0) {
+            return;
+        }
+        lastActivityNanos = System.nanoTime();
+        if (passivationTimer == null) {
+            passivationTimer = system.schedulePassivationCheck(this::checkIdle, passivationNanos);
+        }
+    }
+
+    private void cancelPassivationTimer() {
+        ScheduledFuture<?> timer = passivationTimer;
+        passivationTimer = null;
+        if (timer != null) {
+            timer.cancel(false);
+        }
+    }
+
+    /**
+     * Timer callback: passivate when idle long enough, otherwise check again when the remaining
+     * idle time has elapsed. Passivation claims the mailbox like a turn, so it never overlaps one.
+     */
+    private void checkIdle() {
+        if (!running.get()) {
+            passivationTimer = null;
+            return;
+        }
+        long idle = System.nanoTime() - lastActivityNanos;
+        if (idle >= passivationNanos && mailbox.setAsScheduled()) {
+            boolean passivated = false;
+            try {
+                passivated = !mailbox.hasMessages() && running.get() && passivate();
+            } finally {
+                if (passivated) {
+                    // cleared before releasing the mailbox so the next incarnation arms a fresh timer
+                    passivationTimer = null;
+                }
+                mailbox.setAsIdle();
+                scheduleIfNeeded();
+            }
+            if (passivated) {
+                return;
+            }
+            idle = 0;
+        }
+        passivationTimer = system.schedulePassivationCheck(this::checkIdle, Math.max(passivationNanos - idle, passivationNanos / 10));
+    }
+
+    private boolean passivate() {
+        Actor actor = incarnation.getAndSet(null);
+        if (actor == null) {
+            return false;
+        }
+        // snapshot first: postStop may release what the state is captured from
+        Object state = actor.snapshotState();
+        if (state != null) {
+            system.passivationStore().save(path, state);
+        }
+        postStop(actor);
+        system.recordActorPassivated();
+        LOG.fine("Passivated idle actor " + path);
+        return true;
+    }
+
+    private Actor reactivate() {
+        Actor actor;
+        try {
+            actor = props.instantiate();
+            actor.setContext(new ActorContext(system, selfRef, parentRef, path));
+            Object state = system.passivationStore().load(path);
+            if (state != null) {
+                actor.restoreState(state);
+            }
+            actor.preStart();
+        } catch (Exception e) {
+            // an entity that cannot be recreated is stopped; its pending messages are dropped
+            LOG.warning("Reactivation failed for " + path + ", stopping it: " + e.getMessage());
+            system.stop(selfRef);
+            return null;
+        }
+        if (!incarnation.compareAndSet(null, actor)) {
+            postStop(actor);
+            return incarnation.get();
+        }
+        if (!running.get()) {
+            // stop() raced with the reactivation. Whoever takes the instance back stops it; when stop()
+            // finds no instance it ends the passivation itself, otherwise it is ended here
+            if (incarnation.compareAndSet(actor, null)) {
+                postStop(actor);
+            } else {
+                system.recordPassivationEnded();
             }
+            return null;
         }
+        system.recordPassivationEnded();
+        touch();
+        return actor;
     }
 }
@@ -77,4 +77,11 @@ public final class ActorContext {
     public ActorRef actorSelection(String absolutePath) {
         return system.actorSelection(absolutePath);
     }
+
+    /**
+     * Wildcard selection, see {@link ActorSystem#select(String)}.
+     */
+    public ActorSelection select(String pattern) {
+        return system.select(pattern);
+    }
 }
@@ -0,0 +1,73 @@
+package com.example.akkajr.core.actors;
+
+import java.util.concurrent.TimeUnit;
+
+import com.example.akkajr.core.metrics.MetricCardinality;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Micrometer meters of one cell, resolved once when the cell is created instead of being looked up
+ * in the registry for every message.
+ */
+final class ActorMeters {
+    static final ActorMeters NONE = new ActorMeters(null, null, null, false);
+
+    private final Counter processed;
+    private final Counter failed;
+    private final Timer latency;
+    private final boolean owned;
+
+    private ActorMeters(Counter processed, Counter failed, Timer latency, boolean owned) {
+        this.processed = processed;
+        this.failed = failed;
+        this.latency = latency;
+        this.owned = owned;
+    }
+
+    static ActorMeters create(MeterRegistry registry, MetricCardinality cardinality, ActorPath path, Class<?> actorClass) {
+        if (registry == null) {
+            return NONE;
+        }
+        return switch (cardinality) {
+            case PER_ACTOR -> of(registry, "actor", path.value(), true);
+            case PER_CLASS -> of(registry, "actorClass", actorClass.getName(), false);
+            case AGGREGATE -> new ActorMeters(registry.counter("actor.messages.processed"), registry.counter("actor.messages.failed"),
+                    registry.timer("actor.messages.latency"), false);
+        };
+    }
+
+    private static ActorMeters of(MeterRegistry registry, String tag, String value, boolean owned) {
+        return new ActorMeters(
+                registry.counter("actor.messages.processed", tag, value),
+                registry.counter("actor.messages.failed", tag, value),
+                registry.timer("actor.messages.latency", tag, value),
+                owned);
+    }
+
+    void recordProcessed(long nanos) {
+        if (processed != null) {
+            processed.increment();
+            latency.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    void recordFailed() {
+        if (failed != null) {
+            failed.increment();
+        }
+    }
+
+    /**
+     * Drops per-actor meters from the registry once their actor is gone; shared meters are kept.
+     */
+    void remove(MeterRegistry registry) {
+        if (owned && registry != null) {
+            registry.remove(processed);
+            registry.remove(failed);
+            registry.remove(latency);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.akkajr.core.actors;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of live actor cells by path segment, used to resolve wildcard selections without scanning
+ * every actor. Writers (actor creation and stop) are serialized; lookups walk the concurrent child
+ * maps without locking and only visit the branches a pattern can match.
+ * <p>
+ * Pattern segments are matched as follows: {@code *} matches exactly one segment, {@code **} zero
+ * or more segments, a segment containing {@code *} (e.g. {@code worker-*}) is a glob on the actor
+ * name, and any other segment is an exact name.
+ */
+final class ActorPathTrie {
+    private final Node root = new Node();
+    private final Object writeLock = new Object();
+
+    void put(ActorPath path, ActorCell cell) {
+        synchronized (writeLock) {
+            Node node = root;
+            for (String segment : segments(path.value())) {
+                node = node.children.computeIfAbsent(segment, k -> new Node());
+            }
+            node.cell = cell;
+        }
+    }
+
+    void remove(ActorPath path) {
+        synchronized (writeLock) {
+            String[] segments = segments(path.value());
+            Node[] trail = new Node[segments.length + 1];
+            trail[0] = root;
+            for (int i = 0; i < segments.length; i++) {
+                trail[i + 1] = trail[i].children.get(segments[i]);
+                if (trail[i + 1] == null) {
+                    return;
+                }
+            }
+            trail[segments.length].cell = null;
+            // prune the branch bottom-up while it leads to nothing
+            for (int i = segments.length; i > 0 && trail[i].isEmpty(); i--) {
+                trail[i - 1].children.remove(segments[i - 1]);
+            }
+        }
+    }
+
+    void clear() {
+        synchronized (writeLock) {
+            root.children.clear();
+        }
+    }
+
+    /**
+     * Cells whose path matches the pattern, each at most once, in no particular order.
+     */
+    Collection<ActorCell> match(String[] pattern) {
+        Set<ActorCell> matches = new LinkedHashSet<>();
+        collect(root, pattern, 0, matches);
+        return matches;
+    }
+
+    /**
+     * Splits an absolute path or pattern into its segments.
+     */
+    static String[] segments(String path) {
+        if (path == null || !path.startsWith("/") || path.length() < 2) {
+            throw new IllegalArgumentException("Path must be absolute: " + path);
+        }
+        String[] segments = path.substring(1).split("/", -1);
+        for (String segment : segments) {
+            if (segment.isEmpty()) {
+                throw new IllegalArgumentException("Path contains an empty segment: " + path);
+            }
+        }
+        return segments;
+    }
+
+    private static void collect(Node node, String[] pattern, int index, Set<ActorCell> matches) {
+        if (index == pattern.length) {
+            ActorCell cell = node.cell;
+            if (cell != null) {
+                matches.add(cell);
+            }
+            return;
+        }
+        String segment = pattern[index];
+        if (segment.equals("**")) {
+            collect(node, pattern, index + 1, matches);
+            for (Node child : node.children.values()) {
+                collect(child, pattern, index, matches);
+            }
+        } else if (segment.equals("*")) {
+            for (Node child : node.children.values()) {
+                collect(child, pattern, index + 1, matches);
+            }
+        } else if (segment.indexOf('*') >= 0) {
+            List<String> parts = globParts(segment);
+            for (Map.Entry<String, Node> child : node.children.entrySet()) {
+                if (globMatches(parts, child.getKey())) {
+                    collect(child.getValue(), pattern, index + 1, matches);
+                }
+            }
+        } else {
+            Node child = node.children.get(segment);
+            if (child != null) {
+                collect(child, pattern, index + 1, matches);
+            }
+        }
+    }
+
+    private static List<String> globParts(String glob) {
+        List<String> parts = new ArrayList<>();
+        int start = 0;
+        for (int i = glob.indexOf('*'); i >= 0; i = glob.indexOf('*', start)) {
+            parts.add(glob.substring(start, i));
+            start = i + 1;
+        }
+        parts.add(glob.substring(start));
+        return Collections.unmodifiableList(parts);
+    }
+
+    /**
+     * Glob match where the parts are the literals between stars: the first must be a prefix, the
+     * last a suffix and the others must appear in order in between.
+     */
+    private static boolean globMatches(List<String> parts, String name) {
+        String first = parts.get(0);
+        String last = parts.get(parts.size() - 1);
+        if (name.length() < first.length() + last.length() || !name.startsWith(first) || !name.endsWith(last)) {
+            return false;
+        }
+        int position = first.length();
+        int end = name.length() - last.length();
+        for (int i = 1; i < parts.size() - 1; i++) {
+            int found = name.indexOf(parts.get(i), position);
+            if (found < 0 || found + parts.get(i).length() > end) {
+                return false;
+            }
+            position = found + parts.get(i).length();
+        }
+        return true;
+    }
+
+    private static final class Node {
+        private final Map<String, Node> children = new ConcurrentHashMap<>();
+        private volatile ActorCell cell;
+
+        private boolean isEmpty() {
+            return cell == null && children.isEmpty();
+        }
+    }
+}
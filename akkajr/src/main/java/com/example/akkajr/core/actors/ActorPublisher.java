@@ -0,0 +1,170 @@
+package com.example.akkajr.core.actors;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+/**
+ * Publisher whose elements are the messages told to {@link #ref()}. Created through
+ * {@link ActorStreams#publisher(ActorSystem, Class, int)}; accepts a single subscriber.
+ * <p>
+ * All stream state lives in the backing actor, so signals to the subscriber are serialized by
+ * its mailbox: requests and cancellation are sent to the actor as messages too. The actor stops
+ * once the stream terminates or is cancelled.
+ */
+public final class ActorPublisher<T> implements Publisher<T> {
+    private final ActorRef ref;
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    ActorPublisher(ActorRef ref) {
+        this.ref = ref;
+    }
+
+    /**
+     * Ref to tell elements to; {@link ActorStreams.StreamCompleted} and
+     * {@link ActorStreams.StreamFailed} terminate the stream.
+     */
+    public ActorRef ref() {
+        return ref;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super T> subscriber) {
+        Objects.requireNonNull(subscriber, "Subscriber cannot be null");
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new StreamSubscription(null));
+            subscriber.onError(new IllegalStateException("ActorPublisher " + ref.path() + " allows a single subscriber"));
+            return;
+        }
+        ref.tell(new Subscribe(subscriber), null);
+    }
+
+    private record Subscribe(Subscriber<?> subscriber) {
+    }
+
+    private record Request(long n) {
+    }
+
+    private record Cancel() {
+    }
+
+    /**
+     * Subscription handed to the subscriber; turns calls into messages for the backing actor and
+     * becomes a no-op once the stream is over.
+     */
+    private static final class StreamSubscription implements Subscription {
+        private final ActorRef publisher;
+        private final AtomicBoolean terminated = new AtomicBoolean();
+
+        private StreamSubscription(ActorRef publisher) {
+            this.publisher = publisher;
+            if (publisher == null) {
+                terminated.set(true);
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            if (!terminated.get()) {
+                publisher.tell(new Request(n), null);
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (terminated.compareAndSet(false, true)) {
+                publisher.tell(new Cancel(), null);
+            }
+        }
+    }
+
+    static final class PublisherActor extends Actor {
+        private final Class<?> elementType;
+        private final int bufferSize;
+        private final Deque<Object> buffer = new ArrayDeque<>();
+        private Subscriber<Object> subscriber;
+        private StreamSubscription subscription;
+        private long demand;
+        private boolean completing;
+        private Throwable failure;
+
+        PublisherActor(Class<?> elementType, Integer bufferSize) {
+            this.elementType = elementType;
+            this.bufferSize = bufferSize;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void receive(Object message, ActorRef sender) {
+            if (message instanceof Subscribe subscribe) {
+                subscriber = (Subscriber<Object>) subscribe.subscriber();
+                subscription = new StreamSubscription(getContext().getSelf());
+                subscriber.onSubscribe(subscription);
+                if (failure != null) {
+                    fail(failure);
+                } else {
+                    drain();
+                }
+            } else if (message instanceof Request request) {
+                if (request.n() <= 0) {
+                    fail(new IllegalArgumentException("Request must be positive (rule 3.9), got " + request.n()));
+                    return;
+                }
+                // saturates at Long.MAX_VALUE, meaning unbounded demand
+                demand = demand + request.n() < 0 ? Long.MAX_VALUE : demand + request.n();
+                drain();
+            } else if (message instanceof Cancel) {
+                buffer.clear();
+                getContext().stopSelf();
+            } else if (message instanceof ActorStreams.StreamCompleted) {
+                completing = true;
+                drain();
+            } else if (message instanceof ActorStreams.StreamFailed failed) {
+                fail(failed.cause());
+            } else if (elementType.isInstance(message) && !completing && failure == null) {
+                if (buffer.size() >= bufferSize) {
+                    getContext().getSystem().publishDeadLetter(message, sender, getContext().getPath().value());
+                    return;
+                }
+                buffer.addLast(message);
+                drain();
+            } else {
+                getContext().getSystem().publishDeadLetter(message, sender, getContext().getPath().value());
+            }
+        }
+
+        private void drain() {
+            if (subscriber == null) {
+                return;
+            }
+            while (demand > 0 && !buffer.isEmpty()) {
+                if (demand != Long.MAX_VALUE) {
+                    demand--;
+                }
+                subscriber.onNext(buffer.pollFirst());
+            }
+            if (completing && buffer.isEmpty()) {
+                subscription.terminated.set(true);
+                subscriber.onComplete();
+                getContext().stopSelf();
+            }
+        }
+
+        private void fail(Throwable cause) {
+            buffer.clear();
+            if (subscriber == null) {
+                // kept for the subscriber to come
+                failure = cause;
+                return;
+            }
+            subscription.terminated.set(true);
+            subscriber.onError(cause);
+            getContext().stopSelf();
+        }
+    }
+}
@@ -18,6 +18,10 @@ public final class ActorRef {
         cell.enqueue(message, sender);
     }
 
+    ActorCell cell() {
+        return cell;
+    }
+
     public ActorPath path() {
         return path;
     }
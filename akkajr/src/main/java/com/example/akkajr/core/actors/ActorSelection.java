@@ -0,0 +1,58 @@
+package com.example.akkajr.core.actors;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Set of actors designated by a path pattern such as {@code /user/supervisor/*} or
+ * {@code /system/**}; see {@link ActorSystem#select(String)} for the syntax. The pattern is
+ * resolved again on every use, so actors created or stopped in between are taken into account.
+ */
+public final class ActorSelection {
+    private final ActorSystem system;
+    private final String pattern;
+    private final String[] segments;
+
+    ActorSelection(ActorSystem system, String pattern) {
+        this.system = system;
+        this.pattern = pattern;
+        this.segments = ActorPathTrie.segments(pattern);
+    }
+
+    public String pattern() {
+        return pattern;
+    }
+
+    /**
+     * Refs currently matching the pattern, in no particular order.
+     */
+    public List<ActorRef> resolve() {
+        Collection<ActorCell> cells = system.matchCells(segments);
+        List<ActorRef> refs = new ArrayList<>(cells.size());
+        for (ActorCell cell : cells) {
+            refs.add(cell.ref());
+        }
+        return refs;
+    }
+
+    /**
+     * Sends the message directly to every matching actor. When nothing matches, the message is
+     * published as a dead letter addressed to the pattern.
+     */
+    public void tell(Object message, ActorRef sender) {
+        Collection<ActorCell> cells = system.matchCells(segments);
+        if (cells.isEmpty()) {
+            system.publishDeadLetter(message, sender, pattern);
+            return;
+        }
+        for (ActorCell cell : cells) {
+            cell.enqueue(message, sender);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ActorSelection[" + pattern + "]";
+    }
+}
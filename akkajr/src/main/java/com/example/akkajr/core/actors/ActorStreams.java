@@ -0,0 +1,79 @@
+package com.example.akkajr.core.actors;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.reactivestreams.Subscriber;
+
+/**
+ * Bridges actors and Reactive Streams (Reactor {@code Flux}, WebFlux bodies, ...).
+ * <ul>
+ *   <li>{@link #subscriber(ActorRef)} feeds a stream into an actor. Demand follows the target's
+ *   mailbox: the subscriber never has more elements in flight than the mailbox can hold (or than
+ *   the window for unbounded mailboxes) and requests more as the actor processes them.</li>
+ *   <li>{@link #publisher(ActorSystem, Class, int)} exposes an actor-facing {@link ActorRef}
+ *   whose messages are emitted downstream as the subscriber requests them.</li>
+ * </ul>
+ * Stream termination is carried by {@link StreamCompleted} and {@link StreamFailed} messages in
+ * both directions.
+ */
+public final class ActorStreams {
+    /**
+     * In-flight window used when the target mailbox is unbounded.
+     */
+    public static final int DEFAULT_WINDOW = 256;
+
+    private static final AtomicLong PUBLISHERS = new AtomicLong();
+
+    private ActorStreams() {
+    }
+
+    /**
+     * Told to the target when the upstream completes; tell it to a publisher ref to complete the
+     * stream once its buffer is drained.
+     */
+    public record StreamCompleted() {
+    }
+
+    /**
+     * Told to the target when the upstream fails; tell it to a publisher ref to fail the stream
+     * immediately.
+     */
+    public record StreamFailed(Throwable cause) {
+    }
+
+    public static <T> Subscriber<T> subscriber(ActorRef target) {
+        return subscriber(target, DEFAULT_WINDOW);
+    }
+
+    /**
+     * Subscriber telling each element to {@code target}, with at most {@code window} elements (or
+     * the mailbox's remaining capacity at subscription, if smaller) queued or being processed at
+     * any time. The stream is cancelled when the target stops.
+     */
+    public static <T> Subscriber<T> subscriber(ActorRef target, int window) {
+        if (target == null || target.cell() == null) {
+            throw new IllegalArgumentException("Target must be a local actor ref");
+        }
+        if (window <= 0) {
+            throw new IllegalArgumentException("Window must be positive");
+        }
+        return new ActorSubscriber<>(target.cell(), window);
+    }
+
+    /**
+     * Creates a publisher backed by an actor under /system. Messages of type {@code elementType}
+     * told to {@link ActorPublisher#ref()} are emitted to the (single) subscriber; up to
+     * {@code bufferSize} of them are kept while it has no demand, further ones become dead letters.
+     */
+    public static <T> ActorPublisher<T> publisher(ActorSystem system, Class<T> elementType, int bufferSize) {
+        if (system == null || elementType == null) {
+            throw new IllegalArgumentException("System and element type cannot be null");
+        }
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive");
+        }
+        ActorRef ref = system.actorOfSystem(Props.create(ActorPublisher.PublisherActor.class, elementType, bufferSize),
+                "stream-publisher-" + PUBLISHERS.incrementAndGet());
+        return new ActorPublisher<>(ref);
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.akkajr.core.actors;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+/**
+ * Subscriber feeding an actor. The initial request is the in-flight window; each element carries
+ * a callback run once the actor has processed it, and demand is replenished in batches of half a
+ * window from those callbacks, so the mailbox never holds more than the window.
+ */
+final class ActorSubscriber<T> implements Subscriber<T> {
+    private final ActorCell target;
+    private final int maxWindow;
+    private final AtomicLong acknowledged = new AtomicLong();
+    private final Runnable acknowledge = this::acknowledge;
+    private volatile Subscription subscription;
+    private volatile int batch;
+    private volatile boolean done;
+
+    ActorSubscriber(ActorCell target, int maxWindow) {
+        this.target = target;
+        this.maxWindow = maxWindow;
+    }
+
+    @Override
+    public void onSubscribe(Subscription s) {
+        Objects.requireNonNull(s, "Subscription cannot be null");
+        if (subscription != null || target.isStopped()) {
+            s.cancel();
+            return;
+        }
+        int window = Math.max(1, Math.min(maxWindow, target.remainingCapacity()));
+        batch = Math.max(1, window / 2);
+        subscription = s;
+        s.request(window);
+    }
+
+    @Override
+    public void onNext(T element) {
+        Objects.requireNonNull(element, "Stream elements cannot be null");
+        if (done) {
+            return;
+        }
+        if (!target.enqueue(element, null, acknowledge)) {
+            if (target.isStopped()) {
+                cancel();
+            } else {
+                // rejected by a mailbox filled by other senders: the element is a dead letter, keep the demand
+                acknowledge();
+            }
+        }
+    }
+
+    @Override
+    public void onError(Throwable failure) {
+        Objects.requireNonNull(failure, "Failure cannot be null");
+        if (!done) {
+            done = true;
+            target.enqueue(new ActorStreams.StreamFailed(failure), null);
+        }
+    }
+
+    @Override
+    public void onComplete() {
+        if (!done) {
+            done = true;
+            target.enqueue(new ActorStreams.StreamCompleted(), null);
+        }
+    }
+
+    private void cancel() {
+        done = true;
+        subscription.cancel();
+    }
+
+    private void acknowledge() {
+        long pending = acknowledged.incrementAndGet();
+        // whoever loses the race leaves its acknowledgement for the next batch
+        if (pending >= batch && acknowledged.compareAndSet(pending, 0) && !done) {
+            subscription.request(pending);
+        }
+    }
+}
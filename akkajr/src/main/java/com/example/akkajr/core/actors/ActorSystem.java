@@ -1,5 +1,7 @@
 package com.example.akkajr.core.actors;
 
+import java.time.Duration;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -9,20 +11,39 @@ import java.util.Deque;
 import java.util.ArrayDeque;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+import com.example.akkajr.core.metrics.ActorLatency;
+import com.example.akkajr.core.metrics.ActorLatencySnapshot;
+import com.example.akkajr.core.metrics.DeadLetterReport;
+import com.example.akkajr.core.metrics.HotActor;
+import com.example.akkajr.core.metrics.HotActorTracker;
+import com.example.akkajr.core.metrics.HotActorsReport;
+import com.example.akkajr.core.metrics.LatencyHistogram;
 import com.example.akkajr.core.metrics.MetricsRegistry;
 import com.example.akkajr.core.metrics.MetricsSnapshot;
 import com.example.akkajr.core.metrics.ActorState;
+import com.example.akkajr.core.observability.EventSampler;
 import com.example.akkajr.core.observability.MessageEvent;
+import com.example.akkajr.core.observability.SamplingStats;
 
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
-import io.micrometer.core.instrument.Timer;
 import java.util.concurrent.TimeUnit;
 
 public final class ActorSystem {
+    // counters per hot-actor ranking and window length; memory is fixed by these, not by the actor count
+    private static final int HOT_ACTOR_COUNTERS = 256;
+    private static final Duration HOT_ACTOR_WINDOW = Duration.ofSeconds(10);
+
     private final Map<String, ActorCell> cells = new ConcurrentHashMap<>();
     private final Map<String, Set<String>> children = new ConcurrentHashMap<>();
+    // user and system actors by path segment, for wildcard selections (guardians are not indexed)
+    private final ActorPathTrie pathIndex = new ActorPathTrie();
     private final ActorPath userRoot = new ActorPath(ActorPath.ROOT_USER);
     private final ActorPath systemRoot = new ActorPath(ActorPath.ROOT_SYSTEM);
     private final AtomicInteger counter = new AtomicInteger(0);
@@ -30,15 +51,45 @@ public final class ActorSystem {
     private final ActorRef userGuardian;
     private final ActorRef systemGuardian;
     private final MeterRegistry meterRegistry;
-    private final Deque<MessageEvent> recentEvents = new ArrayDeque<>(256);
+    private final Deque<MessageEvent> recentEvents = new ArrayDeque<>();
     private final ReentrantLock eventsLock = new ReentrantLock();
+    private final ActorSystemSettings settings;
+    private final EventSampler eventSampler;
+    private final Map<String, Dispatcher> dispatchers = new ConcurrentHashMap<>();
+    private final Dispatcher defaultDispatcher;
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final AtomicLong passivatedActors = new AtomicLong();
+    private final DeadLetters deadLetters = new DeadLetters();
+    private final HotActorTracker hotActors = new HotActorTracker(HOT_ACTOR_COUNTERS, HOT_ACTOR_WINDOW);
+    private volatile PassivationStore passivationStore = PassivationStore.inMemory();
+    private volatile boolean tracingEnabled = true;
 
     public ActorSystem() {
         this(null);
     }
 
     public ActorSystem(MeterRegistry meterRegistry) {
+        this(meterRegistry, ActorSystemSettings.defaults());
+    }
+
+    public ActorSystem(MeterRegistry meterRegistry, ActorSystemSettings settings) {
+        if (settings == null) {
+            throw new IllegalArgumentException("Settings cannot be null");
+        }
         this.meterRegistry = meterRegistry;
+        this.settings = settings;
+        this.eventSampler = new EventSampler(settings.eventsPerSecond());
+        settings.dispatchers().forEach((name, dispatcher) ->
+                dispatchers.put(name, Dispatcher.create(dispatcherThreadPrefix(name), dispatcher)));
+        this.defaultDispatcher = dispatchers.computeIfAbsent(ActorSystemSettings.DEFAULT_DISPATCHER, name ->
+                Dispatcher.create(dispatcherThreadPrefix(name), ActorSystemSettings.defaults().dispatchers().get(name)));
+        // the scheduler thread is only started when the first timer (e.g. passivation) is armed
+        this.scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "actor-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.setRemoveOnCancelPolicy(true);
         this.userGuardian = createGuardian(userRoot);
         this.systemGuardian = createGuardian(systemRoot);
     }
@@ -82,9 +133,13 @@ public final class ActorSystem {
         if (siblings.contains(path.value())) {
             throw new IllegalArgumentException("Actor with name " + actorName + " already exists under " + basePath);
         }
+        Dispatcher dispatcher = resolveDispatcher(props);
+        MailboxType mailboxType = resolveMailbox(props);
         Actor actor = props.instantiate();
-        ActorCell cell = new ActorCell(actor, path, parentRef, this);
+        ActorMeters meters = ActorMeters.create(meterRegistry, settings.metricCardinality(), path, actor.getClass());
+        ActorCell cell = new ActorCell(actor, props, path, parentRef, this, mailboxType.create(path, this), dispatcher, meters);
         cells.put(path.value(), cell);
+        pathIndex.put(path, cell);
         siblings.add(path.value());
         cell.start();
         metrics.recordActorCreated();
@@ -127,26 +182,151 @@ public final class ActorSystem {
         }
     }
 
-    public void recordMessageProcessed(ActorPath path, long nanos) {
-        metrics.recordMessageProcessed();
-        if (meterRegistry != null) {
-            meterRegistry.counter("actor.messages.processed", "actor", path.value()).increment();
-            Timer timer = meterRegistry.timer("actor.messages.latency", "actor", path.value());
-            timer.record(nanos, TimeUnit.NANOSECONDS);
+    public ActorSystemSettings settings() {
+        return settings;
+    }
+
+    private Dispatcher resolveDispatcher(Props props) {
+        String name = props.dispatcherName();
+        if (name == null) {
+            return defaultDispatcher;
+        }
+        Dispatcher dispatcher = dispatchers.get(name);
+        if (dispatcher == null) {
+            throw new IllegalArgumentException("Unknown dispatcher: " + name);
         }
+        return dispatcher;
     }
 
-    public void recordMessageFailed(ActorPath path) {
+    private MailboxType resolveMailbox(Props props) {
+        String name = props.mailboxName();
+        if (name == null) {
+            return props.mailboxType();
+        }
+        MailboxType mailboxType = settings.mailboxes().get(name);
+        if (mailboxType == null) {
+            throw new IllegalArgumentException("Unknown mailbox: " + name);
+        }
+        return mailboxType;
+    }
+
+    private static String dispatcherThreadPrefix(String name) {
+        return ActorSystemSettings.DEFAULT_DISPATCHER.equals(name) ? "actor-dispatcher" : "actor-dispatcher-" + name;
+    }
+
+    void recordMessageProcessed(ActorMeters meters, long nanos) {
+        metrics.recordMessageProcessed();
+        meters.recordProcessed(nanos);
+    }
+
+    void recordMessageFailed(ActorMeters meters) {
         metrics.recordMessageFailed();
-        if (meterRegistry != null) {
-            meterRegistry.counter("actor.messages.failed", "actor", path.value()).increment();
+        meters.recordFailed();
+    }
+
+    /**
+     * Mailbox wait and service time histograms shared by all actors of the given class.
+     */
+    ActorLatency latencyFor(Class<? extends Actor> actorClass) {
+        return metrics.latency(actorClass.getName(), this::registerLatencyGauges);
+    }
+
+    public List<ActorLatencySnapshot> latencySnapshots() {
+        return metrics.latencySnapshots();
+    }
+
+    private void registerLatencyGauges(ActorLatency latency) {
+        if (meterRegistry == null) {
+            return;
+        }
+        registerPercentileGauges("actor.mailbox.wait", latency.actorClass(), latency.mailboxWait());
+        registerPercentileGauges("actor.service.time", latency.actorClass(), latency.serviceTime());
+    }
+
+    private void registerPercentileGauges(String name, String actorClass, LatencyHistogram histogram) {
+        double[] percentiles = {50.0, 99.0, 99.9};
+        String[] tags = {"0.5", "0.99", "0.999"};
+        for (int i = 0; i < percentiles.length; i++) {
+            double percentile = percentiles[i];
+            Gauge.builder(name, histogram, h -> h.valueAtPercentile(percentile) / 1_000_000_000.0)
+                    .tag("actorClass", actorClass)
+                    .tag("quantile", tags[i])
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+        }
+    }
+
+    void recordTurn(String path, int messages, long processingNanos, int backlog) {
+        hotActors.recordTurn(path, messages, processingNanos, backlog);
+    }
+
+    void recordBacklog(String path, int backlog) {
+        hotActors.recordBacklog(path, backlog);
+    }
+
+    /**
+     * Busiest actors of the last 10 to 20 seconds by messages, processing time and backlog, from
+     * a constant-size summary: cost does not depend on the number of actors, and rankings are
+     * exact for actors well above the rest (see {@link HotActor#getError()}).
+     */
+    public HotActorsReport topActors(int limit) {
+        if (limit <= 0 || limit > HOT_ACTOR_COUNTERS) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + HOT_ACTOR_COUNTERS);
         }
+        return hotActors.top(limit);
     }
 
-    void recordActorStopped() {
+    void recordActorStopped(ActorMeters meters) {
         metrics.recordActorStopped();
         if (meterRegistry != null) {
             meterRegistry.counter("actor.stopped").increment();
+            meters.remove(meterRegistry);
+        }
+    }
+
+    void recordActorPassivated() {
+        passivatedActors.incrementAndGet();
+        metrics.recordActorPassivated();
+        if (meterRegistry != null) {
+            meterRegistry.counter("actor.passivated").increment();
+        }
+    }
+
+    void recordPassivationEnded() {
+        passivatedActors.decrementAndGet();
+    }
+
+    public PassivationStore passivationStore() {
+        return passivationStore;
+    }
+
+    /**
+     * Replaces the store used to keep the state of passivated actors (in memory by default).
+     */
+    public void setPassivationStore(PassivationStore passivationStore) {
+        if (passivationStore == null) {
+            throw new IllegalArgumentException("Passivation store cannot be null");
+        }
+        this.passivationStore = passivationStore;
+    }
+
+    public boolean isTracingEnabled() {
+        return tracingEnabled;
+    }
+
+    /**
+     * Turns message ids and trace propagation on or off (on by default). When off, envelopes carry
+     * no generated ids and tells made from {@code receive} do not inherit any trace context.
+     */
+    public void setTracingEnabled(boolean tracingEnabled) {
+        this.tracingEnabled = tracingEnabled;
+    }
+
+    ScheduledFuture<?> schedulePassivationCheck(Runnable check, long delayNanos) {
+        try {
+            return scheduler.schedule(check, delayNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            return null; // system is shutting down
         }
     }
 
@@ -167,6 +347,7 @@ public final class ActorSystem {
             });
         }
         ActorCell cell = cells.remove(path.value());
+        pathIndex.remove(path);
         if (cell != null) {
             cell.stop();
         }
@@ -187,23 +368,57 @@ public final class ActorSystem {
         stopRecursive(systemRoot, true);
         cells.clear();
         children.clear();
+        pathIndex.clear();
+        dispatchers.values().forEach(Dispatcher::shutdown);
+        scheduler.shutdownNow();
     }
 
     /**
-     * Look up an actor by absolute path (e.g. /user/foo/bar). Returns null if not found.
+     * Look up an actor by absolute path (e.g. /user/foo/bar). Returns null if not found; callers
+     * dropping a message because of that should report it through {@link #publishDeadLetter}.
+     * Passivated actors stay resolvable; telling them recreates the actor.
      */
     public ActorRef actorSelection(String absolutePath) {
         ActorCell cell = cells.get(absolutePath);
         return cell != null ? cell.ref() : null;
     }
 
+    /**
+     * Selection of every actor matching the pattern. Segments may be {@code *} (any one actor
+     * name), {@code **} (zero or more levels, e.g. {@code /user/supervisor/**} for a whole
+     * subtree) or a glob such as {@code worker-*}; other segments must match exactly. Guardians
+     * are never selected. Telling the selection delivers to each match directly.
+     */
+    public ActorSelection select(String pattern) {
+        return new ActorSelection(this, pattern);
+    }
+
+    Collection<ActorCell> matchCells(String[] pattern) {
+        return pathIndex.match(pattern);
+    }
+
+    /**
+     * Records a message that could not be delivered to {@code recipient} (a path). Only aggregated
+     * counts are kept, see {@link #deadLetterReport()}.
+     */
+    public void publishDeadLetter(Object message, ActorRef sender, String recipient) {
+        deadLetters.publish(message, sender, recipient);
+        if (meterRegistry != null) {
+            meterRegistry.counter("actor.deadletters").increment();
+        }
+    }
+
+    public DeadLetterReport deadLetterReport() {
+        return deadLetters.report();
+    }
+
     public MetricsSnapshot metricsSnapshot() {
         long totalActors = cells.size();
         long userActors = children.getOrDefault(userRoot.value(), Collections.emptySet()).size();
         long systemActors = children.getOrDefault(systemRoot.value(), Collections.emptySet()).size();
         long pausedActors = cells.values().stream().filter(ActorCell::isPaused).count();
         long backlog = cells.values().stream().mapToLong(ActorCell::mailboxSize).sum();
-        return metrics.snapshot(totalActors, userActors, systemActors, pausedActors, backlog);
+        return metrics.snapshot(totalActors, userActors, systemActors, pausedActors, passivatedActors.get(), backlog, deadLetters.total());
     }
 
     public List<ActorState> actorStates() {
@@ -213,15 +428,39 @@ public final class ActorSystem {
             ActorPath path = cell.path();
             boolean guardian = isGuardian(path);
             String scope = path.value().startsWith(ActorPath.ROOT_USER) ? "user" : "system";
-            states.add(new ActorState(path.value(), cell.mailboxSize(), cell.isPaused(), guardian, scope, cell.processedCount(), cell.failedCount()));
+            states.add(new ActorState(path.value(), cell.mailboxSize(), cell.isPaused(), cell.isPassivated(), guardian, scope, cell.processedCount(), cell.failedCount()));
         }
         return states;
     }
 
+    /**
+     * Whether the event of a successfully processed message should be recorded; lets the caller
+     * skip building events that would be sampled out.
+     */
+    boolean sampleProcessedEvent() {
+        return eventSampler.sample();
+    }
+
+    void recordFailedEvent(MessageEvent event) {
+        eventSampler.recordFailure();
+        recordEvent(event);
+    }
+
+    /**
+     * Target rate of successful-message events kept in {@link #recentEvents()} (failures are always kept).
+     */
+    public void setEventsPerSecondTarget(int eventsPerSecond) {
+        eventSampler.setTargetPerSecond(eventsPerSecond);
+    }
+
+    public SamplingStats eventSamplingStats() {
+        return eventSampler.stats();
+    }
+
     void recordEvent(MessageEvent event) {
         eventsLock.lock();
         try {
-            if (recentEvents.size() >= 200) {
+            if (recentEvents.size() >= settings.eventBufferSize()) {
                 recentEvents.removeFirst();
             }
             recentEvents.addLast(event);
@@ -241,7 +480,8 @@ public final class ActorSystem {
 
     private ActorRef createGuardian(ActorPath rootPath) {
         Actor actor = new GuardianActor();
-        ActorCell cell = new ActorCell(actor, rootPath, null, this);
+        ActorCell cell = new ActorCell(actor, null, rootPath, null, this, MailboxType.unbounded().create(rootPath, this), defaultDispatcher,
+                ActorMeters.NONE);
         cells.put(rootPath.value(), cell);
         cell.start();
         return cell.ref();
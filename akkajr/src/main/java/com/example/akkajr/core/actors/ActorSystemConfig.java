@@ -1,16 +1,18 @@
 package com.example.akkajr.core.actors;
 
 import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import io.micrometer.core.instrument.MeterRegistry;
 
 @Configuration
+@EnableConfigurationProperties(ActorSystemProperties.class)
 public class ActorSystemConfig {
     
     @Bean(name = "coreActorSystem")
-    public ActorSystem coreActorSystem(ObjectProvider<MeterRegistry> registryProvider) {
+    public ActorSystem coreActorSystem(ObjectProvider<MeterRegistry> registryProvider, ActorSystemProperties properties) {
         // Allow running without Micrometer registry (tests) while wiring metrics when present
-        return new ActorSystem(registryProvider.getIfAvailable());
+        return new ActorSystem(registryProvider.getIfAvailable(), properties.toSettings());
     }
 }
\ No newline at end of file
@@ -0,0 +1,233 @@
+package com.example.akkajr.core.actors;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import com.example.akkajr.core.metrics.MetricCardinality;
+
+/**
+ * {@code akkajr.actors.*} properties, turned into {@link ActorSystemSettings} by
+ * {@link ActorSystemConfig}. Example:
+ * <pre>
+ * akkajr.actors.dispatchers.default.threads=8
+ * akkajr.actors.dispatchers.io.threads=32
+ * akkajr.actors.dispatchers.io.throughput=1
+ * akkajr.actors.dispatchers.rpc.threads=2
+ * akkajr.actors.dispatchers.rpc.idle-strategy=backoff
+ * akkajr.actors.mailboxes.ingest.type=bounded
+ * akkajr.actors.mailboxes.ingest.capacity=10000
+ * akkajr.actors.events.buffer-size=500
+ * akkajr.actors.health.backlog-threshold=5000
+ * akkajr.actors.metrics.cardinality=per-class
+ * </pre>
+ */
+@ConfigurationProperties(prefix = "akkajr.actors")
+public class ActorSystemProperties {
+
+    private Map<String, Dispatcher> dispatchers = new LinkedHashMap<>();
+    private Map<String, Mailbox> mailboxes = new LinkedHashMap<>();
+    private final Events events = new Events();
+    private final Health health = new Health();
+    private final Metrics metrics = new Metrics();
+
+    public Map<String, Dispatcher> getDispatchers() {
+        return dispatchers;
+    }
+
+    public void setDispatchers(Map<String, Dispatcher> dispatchers) {
+        this.dispatchers = dispatchers;
+    }
+
+    public Map<String, Mailbox> getMailboxes() {
+        return mailboxes;
+    }
+
+    public void setMailboxes(Map<String, Mailbox> mailboxes) {
+        this.mailboxes = mailboxes;
+    }
+
+    public Events getEvents() {
+        return events;
+    }
+
+    public Health getHealth() {
+        return health;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    public ActorSystemSettings toSettings() {
+        ActorSystemSettings settings = ActorSystemSettings.defaults();
+        ActorSystemSettings.DispatcherSettings defaultDispatcher = settings.dispatchers().get(ActorSystemSettings.DEFAULT_DISPATCHER);
+        for (Map.Entry<String, Dispatcher> entry : dispatchers.entrySet()) {
+            Dispatcher dispatcher = entry.getValue();
+            int threads = dispatcher.getThreads() != null ? dispatcher.getThreads() : defaultDispatcher.threads();
+            int throughput = dispatcher.getThroughput() != null ? dispatcher.getThroughput() : defaultDispatcher.throughput();
+            IdleStrategy idleStrategy = dispatcher.getIdleStrategy() != null ? dispatcher.getIdleStrategy() : defaultDispatcher.idleStrategy();
+            settings = settings.withDispatcher(entry.getKey(), new ActorSystemSettings.DispatcherSettings(threads, throughput, idleStrategy));
+        }
+        for (Map.Entry<String, Mailbox> entry : mailboxes.entrySet()) {
+            settings = settings.withMailbox(entry.getKey(), entry.getValue().toMailboxType(entry.getKey()));
+        }
+        if (events.getBufferSize() != null) {
+            settings = settings.withEventBufferSize(events.getBufferSize());
+        }
+        if (events.getPerSecond() != null) {
+            settings = settings.withEventsPerSecond(events.getPerSecond());
+        }
+        if (health.getBacklogThreshold() != null) {
+            settings = settings.withBacklogThreshold(health.getBacklogThreshold());
+        }
+        if (metrics.getCardinality() != null) {
+            settings = settings.withMetricCardinality(metrics.getCardinality());
+        }
+        return settings;
+    }
+
+    public static class Dispatcher {
+        private Integer threads;
+        private Integer throughput;
+        /** blocking (default), backoff or busy-spin. */
+        private IdleStrategy idleStrategy;
+
+        public Integer getThreads() {
+            return threads;
+        }
+
+        public void setThreads(Integer threads) {
+            this.threads = threads;
+        }
+
+        public Integer getThroughput() {
+            return throughput;
+        }
+
+        public void setThroughput(Integer throughput) {
+            this.throughput = throughput;
+        }
+
+        public IdleStrategy getIdleStrategy() {
+            return idleStrategy;
+        }
+
+        public void setIdleStrategy(IdleStrategy idleStrategy) {
+            this.idleStrategy = idleStrategy;
+        }
+    }
+
+    public static class Mailbox {
+        /** unbounded, bounded, ring or overflow-to-disk (conflating needs a key function and is code-only). */
+        private String type = "unbounded";
+        /** Capacity of a bounded or ring mailbox, or in-memory capacity of an overflow-to-disk one. */
+        private Integer capacity;
+        private Path directory;
+        private Integer segmentSize;
+
+        public String getType() {
+            return type;
+        }
+
+        public void setType(String type) {
+            this.type = type;
+        }
+
+        public Integer getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(Integer capacity) {
+            this.capacity = capacity;
+        }
+
+        public Path getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(Path directory) {
+            this.directory = directory;
+        }
+
+        public Integer getSegmentSize() {
+            return segmentSize;
+        }
+
+        public void setSegmentSize(Integer segmentSize) {
+            this.segmentSize = segmentSize;
+        }
+
+        MailboxType toMailboxType(String name) {
+            switch (type) {
+                case "unbounded":
+                    return MailboxType.unbounded();
+                case "bounded":
+                    return MailboxType.bounded(required(name, "capacity", capacity));
+                case "ring":
+                    return MailboxType.ring(required(name, "capacity", capacity));
+                case "overflow-to-disk":
+                    Path dir = directory != null ? directory : Path.of(System.getProperty("java.io.tmpdir"), "akkajr-mailboxes");
+                    return segmentSize != null
+                            ? MailboxType.overflowToDisk(required(name, "capacity", capacity), dir, MessageSerializer.java(), segmentSize)
+                            : MailboxType.overflowToDisk(required(name, "capacity", capacity), dir, MessageSerializer.java());
+                default:
+                    throw new IllegalArgumentException("Unknown mailbox type '" + type + "' for mailbox " + name);
+            }
+        }
+
+        private static int required(String name, String property, Integer value) {
+            if (value == null) {
+                throw new IllegalArgumentException("Mailbox " + name + " requires " + property);
+            }
+            return value;
+        }
+    }
+
+    public static class Events {
+        private Integer bufferSize;
+        private Integer perSecond;
+
+        public Integer getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(Integer bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+
+        public Integer getPerSecond() {
+            return perSecond;
+        }
+
+        public void setPerSecond(Integer perSecond) {
+            this.perSecond = perSecond;
+        }
+    }
+
+    public static class Health {
+        private Long backlogThreshold;
+
+        public Long getBacklogThreshold() {
+            return backlogThreshold;
+        }
+
+        public void setBacklogThreshold(Long backlogThreshold) {
+            this.backlogThreshold = backlogThreshold;
+        }
+    }
+
+    public static class Metrics {
+        private MetricCardinality cardinality;
+
+        public MetricCardinality getCardinality() {
+            return cardinality;
+        }
+
+        public void setCardinality(MetricCardinality cardinality) {
+            this.cardinality = cardinality;
+        }
+    }
+}
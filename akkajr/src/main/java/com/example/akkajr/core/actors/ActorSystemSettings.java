@@ -0,0 +1,156 @@
+package com.example.akkajr.core.actors;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.example.akkajr.core.metrics.MetricCardinality;
+
+/**
+ * Tuning of an {@link ActorSystem}: named dispatchers and mailboxes that {@link Props} can refer
+ * to, event history, health thresholds and metric cardinality. Immutable; each {@code with...}
+ * method returns a modified copy. In the application it is built from {@code akkajr.actors.*}
+ * properties (see {@link ActorSystemProperties}).
+ */
+public final class ActorSystemSettings {
+    public static final String DEFAULT_DISPATCHER = "default";
+    static final int DEFAULT_THROUGHPUT = 10;
+
+    private final Map<String, DispatcherSettings> dispatchers;
+    private final Map<String, MailboxType> mailboxes;
+    private final int eventBufferSize;
+    private final int eventsPerSecond;
+    private final long backlogThreshold;
+    private final MetricCardinality metricCardinality;
+
+    private ActorSystemSettings(Map<String, DispatcherSettings> dispatchers, Map<String, MailboxType> mailboxes, int eventBufferSize,
+                                int eventsPerSecond, long backlogThreshold, MetricCardinality metricCardinality) {
+        this.dispatchers = Collections.unmodifiableMap(dispatchers);
+        this.mailboxes = Collections.unmodifiableMap(mailboxes);
+        this.eventBufferSize = eventBufferSize;
+        this.eventsPerSecond = eventsPerSecond;
+        this.backlogThreshold = backlogThreshold;
+        this.metricCardinality = metricCardinality;
+    }
+
+    /**
+     * Settings matching the historical behaviour: one dispatcher sized to the CPU count with a
+     * throughput of 10, 200 recent events, 50 sampled events per second, a backlog threshold of
+     * 1000 and per-actor meters.
+     */
+    public static ActorSystemSettings defaults() {
+        Map<String, DispatcherSettings> dispatchers = new LinkedHashMap<>();
+        dispatchers.put(DEFAULT_DISPATCHER, new DispatcherSettings(Math.max(2, Runtime.getRuntime().availableProcessors()), DEFAULT_THROUGHPUT));
+        return new ActorSystemSettings(dispatchers, new LinkedHashMap<>(), 200, 50, 1000, MetricCardinality.PER_ACTOR);
+    }
+
+    /**
+     * Adds or replaces a named dispatcher; {@value #DEFAULT_DISPATCHER} is the one used when
+     * props do not name any.
+     */
+    public ActorSystemSettings withDispatcher(String name, DispatcherSettings dispatcher) {
+        requireName(name);
+        if (dispatcher == null) {
+            throw new IllegalArgumentException("Dispatcher settings cannot be null");
+        }
+        Map<String, DispatcherSettings> copy = new LinkedHashMap<>(dispatchers);
+        copy.put(name, dispatcher);
+        return new ActorSystemSettings(copy, new LinkedHashMap<>(mailboxes), eventBufferSize, eventsPerSecond, backlogThreshold, metricCardinality);
+    }
+
+    /**
+     * Adds or replaces a named mailbox, referenced through {@link Props#withMailbox(String)}.
+     */
+    public ActorSystemSettings withMailbox(String name, MailboxType mailboxType) {
+        requireName(name);
+        if (mailboxType == null) {
+            throw new IllegalArgumentException("Mailbox type cannot be null");
+        }
+        Map<String, MailboxType> copy = new LinkedHashMap<>(mailboxes);
+        copy.put(name, mailboxType);
+        return new ActorSystemSettings(new LinkedHashMap<>(dispatchers), copy, eventBufferSize, eventsPerSecond, backlogThreshold, metricCardinality);
+    }
+
+    public ActorSystemSettings withEventBufferSize(int eventBufferSize) {
+        if (eventBufferSize <= 0) {
+            throw new IllegalArgumentException("Event buffer size must be positive");
+        }
+        return new ActorSystemSettings(new LinkedHashMap<>(dispatchers), new LinkedHashMap<>(mailboxes), eventBufferSize, eventsPerSecond, backlogThreshold, metricCardinality);
+    }
+
+    public ActorSystemSettings withEventsPerSecond(int eventsPerSecond) {
+        if (eventsPerSecond <= 0) {
+            throw new IllegalArgumentException("Events per second must be positive");
+        }
+        return new ActorSystemSettings(new LinkedHashMap<>(dispatchers), new LinkedHashMap<>(mailboxes), eventBufferSize, eventsPerSecond, backlogThreshold, metricCardinality);
+    }
+
+    public ActorSystemSettings withBacklogThreshold(long backlogThreshold) {
+        if (backlogThreshold < 0) {
+            throw new IllegalArgumentException("Backlog threshold cannot be negative");
+        }
+        return new ActorSystemSettings(new LinkedHashMap<>(dispatchers), new LinkedHashMap<>(mailboxes), eventBufferSize, eventsPerSecond, backlogThreshold, metricCardinality);
+    }
+
+    public ActorSystemSettings withMetricCardinality(MetricCardinality metricCardinality) {
+        if (metricCardinality == null) {
+            throw new IllegalArgumentException("Metric cardinality cannot be null");
+        }
+        return new ActorSystemSettings(new LinkedHashMap<>(dispatchers), new LinkedHashMap<>(mailboxes), eventBufferSize, eventsPerSecond, backlogThreshold, metricCardinality);
+    }
+
+    public Map<String, DispatcherSettings> dispatchers() {
+        return dispatchers;
+    }
+
+    public Map<String, MailboxType> mailboxes() {
+        return mailboxes;
+    }
+
+    public int eventBufferSize() {
+        return eventBufferSize;
+    }
+
+    public int eventsPerSecond() {
+        return eventsPerSecond;
+    }
+
+    /**
+     * Total backlog above which health reports OUT_OF_SERVICE and an alert is raised.
+     */
+    public long backlogThreshold() {
+        return backlogThreshold;
+    }
+
+    public MetricCardinality metricCardinality() {
+        return metricCardinality;
+    }
+
+    private static void requireName(String name) {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Name cannot be blank");
+        }
+    }
+
+    /**
+     * Size of a dispatcher's thread pool, the number of messages an actor may process per turn and
+     * how idle threads wait for work.
+     */
+    public record DispatcherSettings(int threads, int throughput, IdleStrategy idleStrategy) {
+        public DispatcherSettings {
+            if (threads <= 0 || throughput <= 0) {
+                throw new IllegalArgumentException("Dispatcher threads and throughput must be positive");
+            }
+            if (idleStrategy == null) {
+                throw new IllegalArgumentException("Idle strategy cannot be null");
+            }
+        }
+
+        /**
+         * Dispatcher with blocking idle threads.
+         */
+        public DispatcherSettings(int threads, int throughput) {
+            this(threads, throughput, IdleStrategy.BLOCKING);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.akkajr.core.actors;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * FIFO mailbox holding at most {@code capacity} messages. A message arriving when the mailbox is
+ * full is rejected (and becomes a dead letter) instead of growing the heap; {@link PoisonPill} is
+ * always accepted so that a saturated actor can still be stopped.
+ */
+final class BoundedMailbox extends Mailbox {
+    private final Queue<MessageEnvelope> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger count = new AtomicInteger();
+    private final int capacity;
+
+    BoundedMailbox(int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    boolean offer(MessageEnvelope envelope) {
+        if (envelope.message instanceof PoisonPill) {
+            count.incrementAndGet();
+            return queue.offer(envelope);
+        }
+        for (;;) {
+            int current = count.get();
+            if (current >= capacity) {
+                return false;
+            }
+            if (count.compareAndSet(current, current + 1)) {
+                return queue.offer(envelope);
+            }
+        }
+    }
+
+    @Override
+    MessageEnvelope poll() {
+        MessageEnvelope envelope = queue.poll();
+        if (envelope != null) {
+            count.decrementAndGet();
+        }
+        return envelope;
+    }
+
+    @Override
+    int size() {
+        return count.get();
+    }
+
+    @Override
+    int remainingCapacity() {
+        return Math.max(0, capacity - count.get());
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.akkajr.core.actors;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Latest-value-wins mailbox. Messages for which the key function returns a non-null key replace
+ * any pending message with the same key in place (keeping its queue position); other messages
+ * are queued in FIFO order. The backlog is therefore bounded by the number of distinct keys
+ * plus the non-keyed messages still waiting.
+ */
+final class ConflatingMailbox extends Mailbox {
+    private final Function<Object, ?> keyFunction;
+    private final Deque<Slot> queue = new ArrayDeque<>();
+    private final Map<Object, Slot> pending = new HashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    ConflatingMailbox(Function<Object, ?> keyFunction) {
+        this.keyFunction = keyFunction;
+    }
+
+    @Override
+    boolean offer(MessageEnvelope envelope) {
+        Object key = keyOf(envelope.message);
+        MessageEnvelope replaced = null;
+        lock.lock();
+        try {
+            if (key != null) {
+                Slot existing = pending.get(key);
+                if (existing != null) {
+                    replaced = existing.envelope;
+                    existing.envelope = envelope;
+                    return true;
+                }
+            }
+            Slot slot = new Slot(key, envelope);
+            queue.addLast(slot);
+            if (key != null) {
+                pending.put(key, slot);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+            // a conflated message will never be processed, release whoever waits for it
+            if (replaced != null && replaced.onProcessed != null) {
+                replaced.onProcessed.run();
+            }
+        }
+    }
+
+    @Override
+    MessageEnvelope poll() {
+        lock.lock();
+        try {
+            Slot slot = queue.pollFirst();
+            if (slot == null) {
+                return null;
+            }
+            if (slot.key != null) {
+                pending.remove(slot.key);
+            }
+            return slot.envelope;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    int size() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Object keyOf(Object message) {
+        if (message == null || message instanceof PoisonPill) {
+            return null;
+        }
+        return keyFunction.apply(message);
+    }
+
+    private static final class Slot {
+        private final Object key;
+        private MessageEnvelope envelope;
+
+        private Slot(Object key, MessageEnvelope envelope) {
+            this.key = key;
+            this.envelope = envelope;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.akkajr.core.actors;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+import com.example.akkajr.core.metrics.DeadLetterCount;
+import com.example.akkajr.core.metrics.DeadLetterReport;
+
+/**
+ * Sink for messages that could not be delivered (recipient stopped or unknown). Messages are not
+ * kept: only counts per (sender, recipient, message class), in a table of at most
+ * {@link #MAX_ENTRIES} combinations; anything beyond goes to a single "other" counter, so a
+ * dead-letter storm costs constant memory. At most one sample is logged per second.
+ */
+final class DeadLetters {
+    static final int MAX_ENTRIES = 256;
+    private static final long LOG_INTERVAL_NANOS = 1_000_000_000L;
+    private static final Logger LOG = Logger.getLogger(DeadLetters.class.getName());
+
+    private final Map<Key, Counter> counts = new ConcurrentHashMap<>();
+    private final LongAdder total = new LongAdder();
+    private final LongAdder other = new LongAdder();
+    private final AtomicLong nextLogAt = new AtomicLong(System.nanoTime());
+    private final AtomicLong suppressed = new AtomicLong();
+
+    void publish(Object message, ActorRef sender, String recipient) {
+        total.increment();
+        String senderPath = sender != null ? sender.path().value() : "none";
+        String messageClass = message != null ? message.getClass().getName() : "null";
+        Key key = new Key(senderPath, recipient, messageClass);
+        Counter counter = counts.get(key);
+        if (counter == null && counts.size() < MAX_ENTRIES) {
+            // the size check is racy, the table may overshoot by a few entries under contention
+            counter = counts.computeIfAbsent(key, k -> new Counter());
+        }
+        if (counter != null) {
+            counter.count.increment();
+            counter.lastSeen = System.currentTimeMillis();
+        } else {
+            other.increment();
+        }
+        logSample(key);
+    }
+
+    long total() {
+        return total.sum();
+    }
+
+    DeadLetterReport report() {
+        List<DeadLetterCount> entries = new ArrayList<>(counts.size());
+        for (Map.Entry<Key, Counter> entry : counts.entrySet()) {
+            Key key = entry.getKey();
+            Counter counter = entry.getValue();
+            entries.add(new DeadLetterCount(key.sender, key.recipient, key.messageClass, counter.count.sum(), counter.lastSeen));
+        }
+        entries.sort(Comparator.comparingLong(DeadLetterCount::getCount).reversed());
+        return new DeadLetterReport(total.sum(), other.sum(), entries);
+    }
+
+    private void logSample(Key key) {
+        long now = System.nanoTime();
+        long next = nextLogAt.get();
+        if (now - next < 0 || !nextLogAt.compareAndSet(next, now + LOG_INTERVAL_NANOS)) {
+            suppressed.incrementAndGet();
+            return;
+        }
+        long skipped = suppressed.getAndSet(0);
+        LOG.warning("Dead letter: " + key.messageClass + " from " + key.sender + " to " + key.recipient
+                + (skipped > 0 ? " (" + skipped + " more since last report)" : ""));
+    }
+
+    private record Key(String sender, String recipient, String messageClass) {
+    }
+
+    private static final class Counter {
+        final LongAdder count = new LongAdder();
+        volatile long lastSeen;
+    }
+}
@@ -0,0 +1,320 @@
+package com.example.akkajr.core.actors;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+/**
+ * Mailbox with a bounded in-memory head that spills the rest of the backlog to memory-mapped
+ * segment files. Once anything is spilled, new messages are appended to disk too, and the head is
+ * refilled from the oldest segment as the actor consumes, so FIFO order is preserved. Fully read
+ * segments are deleted.
+ */
+final class DiskOverflowMailbox extends Mailbox {
+    private static final Logger LOG = Logger.getLogger(DiskOverflowMailbox.class.getName());
+    // payload length recorded in place of a serialized PoisonPill
+    private static final int POISON_PILL_MARKER = -1;
+
+    private final String owner;
+    private final ActorSystem system;
+    private final int headCapacity;
+    private final int segmentSize;
+    private final Path directory;
+    private final MessageSerializer serializer;
+    private final Deque<MessageEnvelope> head = new ArrayDeque<>();
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private long spilled;
+    private int nextSegment;
+    // volatile so producers can tell a failed segment creation apart from a concurrent cleanUp()
+    private volatile boolean released;
+
+    DiskOverflowMailbox(ActorPath owner, ActorSystem system, int headCapacity, int segmentSize, Path baseDirectory, MessageSerializer serializer) {
+        this.owner = owner.value();
+        this.system = system;
+        this.headCapacity = headCapacity;
+        this.segmentSize = segmentSize;
+        this.serializer = serializer;
+        try {
+            Files.createDirectories(baseDirectory);
+            String prefix = owner.value().substring(1).replaceAll("[^A-Za-z0-9_-]", "_") + "-";
+            this.directory = Files.createTempDirectory(baseDirectory, prefix);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create overflow directory for " + owner, e);
+        }
+    }
+
+    @Override
+    boolean offer(MessageEnvelope envelope) {
+        lock.lock();
+        try {
+            if (released) {
+                return false;
+            }
+            if (spilled == 0 && head.size() < headCapacity) {
+                head.addLast(envelope);
+                return true;
+            }
+        } finally {
+            lock.unlock();
+        }
+        // encoding and segment creation run outside the lock so they never hold up the consuming turn
+        byte[] record;
+        try {
+            record = encode(envelope);
+        } catch (IOException e) {
+            // cannot be written without breaking FIFO order, so it is dropped like an undeliverable message
+            LOG.warning("Dropping message " + envelope.message.getClass().getName() + " that cannot be spilled: " + e.getMessage());
+            return false;
+        }
+        Segment prepared = null;
+        try {
+            while (true) {
+                int number;
+                lock.lock();
+                try {
+                    if (released) {
+                        return false;
+                    }
+                    if (spilled == 0 && head.size() < headCapacity) {
+                        // the backlog was consumed while the record was being encoded
+                        head.addLast(envelope);
+                        return true;
+                    }
+                    Segment tail = segments.peekLast();
+                    if ((tail == null || !tail.fits(record.length)) && prepared != null) {
+                        link(prepared);
+                        tail = prepared;
+                        prepared = null;
+                    }
+                    if (tail != null && tail.fits(record.length)) {
+                        tail.append(record);
+                        spilled++;
+                        break;
+                    }
+                    number = nextSegment++;
+                } finally {
+                    lock.unlock();
+                }
+                try {
+                    prepared = newSegment(number, record.length);
+                } catch (UncheckedIOException e) {
+                    if (released) {
+                        return false;
+                    }
+                    throw e;
+                }
+            }
+        } finally {
+            if (prepared != null) {
+                // another producer linked a segment with room first, or the mailbox was released
+                discard(prepared);
+            }
+        }
+        // callbacks cannot be written to disk: a spilled message counts as handled once it is persisted
+        if (envelope.onProcessed != null) {
+            envelope.onProcessed.run();
+        }
+        return true;
+    }
+
+    @Override
+    MessageEnvelope poll() {
+        lock.lock();
+        try {
+            MessageEnvelope envelope = head.pollFirst();
+            // keep the head topped up so spilled messages come back in order
+            while (spilled > 0 && head.size() < headCapacity) {
+                MessageEnvelope restored = unspill();
+                if (restored != null) {
+                    head.addLast(restored);
+                }
+            }
+            if (envelope == null) {
+                envelope = head.pollFirst();
+            }
+            return envelope;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    int size() {
+        lock.lock();
+        try {
+            return (int) Math.min(Integer.MAX_VALUE, head.size() + spilled);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    void cleanUp() {
+        lock.lock();
+        try {
+            released = true;
+            head.clear();
+            while (!segments.isEmpty()) {
+                segments.pollFirst().delete();
+            }
+            spilled = 0;
+            Files.deleteIfExists(directory);
+        } catch (IOException e) {
+            LOG.warning("Cannot delete overflow directory " + directory + ": " + e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void link(Segment segment) {
+        segments.addLast(segment);
+        FlightEvents.MailboxOverflow overflow = new FlightEvents.MailboxOverflow();
+        if (overflow.shouldCommit()) {
+            overflow.path = owner;
+            overflow.mailboxType = "overflow-to-disk";
+            overflow.mailboxSize = (int) Math.min(Integer.MAX_VALUE, head.size() + spilled);
+            overflow.action = "spilled to " + segment.file.getFileName();
+            overflow.commit();
+        }
+    }
+
+    private void discard(Segment segment) {
+        segment.delete();
+        if (released) {
+            // cleanUp() could not remove the directory while this segment was still in it
+            try {
+                Files.deleteIfExists(directory);
+            } catch (IOException e) {
+                LOG.fine("Overflow directory " + directory + " still in use: " + e.getMessage());
+            }
+        }
+    }
+
+    private MessageEnvelope unspill() {
+        Segment first = segments.peekFirst();
+        byte[] record = first.next();
+        spilled--;
+        if (first.isDrained()) {
+            segments.pollFirst().delete();
+        }
+        try {
+            return decode(record);
+        } catch (IOException e) {
+            LOG.warning("Dropping spilled message that cannot be read back: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private Segment newSegment(int number, int recordLength) {
+        int size = Math.max(segmentSize, recordLength + Integer.BYTES);
+        Path file = directory.resolve(String.format("segment-%06d.log", number));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return new Segment(file, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create overflow segment " + file, e);
+        }
+    }
+
+    private byte[] encode(MessageEnvelope envelope) throws IOException {
+        // PoisonPill is written as a marker so any serializer can spill it
+        byte[] payload = envelope.message == PoisonPill.INSTANCE ? new byte[0] : serializer.toBinary(envelope.message);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(payload.length + 96);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeUTF(envelope.sender != null ? envelope.sender.path().value() : "");
+        out.writeUTF(envelope.messageId != null ? envelope.messageId : "");
+        out.writeUTF(envelope.traceId != null ? envelope.traceId : "");
+        out.writeUTF(envelope.parentId != null ? envelope.parentId : "");
+        // nanoTime is only meaningful within this JVM, which is fine since segments never outlive it
+        out.writeLong(envelope.enqueuedAt);
+        out.writeInt(envelope.message == PoisonPill.INSTANCE ? POISON_PILL_MARKER : payload.length);
+        out.write(payload);
+        return bytes.toByteArray();
+    }
+
+    private MessageEnvelope decode(byte[] record) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(record);
+        String sender = readUtf(in);
+        String messageId = readUtf(in);
+        String traceId = readUtf(in);
+        String parentId = readUtf(in);
+        long enqueuedAt = in.getLong();
+        int length = in.getInt();
+        Object message;
+        if (length == POISON_PILL_MARKER) {
+            message = PoisonPill.INSTANCE;
+        } else {
+            byte[] payload = new byte[length];
+            in.get(payload);
+            message = serializer.fromBinary(payload);
+        }
+        ActorRef senderRef = sender.isEmpty() ? null : system.actorSelection(sender);
+        return new MessageEnvelope(message, senderRef, messageId.isEmpty() ? null : messageId, traceId.isEmpty() ? null : traceId,
+                parentId.isEmpty() ? null : parentId, enqueuedAt);
+    }
+
+    private static String readUtf(ByteBuffer in) {
+        int length = in.getShort() & 0xFFFF;
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        // writeUTF uses modified UTF-8, identical to UTF-8 for paths and UUIDs
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Append-only memory-mapped file holding length-prefixed records.
+     */
+    private static final class Segment {
+        private final Path file;
+        private final MappedByteBuffer buffer;
+        private int writePosition;
+        private int readPosition;
+
+        private Segment(Path file, MappedByteBuffer buffer) {
+            this.file = file;
+            this.buffer = buffer;
+        }
+
+        boolean fits(int recordLength) {
+            return writePosition + Integer.BYTES + recordLength <= buffer.capacity();
+        }
+
+        void append(byte[] record) {
+            buffer.putInt(writePosition, record.length);
+            buffer.put(writePosition + Integer.BYTES, record);
+            writePosition += Integer.BYTES + record.length;
+        }
+
+        byte[] next() {
+            int length = buffer.getInt(readPosition);
+            byte[] record = new byte[length];
+            buffer.get(readPosition + Integer.BYTES, record);
+            readPosition += Integer.BYTES + length;
+            return record;
+        }
+
+        boolean isDrained() {
+            return readPosition == writePosition;
+        }
+
+        void delete() {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                LOG.warning("Cannot delete overflow segment " + file + ": " + e.getMessage());
+            }
+        }
+    }
+}
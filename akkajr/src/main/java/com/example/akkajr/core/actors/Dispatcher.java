@@ -0,0 +1,44 @@
+package com.example.akkajr.core.actors;
+
+/**
+ * Thread pool that runs actor turns. An actor only occupies a thread while it has messages to
+ * process; idle and paused actors cost no thread at all. How idle threads wait for work is set by
+ * the dispatcher's {@link IdleStrategy}.
+ */
+abstract class Dispatcher {
+    private final String name;
+    private final int throughput;
+
+    Dispatcher(String name, int parallelism, int throughput) {
+        if (parallelism <= 0 || throughput <= 0) {
+            throw new IllegalArgumentException("Dispatcher parallelism and throughput must be positive");
+        }
+        this.name = name;
+        this.throughput = throughput;
+    }
+
+    static Dispatcher create(String name, ActorSystemSettings.DispatcherSettings settings) {
+        if (settings.idleStrategy() == IdleStrategy.BLOCKING) {
+            return new ForkJoinDispatcher(name, settings.threads(), settings.throughput());
+        }
+        return new SpinningDispatcher(name, settings.threads(), settings.throughput(), settings.idleStrategy());
+    }
+
+    String name() {
+        return name;
+    }
+
+    /**
+     * Maximum number of messages an actor processes per turn before giving the thread back.
+     */
+    int throughput() {
+        return throughput;
+    }
+
+    /**
+     * Submits a turn; returns false when the dispatcher has been shut down.
+     */
+    abstract boolean execute(ActorCell cell);
+
+    abstract void shutdown();
+}
@@ -0,0 +1,134 @@
+package com.example.akkajr.core.actors;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * Java Flight Recorder events emitted by the actor runtime. All of them are disabled by default and
+ * have to be switched on in the recording settings (see {@code akkajr.jfc}); while disabled,
+ * {@code begin}/{@code end}/{@code shouldCommit} are no-ops and the JIT removes the event
+ * allocation, so the instrumentation costs nothing in production until a recording asks for it.
+ */
+final class FlightEvents {
+    private static final String CATEGORY = "AkkaJr";
+
+    private FlightEvents() {
+    }
+
+    @Name("com.example.akkajr.MessageEnqueued")
+    @Label("Message Enqueued")
+    @Category({CATEGORY, "Mailbox"})
+    @Enabled(false)
+    @StackTrace(false)
+    static final class MessageEnqueued extends Event {
+        @Label("Actor Path")
+        String path;
+        @Label("Message Class")
+        Class<?> messageClass;
+        @Label("Mailbox Size")
+        @Description("Backlog of the mailbox after the message was added")
+        int mailboxSize;
+    }
+
+    @Name("com.example.akkajr.MessageDequeued")
+    @Label("Message Dequeued")
+    @Category({CATEGORY, "Mailbox"})
+    @Enabled(false)
+    @StackTrace(false)
+    static final class MessageDequeued extends Event {
+        @Label("Actor Path")
+        String path;
+        @Label("Message Class")
+        Class<?> messageClass;
+        @Label("Mailbox Wait")
+        @Description("Time the message spent in the mailbox")
+        @Timespan(Timespan.NANOSECONDS)
+        long mailboxWait;
+    }
+
+    @Name("com.example.akkajr.MessageProcessed")
+    @Label("Message Processed")
+    @Description("Duration of one receive() call")
+    @Category({CATEGORY, "Actor"})
+    @Enabled(false)
+    @Threshold("1 ms")
+    @StackTrace(false)
+    static final class MessageProcessed extends Event {
+        @Label("Actor Path")
+        String path;
+        @Label("Message Class")
+        Class<?> messageClass;
+        @Label("Trace Id")
+        String traceId;
+    }
+
+    @Name("com.example.akkajr.MessageFailed")
+    @Label("Message Failed")
+    @Description("receive() threw an exception")
+    @Category({CATEGORY, "Actor"})
+    @Enabled(false)
+    @Threshold("0 ms")
+    static final class MessageFailed extends Event {
+        @Label("Actor Path")
+        String path;
+        @Label("Message Class")
+        Class<?> messageClass;
+        @Label("Exception Class")
+        Class<?> exceptionClass;
+        @Label("Message")
+        String error;
+    }
+
+    @Name("com.example.akkajr.ActorStarted")
+    @Label("Actor Started")
+    @Description("Duration of preStart")
+    @Category({CATEGORY, "Lifecycle"})
+    @Enabled(false)
+    @Threshold("0 ms")
+    @StackTrace(false)
+    static final class ActorStarted extends Event {
+        @Label("Actor Path")
+        String path;
+        @Label("Actor Class")
+        Class<?> actorClass;
+    }
+
+    @Name("com.example.akkajr.ActorStopped")
+    @Label("Actor Stopped")
+    @Description("Duration of the stop, including postStop")
+    @Category({CATEGORY, "Lifecycle"})
+    @Enabled(false)
+    @Threshold("0 ms")
+    @StackTrace(false)
+    static final class ActorStopped extends Event {
+        @Label("Actor Path")
+        String path;
+        @Label("Dropped Messages")
+        @Description("Messages still in the mailbox when the actor stopped")
+        int droppedMessages;
+    }
+
+    @Name("com.example.akkajr.MailboxOverflow")
+    @Label("Mailbox Overflow")
+    @Description("A mailbox exceeded its in-memory capacity")
+    @Category({CATEGORY, "Mailbox"})
+    @Enabled(false)
+    @StackTrace(false)
+    static final class MailboxOverflow extends Event {
+        @Label("Actor Path")
+        String path;
+        @Label("Mailbox Type")
+        String mailboxType;
+        @Label("Mailbox Size")
+        int mailboxSize;
+        @Label("Action")
+        String action;
+    }
+}
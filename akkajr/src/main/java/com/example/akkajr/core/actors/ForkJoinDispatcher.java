@@ -0,0 +1,37 @@
+package com.example.akkajr.core.actors;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * {@link IdleStrategy#BLOCKING} dispatcher: turns run on a fork/join pool whose idle workers park
+ * until work is submitted.
+ */
+final class ForkJoinDispatcher extends Dispatcher {
+    private final ForkJoinPool pool;
+
+    ForkJoinDispatcher(String name, int parallelism, int throughput) {
+        super(name, parallelism, throughput);
+        this.pool = new ForkJoinPool(parallelism, p -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            thread.setName(name + "-" + thread.getPoolIndex());
+            return thread;
+        }, null, true);
+    }
+
+    @Override
+    boolean execute(ActorCell cell) {
+        try {
+            pool.execute(cell);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    @Override
+    void shutdown() {
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.akkajr.core.actors;
+
+/**
+ * What a dispatcher thread does when there is no actor turn to run. Chosen per dispatcher
+ * ({@link ActorSystemSettings.DispatcherSettings}), so latency-sensitive actors can get spinning
+ * threads while the rest of the system keeps blocking ones.
+ */
+public enum IdleStrategy {
+    /**
+     * Threads block until a turn is submitted (fork/join pool). No CPU is used while idle, but
+     * each wake-up goes through the OS scheduler.
+     */
+    BLOCKING,
+    /**
+     * Threads spin briefly, then yield, then park with an exponential backoff (up to 1 ms);
+     * submitting a turn unparks a parked thread. Idle threads quickly stop burning CPU while short
+     * gaps between messages are absorbed by spinning.
+     */
+    BACKOFF,
+    /**
+     * Threads poll the run queue continuously: lowest and most stable latency, at the cost of one
+     * fully busy core per thread, idle or not.
+     */
+    BUSY_SPIN
+}
@@ -1,47 +1,207 @@
 package com.example.akkajr.core.actors;
 
 import java.util.UUID;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
-final class Mailbox {
-    private static final MessageEnvelope POISON = new MessageEnvelope(null, null, "poison", "poison");
+/**
+ * Base class for actor mailboxes. Concrete queueing strategies are picked through {@link MailboxType}.
+ * <p>
+ * Besides the queue, a mailbox carries the scheduling status of its actor: whether a dispatcher
+ * turn is currently scheduled, whether processing is suspended (paused) and whether it is closed.
+ * The processing loop only needs a single volatile read of this status per message.
+ */
+abstract class Mailbox {
+    private static final int SCHEDULED = 1;
+    private static final int SUSPENDED = 1 << 1;
+    private static final int CLOSED = 1 << 2;
 
-    private final BlockingQueue<MessageEnvelope> queue = new LinkedBlockingQueue<>();
+    private static final AtomicIntegerFieldUpdater<Mailbox> STATUS =
+            AtomicIntegerFieldUpdater.newUpdater(Mailbox.class, "status");
 
-    void enqueue(Object message, ActorRef sender) {
-        String traceId = (message instanceof TraceableMessage) ? ((TraceableMessage) message).traceId() : UUID.randomUUID().toString();
-        String messageId = UUID.randomUUID().toString();
-        queue.offer(new MessageEnvelope(message, sender, messageId, traceId));
+    // starts as scheduled so that nothing runs until the owning cell has completed preStart
+    private volatile int status = SCHEDULED;
+
+    /**
+     * Wraps and queues a message. With tracing on, the message gets its own id and continues the
+     * trace of the message being processed by the calling thread (see {@link TraceContext}); with
+     * tracing off no ids are generated.
+     */
+    boolean enqueue(Object message, ActorRef sender, boolean tracing) {
+        return enqueue(message, sender, tracing, null);
+    }
+
+    /**
+     * Same as {@link #enqueue(Object, ActorRef, boolean)}, with a callback run by the actor's turn
+     * once the message has been processed (successfully or not).
+     */
+    boolean enqueue(Object message, ActorRef sender, boolean tracing, Runnable onProcessed) {
+        String explicitTraceId = (message instanceof TraceableMessage) ? ((TraceableMessage) message).traceId() : null;
+        if (!tracing) {
+            return offer(message, sender, null, explicitTraceId, null, System.nanoTime(), onProcessed);
+        }
+        MessageEnvelope cause = TraceContext.current();
+        String traceId = explicitTraceId;
+        if (traceId == null) {
+            traceId = (cause != null && cause.traceId != null) ? cause.traceId : UUID.randomUUID().toString();
+        }
+        String parentId = cause != null ? cause.messageId : null;
+        return offer(message, sender, UUID.randomUUID().toString(), traceId, parentId, System.nanoTime(), onProcessed);
     }
 
-    MessageEnvelope take() throws InterruptedException {
-        return queue.take();
+    /**
+     * Queues a message given its envelope fields. Wraps them in a new envelope by default;
+     * mailboxes storing the fields in place override it to avoid that allocation.
+     */
+    boolean offer(Object message, ActorRef sender, String messageId, String traceId, String parentId, long enqueuedAt,
+                  Runnable onProcessed) {
+        return offer(new MessageEnvelope(message, sender, messageId, traceId, parentId, enqueuedAt, onProcessed));
+    }
+
+    /**
+     * Queues an envelope; returns false when the mailbox rejected it (full or released).
+     */
+    abstract boolean offer(MessageEnvelope envelope);
+
+    /**
+     * Returns the next envelope, or null when the mailbox is empty. Only called by the scheduled turn.
+     * The envelope may be reused by the next poll, so it must not be kept beyond processing.
+     */
+    abstract MessageEnvelope poll();
+
+    /**
+     * Like {@link #poll()}, but the envelope is never reused. Used when draining a stopped actor,
+     * which can overlap its last turn.
+     */
+    MessageEnvelope pollDetached() {
+        return poll();
+    }
+
+    abstract int size();
+
+    boolean hasMessages() {
+        return size() > 0;
+    }
+
+    /**
+     * How many more messages can be accepted right now; unbounded mailboxes report
+     * {@link Integer#MAX_VALUE}.
+     */
+    int remainingCapacity() {
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Releases resources held by the mailbox (files, buffers) once its actor has stopped.
+     */
+    void cleanUp() {
+        // nothing to release by default
+    }
+
+    /**
+     * Claims the right to run a turn. Fails when a turn is already scheduled, or when the mailbox is
+     * suspended or closed.
+     */
+    boolean setAsScheduled() {
+        for (;;) {
+            int s = status;
+            if ((s & (SCHEDULED | SUSPENDED | CLOSED)) != 0) {
+                return false;
+            }
+            if (STATUS.compareAndSet(this, s, s | SCHEDULED)) {
+                return true;
+            }
+        }
     }
 
-    int size() {
-        return queue.size();
+    void setAsIdle() {
+        clear(SCHEDULED);
+    }
+
+    void suspend() {
+        set(SUSPENDED);
+    }
+
+    /**
+     * Clears the suspended flag; returns true if the mailbox was suspended.
+     */
+    boolean resume() {
+        return clear(SUSPENDED);
+    }
+
+    boolean isSuspended() {
+        return (status & SUSPENDED) != 0;
+    }
+
+    /**
+     * Fast-path check done before each message: neither suspended nor closed.
+     */
+    boolean canProcess() {
+        return (status & (SUSPENDED | CLOSED)) == 0;
     }
 
     void close() {
-        queue.offer(POISON);
+        set(CLOSED);
+    }
+
+    boolean isClosed() {
+        return (status & CLOSED) != 0;
     }
 
-    boolean isPoison(MessageEnvelope envelope) {
-        return envelope == POISON;
+    private void set(int flag) {
+        for (;;) {
+            int s = status;
+            if ((s & flag) != 0 || STATUS.compareAndSet(this, s, s | flag)) {
+                return;
+            }
+        }
+    }
+
+    private boolean clear(int flag) {
+        for (;;) {
+            int s = status;
+            if ((s & flag) == 0) {
+                return false;
+            }
+            if (STATUS.compareAndSet(this, s, s & ~flag)) {
+                return true;
+            }
+        }
     }
 
+    /**
+     * Message and its metadata. Not final so that array-backed mailboxes can hand out a single
+     * reused instance; only the owning mailbox ever writes to it.
+     */
     static final class MessageEnvelope {
-        final Object message;
-        final ActorRef sender;
-        final String messageId;
-        final String traceId;
+        Object message;
+        ActorRef sender;
+        String messageId;
+        String traceId;
+        // id of the message whose processing sent this one, null for root messages
+        String parentId;
+        // System.nanoTime() at enqueue, used to measure the time spent waiting in the mailbox
+        long enqueuedAt;
+        // run once processed, null for plain tells
+        Runnable onProcessed;
+
+        MessageEnvelope(Object message, ActorRef sender, String messageId, String traceId, String parentId, long enqueuedAt) {
+            this(message, sender, messageId, traceId, parentId, enqueuedAt, null);
+        }
+
+        MessageEnvelope(Object message, ActorRef sender, String messageId, String traceId, String parentId, long enqueuedAt,
+                        Runnable onProcessed) {
+            set(message, sender, messageId, traceId, parentId, enqueuedAt, onProcessed);
+        }
 
-        MessageEnvelope(Object message, ActorRef sender, String messageId, String traceId) {
+        void set(Object message, ActorRef sender, String messageId, String traceId, String parentId, long enqueuedAt,
+                 Runnable onProcessed) {
             this.message = message;
             this.sender = sender;
             this.messageId = messageId;
             this.traceId = traceId;
+            this.parentId = parentId;
+            this.enqueuedAt = enqueuedAt;
+            this.onProcessed = onProcessed;
         }
     }
 }
@@ -0,0 +1,98 @@
+package com.example.akkajr.core.actors;
+
+import java.nio.file.Path;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Describes which mailbox implementation an actor gets. Selected per actor through
+ * {@link Props#withMailbox(MailboxType)}; defaults to {@link #unbounded()}.
+ */
+public final class MailboxType {
+    private static final MailboxType UNBOUNDED = new MailboxType("unbounded", (owner, system) -> new UnboundedMailbox());
+    private static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    private final String name;
+    private final BiFunction<ActorPath, ActorSystem, Mailbox> factory;
+
+    private MailboxType(String name, BiFunction<ActorPath, ActorSystem, Mailbox> factory) {
+        this.name = name;
+        this.factory = factory;
+    }
+
+    /**
+     * FIFO mailbox without capacity limit (the default).
+     */
+    public static MailboxType unbounded() {
+        return UNBOUNDED;
+    }
+
+    /**
+     * FIFO mailbox holding at most {@code capacity} messages; messages sent to a full mailbox are
+     * rejected and published as dead letters.
+     */
+    public static MailboxType bounded(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Mailbox capacity must be positive");
+        }
+        return new MailboxType("bounded", (owner, system) -> new BoundedMailbox(capacity));
+    }
+
+    /**
+     * Bounded FIFO mailbox backed by preallocated arrays (capacity rounded up to a power of two):
+     * queueing a message allocates nothing, which makes it the mailbox of choice for hot actors
+     * together with {@link ActorSystem#setTracingEnabled(boolean) tracing off}. Messages sent to a
+     * full mailbox become dead letters.
+     */
+    public static MailboxType ring(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Ring mailbox capacity must be between 1 and 2^30");
+        }
+        return new MailboxType("ring", (owner, system) -> new RingMailbox(capacity));
+    }
+
+    /**
+     * Latest-value-wins mailbox. The key function maps a message to its conflation key
+     * (e.g. an instrument id for price updates); a pending message with the same key is replaced
+     * in place. Messages mapped to {@code null} are never conflated and keep FIFO order.
+     */
+    public static MailboxType conflating(Function<Object, ?> keyFunction) {
+        if (keyFunction == null) {
+            throw new IllegalArgumentException("Key function cannot be null");
+        }
+        return new MailboxType("conflating", (owner, system) -> new ConflatingMailbox(keyFunction));
+    }
+
+    /**
+     * Mailbox keeping at most {@code inMemoryCapacity} messages on heap; the rest of the backlog is
+     * spilled to memory-mapped segment files under {@code directory} (one sub-directory per actor)
+     * and read back in order as the actor catches up. Uses 64 MiB segments.
+     */
+    public static MailboxType overflowToDisk(int inMemoryCapacity, Path directory, MessageSerializer serializer) {
+        return overflowToDisk(inMemoryCapacity, directory, serializer, DEFAULT_SEGMENT_SIZE);
+    }
+
+    public static MailboxType overflowToDisk(int inMemoryCapacity, Path directory, MessageSerializer serializer, int segmentSize) {
+        if (inMemoryCapacity <= 0 || segmentSize <= 0) {
+            throw new IllegalArgumentException("In-memory capacity and segment size must be positive");
+        }
+        if (directory == null || serializer == null) {
+            throw new IllegalArgumentException("Overflow directory and serializer cannot be null");
+        }
+        return new MailboxType("overflow-to-disk", (owner, system) ->
+                new DiskOverflowMailbox(owner, system, inMemoryCapacity, segmentSize, directory, serializer));
+    }
+
+    public String name() {
+        return name;
+    }
+
+    Mailbox create(ActorPath owner, ActorSystem system) {
+        return factory.apply(owner, system);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
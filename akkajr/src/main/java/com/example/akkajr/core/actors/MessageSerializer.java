@@ -0,0 +1,43 @@
+package com.example.akkajr.core.actors;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+/**
+ * Turns messages into bytes and back, for mailboxes that keep messages off heap
+ * (see {@link MailboxType#overflowToDisk}).
+ */
+public interface MessageSerializer {
+
+    byte[] toBinary(Object message) throws IOException;
+
+    Object fromBinary(byte[] bytes) throws IOException;
+
+    /**
+     * Default serializer based on Java serialization; messages must implement {@link java.io.Serializable}.
+     */
+    static MessageSerializer java() {
+        return new MessageSerializer() {
+            @Override
+            public byte[] toBinary(Object message) throws IOException {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+                try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                    out.writeObject(message);
+                }
+                return bytes.toByteArray();
+            }
+
+            @Override
+            public Object fromBinary(byte[] bytes) throws IOException {
+                try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                    return in.readObject();
+                } catch (ClassNotFoundException e) {
+                    throw new IOException("Unknown message class", e);
+                }
+            }
+        };
+    }
+}
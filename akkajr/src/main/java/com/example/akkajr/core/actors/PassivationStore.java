@@ -0,0 +1,41 @@
+package com.example.akkajr.core.actors;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the state of passivated actors until they are recreated. The default store is in memory;
+ * plug a durable one with {@link ActorSystem#setPassivationStore(PassivationStore)}.
+ */
+public interface PassivationStore {
+
+    void save(ActorPath path, Object state);
+
+    /**
+     * Returns the saved state (or null) and forgets it.
+     */
+    Object load(ActorPath path);
+
+    void remove(ActorPath path);
+
+    static PassivationStore inMemory() {
+        return new PassivationStore() {
+            private final Map<ActorPath, Object> states = new ConcurrentHashMap<>();
+
+            @Override
+            public void save(ActorPath path, Object state) {
+                states.put(path, state);
+            }
+
+            @Override
+            public Object load(ActorPath path) {
+                return states.remove(path);
+            }
+
+            @Override
+            public void remove(ActorPath path) {
+                states.remove(path);
+            }
+        };
+    }
+}
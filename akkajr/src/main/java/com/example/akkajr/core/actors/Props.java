@@ -1,22 +1,101 @@
 package com.example.akkajr.core.actors;
 
 import java.lang.reflect.Constructor;
+import java.time.Duration;
 import java.util.Arrays;
 
 public final class Props {
     private final Class<? extends Actor> actorClass;
     private final Object[] args;
+    private final MailboxType mailboxType;
+    private final String mailboxName;
+    private final String dispatcherName;
+    private final Duration passivationTimeout;
 
-    private Props(Class<? extends Actor> actorClass, Object[] args) {
+    private Props(Class<? extends Actor> actorClass, Object[] args, MailboxType mailboxType, String mailboxName, String dispatcherName,
+                  Duration passivationTimeout) {
         this.actorClass = actorClass;
         this.args = args == null ? new Object[0] : Arrays.copyOf(args, args.length);
+        this.mailboxType = mailboxType;
+        this.mailboxName = mailboxName;
+        this.dispatcherName = dispatcherName;
+        this.passivationTimeout = passivationTimeout;
     }
 
     public static Props create(Class<? extends Actor> actorClass, Object... args) {
         if (actorClass == null) {
             throw new IllegalArgumentException("Actor class cannot be null");
         }
-        return new Props(actorClass, args);
+        return new Props(actorClass, args, MailboxType.unbounded(), null, null, null);
+    }
+
+    /**
+     * Returns a copy of these props using the given mailbox type.
+     */
+    public Props withMailbox(MailboxType mailboxType) {
+        if (mailboxType == null) {
+            throw new IllegalArgumentException("Mailbox type cannot be null");
+        }
+        return new Props(actorClass, args, mailboxType, null, dispatcherName, passivationTimeout);
+    }
+
+    /**
+     * Returns a copy of these props using the mailbox configured under the given name in the
+     * system settings. The name is resolved when the actor is created.
+     */
+    public Props withMailbox(String mailboxName) {
+        if (mailboxName == null || mailboxName.isBlank()) {
+            throw new IllegalArgumentException("Mailbox name cannot be blank");
+        }
+        return new Props(actorClass, args, mailboxType, mailboxName, dispatcherName, passivationTimeout);
+    }
+
+    /**
+     * Returns a copy of these props running on the dispatcher configured under the given name in
+     * the system settings. The name is resolved when the actor is created.
+     */
+    public Props withDispatcher(String dispatcherName) {
+        if (dispatcherName == null || dispatcherName.isBlank()) {
+            throw new IllegalArgumentException("Dispatcher name cannot be blank");
+        }
+        return new Props(actorClass, args, mailboxType, mailboxName, dispatcherName, passivationTimeout);
+    }
+
+    /**
+     * Returns a copy of these props whose actors are passivated after being idle for the given
+     * timeout: the actor instance is stopped and dropped, its path stays resolvable, and the next
+     * message recreates it from these props. See {@link Actor#snapshotState()}.
+     */
+    public Props withPassivation(Duration idleTimeout) {
+        if (idleTimeout == null || idleTimeout.isNegative() || idleTimeout.isZero()) {
+            throw new IllegalArgumentException("Passivation timeout must be positive");
+        }
+        return new Props(actorClass, args, mailboxType, mailboxName, dispatcherName, idleTimeout);
+    }
+
+    public MailboxType mailboxType() {
+        return mailboxType;
+    }
+
+    /**
+     * Name of a configured mailbox, or null when {@link #mailboxType()} is used directly.
+     */
+    public String mailboxName() {
+        return mailboxName;
+    }
+
+    /**
+     * Name of a configured dispatcher, or null for the default one.
+     */
+    public String dispatcherName() {
+        return dispatcherName;
+    }
+
+    /**
+     * Idle timeout before passivation, or null when passivation is disabled.
+     */
+    public Duration passivationTimeout() {
+        return passivationTimeout;
     }
 
     Actor instantiate() {
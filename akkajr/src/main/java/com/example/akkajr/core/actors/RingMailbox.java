@@ -0,0 +1,135 @@
+package com.example.akkajr.core.actors;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded mailbox that stores messages in preallocated parallel arrays instead of allocating an
+ * envelope and a queue node per message. Together with tracing turned off, a tell through this
+ * mailbox allocates nothing.
+ * <p>
+ * Slots are claimed by a CAS on the tail (producers) or on the head (consumers) and handed over
+ * through a per-slot sequence number (bounded queue after D. Vyukov): a slot at position {@code p}
+ * is readable once its sequence is {@code p + 1}, and writable again once the consumer sets it to
+ * {@code p + capacity}. The actor's turn copies the slot into a single reused envelope, valid until
+ * the next poll; draining on stop, which may overlap a turn, gets fresh envelopes.
+ * <p>
+ * Messages sent to a full mailbox are rejected and become dead letters, {@link PoisonPill}
+ * included: stop a saturated actor through {@link ActorSystem#stop(ActorRef)}.
+ */
+final class RingMailbox extends Mailbox {
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final Object[] messages;
+    private final ActorRef[] senders;
+    private final String[] messageIds;
+    private final String[] traceIds;
+    private final String[] parentIds;
+    private final long[] enqueuedAt;
+    private final Runnable[] callbacks;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+    private final MessageEnvelope cursor = new MessageEnvelope(null, null, null, null, null, 0L);
+
+    RingMailbox(int requestedCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(2, requestedCapacity) - 1) << 1;
+        this.mask = capacity - 1;
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+        this.messages = new Object[capacity];
+        this.senders = new ActorRef[capacity];
+        this.messageIds = new String[capacity];
+        this.traceIds = new String[capacity];
+        this.parentIds = new String[capacity];
+        this.enqueuedAt = new long[capacity];
+        this.callbacks = new Runnable[capacity];
+    }
+
+    @Override
+    boolean offer(MessageEnvelope envelope) {
+        return offer(envelope.message, envelope.sender, envelope.messageId, envelope.traceId, envelope.parentId, envelope.enqueuedAt,
+                envelope.onProcessed);
+    }
+
+    @Override
+    boolean offer(Object message, ActorRef sender, String messageId, String traceId, String parentId, long enqueued,
+                  Runnable onProcessed) {
+        long position;
+        int index;
+        for (;;) {
+            position = tail.get();
+            index = (int) position & mask;
+            long sequence = sequences.getAcquire(index);
+            if (sequence == position) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+            } else if (sequence < position) {
+                // the slot still holds the message from one lap ago: full
+                return false;
+            }
+            // otherwise another producer claimed this position first, retry with the new tail
+        }
+        messages[index] = message;
+        senders[index] = sender;
+        messageIds[index] = messageId;
+        traceIds[index] = traceId;
+        parentIds[index] = parentId;
+        enqueuedAt[index] = enqueued;
+        callbacks[index] = onProcessed;
+        sequences.setRelease(index, position + 1);
+        return true;
+    }
+
+    @Override
+    MessageEnvelope poll() {
+        return take(cursor);
+    }
+
+    @Override
+    MessageEnvelope pollDetached() {
+        return take(null);
+    }
+
+    private MessageEnvelope take(MessageEnvelope target) {
+        long position;
+        int index;
+        for (;;) {
+            position = head.get();
+            index = (int) position & mask;
+            long sequence = sequences.getAcquire(index);
+            if (sequence == position + 1) {
+                if (head.compareAndSet(position, position + 1)) {
+                    break;
+                }
+            } else if (sequence < position + 1) {
+                // empty, or the producer that claimed the slot has not finished writing it yet
+                return null;
+            }
+        }
+        MessageEnvelope envelope = target != null ? target : new MessageEnvelope(null, null, null, null, null, 0L);
+        envelope.set(messages[index], senders[index], messageIds[index], traceIds[index], parentIds[index], enqueuedAt[index], callbacks[index]);
+        // drop the references so that processed messages do not stay reachable for a whole lap
+        messages[index] = null;
+        senders[index] = null;
+        messageIds[index] = null;
+        traceIds[index] = null;
+        parentIds[index] = null;
+        callbacks[index] = null;
+        sequences.setRelease(index, position + mask + 1);
+        return envelope;
+    }
+
+    @Override
+    int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, mask + 1));
+    }
+
+    @Override
+    int remainingCapacity() {
+        return mask + 1 - size();
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.akkajr.core.actors;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Logger;
+
+/**
+ * Dispatcher for the {@link IdleStrategy#BUSY_SPIN} and {@link IdleStrategy#BACKOFF} strategies:
+ * dedicated worker threads poll a shared run queue instead of blocking on it, so a turn submitted
+ * to a spinning worker starts without an OS wake-up.
+ * <p>
+ * With backoff, a worker that found nothing for a while parks; it advertises it first and checks
+ * the queue again before parking, while submitters check for parked workers after queueing. One
+ * side always sees the other, so a submitted turn never waits for a park timeout to expire.
+ */
+final class SpinningDispatcher extends Dispatcher {
+    private static final Logger LOG = Logger.getLogger(SpinningDispatcher.class.getName());
+
+    private static final int SPINS = 100;
+    private static final int YIELDS = 10;
+    private static final long MIN_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(1);
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final IdleStrategy idleStrategy;
+    private final Queue<ActorCell> runQueue = new ConcurrentLinkedQueue<>();
+    private final Worker[] workers;
+    private final AtomicInteger parkedWorkers = new AtomicInteger();
+    private volatile boolean running = true;
+
+    SpinningDispatcher(String name, int parallelism, int throughput, IdleStrategy idleStrategy) {
+        super(name, parallelism, throughput);
+        this.idleStrategy = idleStrategy;
+        this.workers = new Worker[parallelism];
+        for (int i = 0; i < parallelism; i++) {
+            workers[i] = new Worker();
+            Thread thread = new Thread(workers[i], name + "-" + i);
+            thread.setDaemon(true);
+            workers[i].thread = thread;
+        }
+        for (Worker worker : workers) {
+            worker.thread.start();
+        }
+    }
+
+    @Override
+    boolean execute(ActorCell cell) {
+        if (!running) {
+            return false;
+        }
+        runQueue.offer(cell);
+        if (parkedWorkers.get() > 0) {
+            wakeOne();
+        }
+        return true;
+    }
+
+    @Override
+    void shutdown() {
+        running = false;
+        for (Worker worker : workers) {
+            LockSupport.unpark(worker.thread);
+        }
+    }
+
+    private void wakeOne() {
+        for (Worker worker : workers) {
+            if (worker.parked) {
+                LockSupport.unpark(worker.thread);
+                return;
+            }
+        }
+    }
+
+    private final class Worker implements Runnable {
+        private Thread thread;
+        private volatile boolean parked;
+        private int idleRounds;
+
+        @Override
+        public void run() {
+            while (running) {
+                ActorCell cell = runQueue.poll();
+                if (cell == null) {
+                    idle();
+                    continue;
+                }
+                idleRounds = 0;
+                try {
+                    cell.run();
+                } catch (RuntimeException e) {
+                    // a turn never throws in practice; keep the worker alive regardless
+                    LOG.warning("Actor turn failed on " + thread.getName() + ": " + e.getMessage());
+                }
+            }
+        }
+
+        private void idle() {
+            if (idleStrategy == IdleStrategy.BUSY_SPIN) {
+                Thread.onSpinWait();
+                return;
+            }
+            int round = idleRounds;
+            if (idleRounds < SPINS + YIELDS + 20) {
+                idleRounds++;
+            }
+            if (round < SPINS) {
+                Thread.onSpinWait();
+            } else if (round < SPINS + YIELDS) {
+                Thread.yield();
+            } else {
+                int doublings = Math.min(round - SPINS - YIELDS, 20);
+                park(Math.min(MIN_PARK_NANOS << doublings, MAX_PARK_NANOS));
+            }
+        }
+
+        private void park(long nanos) {
+            parked = true;
+            parkedWorkers.incrementAndGet();
+            try {
+                if (runQueue.isEmpty() && running) {
+                    LockSupport.parkNanos(this, nanos);
+                }
+            } finally {
+                parkedWorkers.decrementAndGet();
+                parked = false;
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.akkajr.core.actors;
+
+/**
+ * Trace context of the message being processed on the current thread. While an actor is inside
+ * {@code receive}, every {@code tell} it makes inherits the trace id of the current message and
+ * records that message's id as its parent span, so a whole tell chain shares one trace.
+ * <p>
+ * Nothing is tracked when tracing is disabled on the {@link ActorSystem}.
+ */
+public final class TraceContext {
+    private static final ThreadLocal<Mailbox.MessageEnvelope> CURRENT = new ThreadLocal<>();
+
+    private TraceContext() {
+    }
+
+    /**
+     * Trace id of the message being processed, or null outside of {@code receive}.
+     */
+    public static String currentTraceId() {
+        Mailbox.MessageEnvelope envelope = CURRENT.get();
+        return envelope != null ? envelope.traceId : null;
+    }
+
+    /**
+     * Span id (the message id) of the message being processed, or null outside of {@code receive}.
+     */
+    public static String currentSpanId() {
+        Mailbox.MessageEnvelope envelope = CURRENT.get();
+        return envelope != null ? envelope.messageId : null;
+    }
+
+    /**
+     * Span id of the message that caused the one being processed, or null for a root message.
+     */
+    public static String currentParentSpanId() {
+        Mailbox.MessageEnvelope envelope = CURRENT.get();
+        return envelope != null ? envelope.parentId : null;
+    }
+
+    static Mailbox.MessageEnvelope current() {
+        return CURRENT.get();
+    }
+
+    static void enter(Mailbox.MessageEnvelope envelope) {
+        CURRENT.set(envelope);
+    }
+
+    static void exit() {
+        // set(null) rather than remove(): dispatcher threads are long-lived, keep the map entry
+        CURRENT.set(null);
+    }
+}
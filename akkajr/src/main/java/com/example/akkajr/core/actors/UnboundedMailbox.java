@@ -0,0 +1,34 @@
+package com.example.akkajr.core.actors;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Default mailbox: every message is queued in FIFO order.
+ */
+final class UnboundedMailbox extends Mailbox {
+    private final Queue<MessageEnvelope> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    boolean offer(MessageEnvelope envelope) {
+        // count first so that size() never goes negative while a poll races with this offer
+        count.incrementAndGet();
+        return queue.offer(envelope);
+    }
+
+    @Override
+    MessageEnvelope poll() {
+        MessageEnvelope envelope = queue.poll();
+        if (envelope != null) {
+            count.decrementAndGet();
+        }
+        return envelope;
+    }
+
+    @Override
+    int size() {
+        return count.get();
+    }
+}
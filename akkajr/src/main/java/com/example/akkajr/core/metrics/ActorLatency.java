@@ -0,0 +1,32 @@
+package com.example.akkajr.core.metrics;
+
+/**
+ * Latency histograms shared by all actors of one class: time spent waiting in the mailbox and
+ * time spent in {@code receive}. A high wait with a low service time points at saturation rather
+ * than at a slow handler.
+ */
+public final class ActorLatency {
+    private final String actorClass;
+    private final LatencyHistogram mailboxWait = new LatencyHistogram();
+    private final LatencyHistogram serviceTime = new LatencyHistogram();
+
+    public ActorLatency(String actorClass) {
+        this.actorClass = actorClass;
+    }
+
+    public String actorClass() {
+        return actorClass;
+    }
+
+    public LatencyHistogram mailboxWait() {
+        return mailboxWait;
+    }
+
+    public LatencyHistogram serviceTime() {
+        return serviceTime;
+    }
+
+    public ActorLatencySnapshot snapshot() {
+        return new ActorLatencySnapshot(actorClass, mailboxWait.snapshot(), serviceTime.snapshot());
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.akkajr.core.metrics;
+
+public final class ActorLatencySnapshot {
+    private final String actorClass;
+    private final LatencySnapshot mailboxWait;
+    private final LatencySnapshot serviceTime;
+
+    public ActorLatencySnapshot(String actorClass, LatencySnapshot mailboxWait, LatencySnapshot serviceTime) {
+        this.actorClass = actorClass;
+        this.mailboxWait = mailboxWait;
+        this.serviceTime = serviceTime;
+    }
+
+    public String getActorClass() {
+        return actorClass;
+    }
+
+    public LatencySnapshot getMailboxWait() {
+        return mailboxWait;
+    }
+
+    public LatencySnapshot getServiceTime() {
+        return serviceTime;
+    }
+}
@@ -4,15 +4,17 @@ public final class ActorState {
     private final String path;
     private final long backlog;
     private final boolean paused;
+    private final boolean passivated;
     private final boolean guardian;
     private final String scope;
     private final long processed;
     private final long failed;
 
-    public ActorState(String path, long backlog, boolean paused, boolean guardian, String scope, long processed, long failed) {
+    public ActorState(String path, long backlog, boolean paused, boolean passivated, boolean guardian, String scope, long processed, long failed) {
         this.path = path;
         this.backlog = backlog;
         this.paused = paused;
+        this.passivated = passivated;
         this.guardian = guardian;
         this.scope = scope;
         this.processed = processed;
@@ -31,6 +33,10 @@ public final class ActorState {
         return paused;
     }
 
+    public boolean isPassivated() {
+        return passivated;
+    }
+
     public boolean isGuardian() {
         return guardian;
     }
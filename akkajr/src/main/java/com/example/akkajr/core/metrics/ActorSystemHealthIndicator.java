@@ -10,7 +10,6 @@ import com.example.akkajr.core.actors.ActorSystem;
 public class ActorSystemHealthIndicator implements HealthIndicator {
 
     private final ActorSystem actorSystem;
-    private static final long BACKLOG_THRESHOLD = 1000;
 
     public ActorSystemHealthIndicator(ActorSystem actorSystem) {
         this.actorSystem = actorSystem;
@@ -24,7 +23,7 @@ public class ActorSystemHealthIndicator implements HealthIndicator {
                 .withDetail("actors.paused", snapshot.getPausedActors())
                 .withDetail("backlog.total", snapshot.getTotalBacklog());
 
-        if (snapshot.getTotalBacklog() > BACKLOG_THRESHOLD) {
+        if (snapshot.getTotalBacklog() > actorSystem.settings().backlogThreshold()) {
             builder = builder.status("OUT_OF_SERVICE").withDetail("reason", "backlog_threshold_exceeded");
         }
         if (snapshot.getPausedActors() > 0) {
@@ -0,0 +1,37 @@
+package com.example.akkajr.core.metrics;
+
+public final class DeadLetterCount {
+    private final String sender;
+    private final String recipient;
+    private final String messageClass;
+    private final long count;
+    private final long lastSeen;
+
+    public DeadLetterCount(String sender, String recipient, String messageClass, long count, long lastSeen) {
+        this.sender = sender;
+        this.recipient = recipient;
+        this.messageClass = messageClass;
+        this.count = count;
+        this.lastSeen = lastSeen;
+    }
+
+    public String getSender() {
+        return sender;
+    }
+
+    public String getRecipient() {
+        return recipient;
+    }
+
+    public String getMessageClass() {
+        return messageClass;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getLastSeen() {
+        return lastSeen;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.akkajr.core.metrics;
+
+import java.util.List;
+
+/**
+ * Aggregated dead letters: per (sender, recipient, message class) counts, plus the count of dead
+ * letters whose combination no longer fitted in the bounded table.
+ */
+public final class DeadLetterReport {
+    private final long total;
+    private final long other;
+    private final List<DeadLetterCount> entries;
+
+    public DeadLetterReport(long total, long other, List<DeadLetterCount> entries) {
+        this.total = total;
+        this.other = other;
+        this.entries = entries;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public long getOther() {
+        return other;
+    }
+
+    public List<DeadLetterCount> getEntries() {
+        return entries;
+    }
+}
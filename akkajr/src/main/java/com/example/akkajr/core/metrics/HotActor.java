@@ -0,0 +1,29 @@
+package com.example.akkajr.core.metrics;
+
+/**
+ * One entry of a top-K ranking. {@code error} bounds how much {@code value} may be over-estimated
+ * (the true value lies in [value - error, value]).
+ */
+public final class HotActor {
+    private final String path;
+    private final long value;
+    private final long error;
+
+    public HotActor(String path, long value, long error) {
+        this.path = path;
+        this.value = value;
+        this.error = error;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public long getValue() {
+        return value;
+    }
+
+    public long getError() {
+        return error;
+    }
+}
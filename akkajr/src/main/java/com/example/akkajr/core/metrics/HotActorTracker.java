@@ -0,0 +1,154 @@
+package com.example.akkajr.core.metrics;
+
+import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Tracks the busiest actors in constant memory, whatever the number of actors: one
+ * {@link SpaceSaving} summary per ranking (messages, processing time, backlog), kept for the
+ * current and the previous window. Reports merge both, so they always cover between one and two
+ * windows of recent activity and forget older activity.
+ * <p>
+ * Fed once per actor turn (not per message) and on backlog growth. Actors are spread over
+ * independently locked stripes by path, so turns of different actors rarely contend; reports
+ * merge the stripes.
+ */
+public final class HotActorTracker {
+    private final int capacity;
+    private final long windowNanos;
+    private final LongSupplier clock;
+    private final Stripe[] stripes;
+
+    public HotActorTracker(int capacity, Duration window) {
+        this(capacity, window, System::nanoTime);
+    }
+
+    public HotActorTracker(int capacity, Duration window, LongSupplier clock) {
+        if (window == null || window.isZero() || window.isNegative()) {
+            throw new IllegalArgumentException("Window must be positive");
+        }
+        this.capacity = capacity;
+        this.windowNanos = window.toNanos();
+        this.clock = clock;
+        // a power of two at least the number of cores
+        int count = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1));
+        this.stripes = new Stripe[count];
+        long now = clock.getAsLong();
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe(capacity, now);
+        }
+    }
+
+    /**
+     * Accounts one dispatcher turn of an actor: messages processed, time spent processing them and
+     * the backlog left behind.
+     */
+    public void recordTurn(String path, int messages, long processingNanos, int backlog) {
+        Stripe stripe = stripeFor(path);
+        stripe.lock.lock();
+        try {
+            Window window = stripe.rotate(clock.getAsLong());
+            window.messages.offer(path, messages);
+            window.processingMicros.offer(path, processingNanos / 1_000);
+            if (backlog > 0) {
+                window.backlog.offer(path, backlog);
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    public void recordBacklog(String path, int backlog) {
+        Stripe stripe = stripeFor(path);
+        stripe.lock.lock();
+        try {
+            stripe.rotate(clock.getAsLong()).backlog.offer(path, backlog);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    public HotActorsReport top(int limit) {
+        SpaceSaving messages = new SpaceSaving(capacity, SpaceSaving.Aggregation.SUM);
+        SpaceSaving processing = new SpaceSaving(capacity, SpaceSaving.Aggregation.SUM);
+        SpaceSaving backlog = new SpaceSaving(capacity, SpaceSaving.Aggregation.MAX);
+        long now = clock.getAsLong();
+        long since = now;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                stripe.rotate(now);
+                for (Window window : new Window[] {stripe.previous, stripe.current}) {
+                    messages.merge(window.messages);
+                    processing.merge(window.processingMicros);
+                    backlog.merge(window.backlog);
+                }
+                since = Math.min(since, stripe.previous.start);
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        double seconds = (clock.getAsLong() - since) / 1e9;
+        return new HotActorsReport(seconds, messages.top(limit), processing.top(limit), backlog.top(limit));
+    }
+
+    private Stripe stripeFor(String path) {
+        int h = path.hashCode();
+        return stripes[(h ^ (h >>> 16)) & (stripes.length - 1)];
+    }
+
+    /**
+     * The windows of the actors hashed to one stripe, guarded by its own lock. Each actor only
+     * ever lands in one stripe, so merging stripes never adds up counts of the same actor.
+     */
+    private final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private Window current;
+        private Window previous;
+
+        private Stripe(int capacity, long now) {
+            this.current = new Window(capacity, now);
+            this.previous = new Window(capacity, now - windowNanos);
+        }
+
+        /**
+         * Starts a new window when the current one is over, recycling the previous one's summaries.
+         */
+        private Window rotate(long now) {
+            if (now - current.start >= windowNanos) {
+                Window recycled = previous;
+                recycled.clear();
+                if (now - current.start >= 2 * windowNanos) {
+                    // idle for more than a window: the current one is too old to keep as previous
+                    current.clear();
+                    current.start = now - windowNanos;
+                }
+                previous = current;
+                current = recycled;
+                current.start = now;
+            }
+            return current;
+        }
+    }
+
+    private static final class Window {
+        private final SpaceSaving messages;
+        private final SpaceSaving processingMicros;
+        private final SpaceSaving backlog;
+        private long start;
+
+        private Window(int capacity, long start) {
+            this.messages = new SpaceSaving(capacity, SpaceSaving.Aggregation.SUM);
+            this.processingMicros = new SpaceSaving(capacity, SpaceSaving.Aggregation.SUM);
+            this.backlog = new SpaceSaving(capacity, SpaceSaving.Aggregation.MAX);
+            this.start = start;
+        }
+
+        private void clear() {
+            messages.clear();
+            processingMicros.clear();
+            backlog.clear();
+        }
+    }
+}
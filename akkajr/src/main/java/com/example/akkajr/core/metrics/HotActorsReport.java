@@ -0,0 +1,37 @@
+package com.example.akkajr.core.metrics;
+
+import java.util.List;
+
+/**
+ * Busiest actors over the last {@code windowSeconds}: by processed messages, by processing time
+ * (microseconds) and by largest backlog observed.
+ */
+public final class HotActorsReport {
+    private final double windowSeconds;
+    private final List<HotActor> byMessages;
+    private final List<HotActor> byProcessingTimeMicros;
+    private final List<HotActor> byBacklog;
+
+    public HotActorsReport(double windowSeconds, List<HotActor> byMessages, List<HotActor> byProcessingTimeMicros, List<HotActor> byBacklog) {
+        this.windowSeconds = windowSeconds;
+        this.byMessages = byMessages;
+        this.byProcessingTimeMicros = byProcessingTimeMicros;
+        this.byBacklog = byBacklog;
+    }
+
+    public double getWindowSeconds() {
+        return windowSeconds;
+    }
+
+    public List<HotActor> getByMessages() {
+        return byMessages;
+    }
+
+    public List<HotActor> getByProcessingTimeMicros() {
+        return byProcessingTimeMicros;
+    }
+
+    public List<HotActor> getByBacklog() {
+        return byBacklog;
+    }
+}
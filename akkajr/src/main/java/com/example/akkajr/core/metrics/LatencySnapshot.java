@@ -0,0 +1,46 @@
+package com.example.akkajr.core.metrics;
+
+/**
+ * Point-in-time view of a {@link LatencyHistogram}, in nanoseconds.
+ */
+public final class LatencySnapshot {
+    private final long count;
+    private final long p50;
+    private final long p99;
+    private final long p999;
+    private final long max;
+    private final double mean;
+
+    public LatencySnapshot(long count, long p50, long p99, long p999, long max, double mean) {
+        this.count = count;
+        this.p50 = p50;
+        this.p99 = p99;
+        this.p999 = p999;
+        this.max = max;
+        this.mean = mean;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getP50() {
+        return p50;
+    }
+
+    public long getP99() {
+        return p99;
+    }
+
+    public long getP999() {
+        return p999;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.akkajr.core.metrics;
+
+/**
+ * How per-message Micrometer meters are tagged. One time series per actor path is fine for a few
+ * long-lived actors but explodes with many short-lived or passivated ones.
+ */
+public enum MetricCardinality {
+    /** Meters tagged with the actor path (removed when the actor stops). */
+    PER_ACTOR,
+    /** Meters tagged with the actor class. */
+    PER_CLASS,
+    /** A single set of meters for the whole system. */
+    AGGREGATE
+}
@@ -1,12 +1,20 @@
 package com.example.akkajr.core.metrics;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 public final class MetricsRegistry {
     private final AtomicLong actorsCreated = new AtomicLong();
     private final AtomicLong actorsStopped = new AtomicLong();
+    private final AtomicLong actorsPassivated = new AtomicLong();
     private final AtomicLong messagesProcessed = new AtomicLong();
     private final AtomicLong messagesFailed = new AtomicLong();
+    private final Map<String, ActorLatency> latencies = new ConcurrentHashMap<>();
 
     public void recordActorCreated() {
         actorsCreated.incrementAndGet();
@@ -16,6 +24,10 @@ public final class MetricsRegistry {
         actorsStopped.incrementAndGet();
     }
 
+    public void recordActorPassivated() {
+        actorsPassivated.incrementAndGet();
+    }
+
     public void recordMessageProcessed() {
         messagesProcessed.incrementAndGet();
     }
@@ -24,17 +36,45 @@ public final class MetricsRegistry {
         messagesFailed.incrementAndGet();
     }
 
-    public MetricsSnapshot snapshot(long totalActors, long userActors, long systemActors, long pausedActors, long totalBacklog) {
+    /**
+     * Returns the latency histograms of an actor class, creating them on first use; {@code onCreate}
+     * is called once for new entries (e.g. to register meters).
+     */
+    public ActorLatency latency(String actorClass, Consumer<ActorLatency> onCreate) {
+        ActorLatency latency = latencies.get(actorClass);
+        if (latency != null) {
+            return latency;
+        }
+        return latencies.computeIfAbsent(actorClass, name -> {
+            ActorLatency created = new ActorLatency(name);
+            onCreate.accept(created);
+            return created;
+        });
+    }
+
+    public List<ActorLatencySnapshot> latencySnapshots() {
+        List<ActorLatencySnapshot> snapshots = new ArrayList<>();
+        for (ActorLatency latency : latencies.values()) {
+            snapshots.add(latency.snapshot());
+        }
+        snapshots.sort(Comparator.comparing(ActorLatencySnapshot::getActorClass));
+        return snapshots;
+    }
+
+    public MetricsSnapshot snapshot(long totalActors, long userActors, long systemActors, long pausedActors, long passivatedActors, long totalBacklog, long deadLetters) {
         return new MetricsSnapshot(
                 actorsCreated.get(),
                 actorsStopped.get(),
+                actorsPassivated.get(),
                 messagesProcessed.get(),
                 messagesFailed.get(),
                 totalActors,
                 userActors,
                 systemActors,
                 pausedActors,
-                totalBacklog
+                passivatedActors,
+                totalBacklog,
+                deadLetters
         );
     }
 }
@@ -3,25 +3,32 @@ package com.example.akkajr.core.metrics;
 public final class MetricsSnapshot {
     private final long actorsCreated;
     private final long actorsStopped;
+    private final long actorsPassivated;
     private final long messagesProcessed;
     private final long messagesFailed;
     private final long totalActors;
     private final long userActors;
     private final long systemActors;
     private final long pausedActors;
+    private final long passivatedActors;
     private final long totalBacklog;
+    private final long deadLetters;
 
-    public MetricsSnapshot(long actorsCreated, long actorsStopped, long messagesProcessed, long messagesFailed,
-                           long totalActors, long userActors, long systemActors, long pausedActors, long totalBacklog) {
+    public MetricsSnapshot(long actorsCreated, long actorsStopped, long actorsPassivated, long messagesProcessed, long messagesFailed,
+                           long totalActors, long userActors, long systemActors, long pausedActors, long passivatedActors, long totalBacklog,
+                           long deadLetters) {
         this.actorsCreated = actorsCreated;
         this.actorsStopped = actorsStopped;
+        this.actorsPassivated = actorsPassivated;
         this.messagesProcessed = messagesProcessed;
         this.messagesFailed = messagesFailed;
         this.totalActors = totalActors;
         this.userActors = userActors;
         this.systemActors = systemActors;
         this.pausedActors = pausedActors;
+        this.passivatedActors = passivatedActors;
         this.totalBacklog = totalBacklog;
+        this.deadLetters = deadLetters;
     }
 
     public long getActorsCreated() {
@@ -32,6 +39,10 @@ public final class MetricsSnapshot {
         return actorsStopped;
     }
 
+    public long getActorsPassivated() {
+        return actorsPassivated;
+    }
+
     public long getMessagesProcessed() {
         return messagesProcessed;
     }
@@ -56,7 +67,15 @@ public final class MetricsSnapshot {
         return pausedActors;
     }
 
+    public long getPassivatedActors() {
+        return passivatedActors;
+    }
+
     public long getTotalBacklog() {
         return totalBacklog;
     }
+
+    public long getDeadLetters() {
+        return deadLetters;
+    }
 }
@@ -0,0 +1,183 @@
+package com.example.akkajr.core.metrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fixed-size summary of the heaviest keys of a stream (Space-Saving, Metwally et al.). At most
+ * {@code capacity} keys are monitored; a new key arriving when the summary is full takes over
+ * the smallest counter and inherits its count as over-estimation error. Any key whose true weight
+ * exceeds total / capacity is guaranteed to be monitored.
+ * <p>
+ * With {@link Aggregation#MAX} counters keep the largest value seen instead of a sum (used for
+ * gauges such as backlog); a new key then only replaces the smallest counter if it is larger, and
+ * values are exact.
+ * <p>
+ * Counters are also kept in a binary min-heap, so the smallest one is found in constant time and
+ * an update costs O(log capacity) instead of a scan of every counter.
+ * <p>
+ * Not thread-safe; callers serialize access.
+ */
+public final class SpaceSaving {
+
+    public enum Aggregation {
+        SUM,
+        MAX
+    }
+
+    private final int capacity;
+    private final Aggregation aggregation;
+    private final Map<String, Counter> counters;
+    private Counter[] heap;
+    private int size;
+
+    public SpaceSaving(int capacity, Aggregation aggregation) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.aggregation = aggregation;
+        this.counters = new HashMap<>(capacity * 2);
+        this.heap = new Counter[capacity];
+    }
+
+    public void offer(String key, long weight) {
+        Counter counter = counters.get(key);
+        if (counter != null) {
+            counter.value = aggregation == Aggregation.SUM ? counter.value + weight : Math.max(counter.value, weight);
+            reposition(counter);
+            return;
+        }
+        if (size < capacity) {
+            add(new Counter(key, weight, 0));
+            return;
+        }
+        Counter min = heap[0];
+        if (aggregation == Aggregation.MAX && weight <= min.value) {
+            return;
+        }
+        // the new key takes over the smallest counter in place
+        counters.remove(min.key);
+        min.error = aggregation == Aggregation.SUM ? min.value : 0;
+        min.value = aggregation == Aggregation.SUM ? min.value + weight : weight;
+        min.key = key;
+        counters.put(key, min);
+        siftDown(0);
+    }
+
+    /**
+     * Adds every counter of {@code other} to this summary, as if its stream had been offered here.
+     */
+    public void merge(SpaceSaving other) {
+        for (Counter counter : other.counters.values()) {
+            Counter existing = counters.get(counter.key);
+            if (existing != null) {
+                existing.value = aggregation == Aggregation.SUM ? existing.value + counter.value : Math.max(existing.value, counter.value);
+                existing.error += counter.error;
+                reposition(existing);
+            } else {
+                // merged summaries are only read, so they may exceed the capacity
+                add(new Counter(counter.key, counter.value, counter.error));
+            }
+        }
+    }
+
+    /**
+     * The {@code limit} heaviest keys, heaviest first; ties go to the more certain count.
+     */
+    public List<HotActor> top(int limit) {
+        List<Counter> sorted = new ArrayList<>(Arrays.asList(heap).subList(0, size));
+        sorted.sort((a, b) -> smaller(a, b) ? 1 : smaller(b, a) ? -1 : 0);
+        List<HotActor> top = new ArrayList<>(Math.min(limit, sorted.size()));
+        for (int i = 0; i < sorted.size() && i < limit; i++) {
+            Counter counter = sorted.get(i);
+            top.add(new HotActor(counter.key, counter.value, counter.error));
+        }
+        return top;
+    }
+
+    public void clear() {
+        counters.clear();
+        Arrays.fill(heap, 0, size, null);
+        size = 0;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    private void add(Counter counter) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        counters.put(counter.key, counter);
+        heap[size] = counter;
+        counter.index = size++;
+        siftUp(counter.index);
+    }
+
+    private void reposition(Counter counter) {
+        siftUp(counter.index);
+        siftDown(counter.index);
+    }
+
+    private void siftUp(int i) {
+        Counter counter = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!smaller(counter, heap[parent])) {
+                break;
+            }
+            place(heap[parent], i);
+            i = parent;
+        }
+        place(counter, i);
+    }
+
+    private void siftDown(int i) {
+        Counter counter = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && smaller(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!smaller(heap[child], counter)) {
+                break;
+            }
+            place(heap[child], i);
+            i = child;
+        }
+        place(counter, i);
+    }
+
+    /**
+     * Heap order: by value, then by guaranteed count, so among equal counters the one that owes
+     * most of its value to inherited error is replaced first.
+     */
+    private static boolean smaller(Counter a, Counter b) {
+        return a.value < b.value || (a.value == b.value && a.value - a.error < b.value - b.error);
+    }
+
+    private void place(Counter counter, int i) {
+        heap[i] = counter;
+        counter.index = i;
+    }
+
+    private static final class Counter {
+        private String key;
+        private long value;
+        private long error;
+        // position in the heap
+        private int index;
+
+        private Counter(String key, long value, long error) {
+            this.key = key;
+            this.value = value;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.akkajr.core.observability;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decides which successful message events are worth recording. Every {@code interval}-th event is
+ * kept, with the interval re-computed once per one-second window from the rate seen in the
+ * previous window so that roughly {@code targetPerSecond} events are kept whatever the
+ * throughput; a hard per-window cap absorbs bursts before the interval catches up. Failures are
+ * always kept. Dropped events are only counted, so the caller can skip allocating them.
+ *
+ * <p>The hot path writes no shared cache line: offered events go to a {@link LongAdder}, the
+ * every-n-th decision uses a per-thread counter, and the window boundary is checked against the
+ * clock; shared state is only written when an event is kept or the window rolls over.
+ */
+public final class EventSampler {
+    private static final long WINDOW_NANOS = 1_000_000_000L;
+
+    private volatile int targetPerSecond;
+    private volatile long interval = 1;
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private final AtomicLong windowKept = new AtomicLong();
+    private final LongAdder offered = new LongAdder();
+    // offered.sum() when the current window started, written by the thread that rolls it over
+    private volatile long offeredAtWindowStart;
+    private final ThreadLocal<long[]> sequence = ThreadLocal.withInitial(() -> new long[1]);
+    private final LongAdder kept = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    public EventSampler(int targetPerSecond) {
+        setTargetPerSecond(targetPerSecond);
+    }
+
+    public void setTargetPerSecond(int targetPerSecond) {
+        if (targetPerSecond <= 0) {
+            throw new IllegalArgumentException("Target events per second must be positive");
+        }
+        this.targetPerSecond = targetPerSecond;
+    }
+
+    /**
+     * Called for every successful message; returns true when its event should be recorded.
+     */
+    public boolean sample() {
+        offered.increment();
+        long n = ++sequence.get()[0];
+        long now = System.nanoTime();
+        long start = windowStart.get();
+        if (now - start >= WINDOW_NANOS && windowStart.compareAndSet(start, now)) {
+            long total = offered.sum();
+            long seen = total - offeredAtWindowStart;
+            offeredAtWindowStart = total;
+            windowKept.set(0);
+            double perSecond = seen * (double) WINDOW_NANOS / (now - start);
+            interval = Math.max(1L, (long) Math.ceil(perSecond / targetPerSecond));
+        }
+        if (n % interval != 0 || windowKept.get() >= targetPerSecond) {
+            return false;
+        }
+        windowKept.incrementAndGet();
+        kept.increment();
+        return true;
+    }
+
+    /**
+     * Failures bypass sampling; they are only counted here.
+     */
+    public void recordFailure() {
+        failures.increment();
+    }
+
+    public SamplingStats stats() {
+        long total = offered.sum();
+        long recorded = kept.sum();
+        return new SamplingStats(targetPerSecond, interval, total, recorded, Math.max(0L, total - recorded), failures.sum());
+    }
+}
@@ -6,14 +6,20 @@ public final class MessageEvent {
     private final String path;
     private final String messageId;
     private final String traceId;
+    private final String parentId;
     private final String detail;
 
     public MessageEvent(String type, long timestamp, String path, String messageId, String traceId, String detail) {
+        this(type, timestamp, path, messageId, traceId, null, detail);
+    }
+
+    public MessageEvent(String type, long timestamp, String path, String messageId, String traceId, String parentId, String detail) {
         this.type = type;
         this.timestamp = timestamp;
         this.path = path;
         this.messageId = messageId;
         this.traceId = traceId;
+        this.parentId = parentId;
         this.detail = detail;
     }
 
@@ -37,6 +43,10 @@ public final class MessageEvent {
         return traceId;
     }
 
+    public String getParentId() {
+        return parentId;
+    }
+
     public String getDetail() {
         return detail;
     }
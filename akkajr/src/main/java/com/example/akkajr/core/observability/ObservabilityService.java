@@ -22,9 +22,11 @@ public class ObservabilityService {
     private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
     private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "metrics-sse"));
 
-    private static final long BACKLOG_THRESHOLD = 1000;
     private static final long PAUSED_THRESHOLD = 0;
 
+    // dead letters total at the last streaming tick: the alert reports what was lost since then
+    private volatile long deadLettersAtLastTick;
+
     public ObservabilityService(ActorSystem actorSystem) {
         this.actorSystem = actorSystem;
         startStreaming();
@@ -40,12 +42,17 @@ public class ObservabilityService {
 
     public List<Alert> currentAlerts(MetricsSnapshot snapshot) {
         List<Alert> alerts = new ArrayList<>();
-        if (snapshot.getTotalBacklog() > BACKLOG_THRESHOLD) {
-            alerts.add(new Alert("WARN", "backlog_threshold", "Backlog total au-dessus de " + BACKLOG_THRESHOLD));
+        long backlogThreshold = actorSystem.settings().backlogThreshold();
+        if (snapshot.getTotalBacklog() > backlogThreshold) {
+            alerts.add(new Alert("WARN", "backlog_threshold", "Backlog total au-dessus de " + backlogThreshold));
         }
         if (snapshot.getPausedActors() > PAUSED_THRESHOLD) {
             alerts.add(new Alert("INFO", "actors_paused", snapshot.getPausedActors() + " acteur(s) en pause"));
         }
+        long newDeadLetters = snapshot.getDeadLetters() - deadLettersAtLastTick;
+        if (newDeadLetters > 0) {
+            alerts.add(new Alert("WARN", "dead_letters", newDeadLetters + " nouveau(x) message(s) non livré(s)"));
+        }
         if (snapshot.getMessagesFailed() > 0) {
             alerts.add(new Alert("WARN", "messages_failed", snapshot.getMessagesFailed() + " messages en erreur"));
         }
@@ -56,6 +63,7 @@ public class ObservabilityService {
         scheduler.scheduleAtFixedRate(() -> {
             MetricsSnapshot snapshot = actorSystem.metricsSnapshot();
             List<Alert> alerts = currentAlerts(snapshot);
+            deadLettersAtLastTick = snapshot.getDeadLetters();
             emitters.forEach(emitter -> {
                 try {
                     emitter.send(SseEmitter.event().data(snapshot).name("metrics"));
@@ -0,0 +1,43 @@
+package com.example.akkajr.core.observability;
+
+public final class SamplingStats {
+    private final int targetPerSecond;
+    private final long interval;
+    private final long processedSeen;
+    private final long processedRecorded;
+    private final long processedSampledOut;
+    private final long failuresRecorded;
+
+    public SamplingStats(int targetPerSecond, long interval, long processedSeen, long processedRecorded, long processedSampledOut, long failuresRecorded) {
+        this.targetPerSecond = targetPerSecond;
+        this.interval = interval;
+        this.processedSeen = processedSeen;
+        this.processedRecorded = processedRecorded;
+        this.processedSampledOut = processedSampledOut;
+        this.failuresRecorded = failuresRecorded;
+    }
+
+    public int getTargetPerSecond() {
+        return targetPerSecond;
+    }
+
+    public long getInterval() {
+        return interval;
+    }
+
+    public long getProcessedSeen() {
+        return processedSeen;
+    }
+
+    public long getProcessedRecorded() {
+        return processedRecorded;
+    }
+
+    public long getProcessedSampledOut() {
+        return processedSampledOut;
+    }
+
+    public long getFailuresRecorded() {
+        return failuresRecorded;
+    }
+}
@@ -5,6 +5,8 @@ import java.util.concurrent.CompletableFuture;
 public class AskMessage extends Message {
 
     private final CompletableFuture<String> futureResponse = new CompletableFuture<>();
+    // Identifie cet ASK parmi ceux en attente chez le destinataire (attribué à l'envoi s'il est absent)
+    private String correlationId;
 
     // Constructeur par défaut pour la désérialisation JSON
     public AskMessage() {
@@ -19,6 +21,9 @@ public class AskMessage extends Message {
         return futureResponse;
     }
 
+    public String getCorrelationId() { return correlationId; }
+    public void setCorrelationId(String correlationId) { this.correlationId = correlationId; }
+
     public void complete(String response) {
         futureResponse.complete(response);
     }
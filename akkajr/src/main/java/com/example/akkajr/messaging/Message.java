@@ -6,6 +6,8 @@ public class Message {
     private String content;
     private long timestamp;
     private String originService; // Nouveau champ pour tracker l'origine
+    private String traceId; // Trace partagée par toute la chaîne de messages
+    private String parentSpanId; // Message (ou acteur) à l'origine de celui-ci
 
     public Message() {}
 
@@ -21,12 +23,16 @@ public class Message {
     public String getContent() { return content; }
     public long getTimestamp() { return timestamp; }
     public String getOriginService() { return originService; } // Getter
+    public String getTraceId() { return traceId; }
+    public String getParentSpanId() { return parentSpanId; }
 
     public void setSenderId(String senderId) { this.senderId = senderId; }
     public void setReceiverId(String receiverId) { this.receiverId = receiverId; }
     public void setContent(String content) { this.content = content; }
     public void setTimestamp(long timestamp) { this.timestamp = timestamp; }
     public void setOriginService(String originService) { this.originService = originService; } // Setter
+    public void setTraceId(String traceId) { this.traceId = traceId; }
+    public void setParentSpanId(String parentSpanId) { this.parentSpanId = parentSpanId; }
 
     @Override
     public String toString() {
@@ -36,6 +42,7 @@ public class Message {
                 ", content='" + content + '\'' +
                 ", timestamp=" + timestamp +
                 ", originService='" + originService + '\'' +
+                ", traceId='" + traceId + '\'' +
                 '}';
     }
 }
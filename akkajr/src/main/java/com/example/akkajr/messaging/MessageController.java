@@ -1,26 +1,35 @@
 package com.example.akkajr.messaging;
 
+import com.example.akkajr.messaging.mailbox.MessageJournal;
+import com.example.akkajr.messaging.mailbox.MessageLog;
+import com.example.akkajr.messaging.mailbox.MessageQuery;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Queue;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @RestController
 @RequestMapping("/api/messages")
 public class MessageController {
 
     private final MessageService messageService;
+    private final PendingAsks pendingAsks;
     
     @Value("${app.service.name:akkajr}")
     private String currentServiceName;
 
-    public MessageController(MessageService messageService) {
+    public MessageController(MessageService messageService, PendingAsks pendingAsks) {
         this.messageService = messageService;
+        this.pendingAsks = pendingAsks;
     }
     
     /**
@@ -38,30 +47,110 @@ public class MessageController {
         }
     }
 
+    /**
+     * Reprend le contexte de trace transmis en en-têtes par RemoteMessageClient
+     * quand le corps du message ne le porte pas déjà
+     */
+    private void adoptTrace(Message msg, String traceId, String parentSpanId) {
+        if (msg.getTraceId() == null && traceId != null) {
+            msg.setTraceId(traceId);
+        }
+        if (msg.getParentSpanId() == null && parentSpanId != null) {
+            msg.setParentSpanId(parentSpanId);
+        }
+    }
+
     @PostMapping("/tell")
-    public String sendTell(@RequestBody Message msg) {
+    public String sendTell(@RequestBody Message msg,
+                           @RequestHeader(value = RemoteMessageClient.TRACE_ID_HEADER, required = false) String traceId,
+                           @RequestHeader(value = RemoteMessageClient.PARENT_SPAN_HEADER, required = false) String parentSpanId) {
         cleanReceiverId(msg);
+        adoptTrace(msg, traceId, parentSpanId);
         messageService.send(msg);
         return "TELL envoyé";
     }
 
+    /**
+     * Lot de TELL envoyé par RemoteMessageClient : un seul POST pour tous les messages,
+     * livrés dans l'ordre du lot. La trace de chaque message voyage dans son corps.
+     */
+    @PostMapping("/tell/batch")
+    public String sendTellBatch(@RequestBody List<Message> messages) {
+        for (Message msg : messages) {
+            cleanReceiverId(msg);
+        }
+        messageService.sendAll(messages);
+        return messages.size() + " TELL envoyés";
+    }
+
+    /**
+     * ASK asynchrone : le thread servlet est rendu tout de suite et la réponse HTTP part quand
+     * l'acteur répond (ou au timeout). Les ASK en attente ne coûtent donc pas de thread, et
+     * leur nombre est borné par PendingAsks.
+     */
     @PostMapping("/ask")
-    public ResponseEntity<String> sendAsk(@RequestBody AskMessage ask) {
+    public DeferredResult<ResponseEntity<String>> sendAsk(@RequestBody AskMessage ask,
+                                                          @RequestHeader(value = RemoteMessageClient.TRACE_ID_HEADER, required = false) String traceId,
+                                                          @RequestHeader(value = RemoteMessageClient.PARENT_SPAN_HEADER, required = false) String parentSpanId) {
+        long timeoutMillis = pendingAsks.timeout().toMillis();
+        DeferredResult<ResponseEntity<String>> result = new DeferredResult<>(timeoutMillis);
+        if (!pendingAsks.tryAcquire()) {
+            System.err.println("[ASK REJECTED] " + pendingAsks.maxPending() + " ASK déjà en attente");
+            result.setResult(ResponseEntity.status(503).body("Trop d'ASK en attente, réessayer plus tard"));
+            return result;
+        }
+        // une seule libération par ASK, quelle que soit l'issue qui arrive en premier
+        AtomicBoolean released = new AtomicBoolean();
+        result.onTimeout(() -> {
+            if (released.compareAndSet(false, true)) {
+                pendingAsks.release(PendingAsks.TIMEOUT);
+            }
+            System.err.println("[ASK TIMEOUT] Timeout en attendant la réponse pour " + ask.getReceiverId());
+            result.setResult(ResponseEntity.status(504)
+                    .body("Timeout: Aucune réponse reçue dans les " + (timeoutMillis / 1000) + " secondes"));
+        });
+        result.onCompletion(() -> {
+            // client déconnecté ou erreur du conteneur : la place est rendue quand même
+            if (released.compareAndSet(false, true)) {
+                pendingAsks.release(PendingAsks.ERROR);
+            }
+        });
+
         cleanReceiverId(ask);
-        messageService.send(ask);
-        
-        // CORRECTION: Attendre la réponse de l'acteur via le CompletableFuture
-        // avec un timeout de 30 secondes
+        adoptTrace(ask, traceId, parentSpanId);
         try {
-            String response = ask.getFutureResponse().get(30, TimeUnit.SECONDS);
-            return ResponseEntity.ok(response);
-        } catch (java.util.concurrent.TimeoutException e) {
-            System.err.println("[ASK TIMEOUT] Timeout en attendant la réponse pour " + ask.getReceiverId());
-            return ResponseEntity.status(504).body("Timeout: Aucune réponse reçue dans les 30 secondes");
-        } catch (Exception e) {
-            System.err.println("[ASK ERROR] Erreur en attendant la réponse: " + e.getMessage());
-            return ResponseEntity.status(500).body("Erreur: " + e.getMessage());
+            messageService.send(ask);
+        } catch (RuntimeException e) {
+            ask.getFutureResponse().completeExceptionally(e);
         }
+
+        ask.getFutureResponse().whenComplete((response, error) -> {
+            if (!released.compareAndSet(false, true)) {
+                return;
+            }
+            if (error == null) {
+                pendingAsks.release(PendingAsks.OK);
+                result.setResult(ResponseEntity.ok(response));
+            } else {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                if (cause instanceof RejectedExecutionException) {
+                    // le destinataire a déjà atteint sa limite d'ASK en attente
+                    pendingAsks.release(PendingAsks.REJECTED);
+                    result.setResult(ResponseEntity.status(503).body("Refusé: " + cause.getMessage()));
+                    return;
+                }
+                if (cause instanceof TimeoutException) {
+                    // l'ASK a expiré côté destinataire avant le timeout HTTP
+                    pendingAsks.release(PendingAsks.TIMEOUT);
+                    result.setResult(ResponseEntity.status(504).body("Timeout: " + cause.getMessage()));
+                    return;
+                }
+                System.err.println("[ASK ERROR] Erreur en attendant la réponse: " + cause.getMessage());
+                pendingAsks.release(PendingAsks.ERROR);
+                result.setResult(ResponseEntity.status(500).body("Erreur: " + cause.getMessage()));
+            }
+        });
+        return result;
     }
 
     @GetMapping("/inbox/{id}")
@@ -74,38 +163,93 @@ public class MessageController {
         return messageService.history();
     }
 
+    // Lecture paginée : repasser nextCursor pour obtenir la suite, missed compte les messages évincés
+    @GetMapping("/history/page")
+    public MessageLog.Page historyPage(@RequestParam(defaultValue = "0") long cursor,
+                                       @RequestParam(defaultValue = "100") int limit) {
+        return messageService.historyPage(cursor, Math.max(1, Math.min(limit, 1000)));
+    }
+
+    @GetMapping("/history/stats")
+    public MessageLog.Stats historyStats() {
+        return messageService.historyStats();
+    }
+
+    /**
+     * Relecture du journal sur disque à partir d'un offset, ou des messages écrits depuis
+     * since (epoch en ms). Repasser nextOffset en offset pour obtenir la suite.
+     */
+    @GetMapping("/journal")
+    public ResponseEntity<Map<String, Object>> replayJournal(@RequestParam(defaultValue = "0") long offset,
+                                                             @RequestParam(required = false) Long since,
+                                                             @RequestParam(defaultValue = "100") int limit) {
+        MessageJournal journal = messageService.journal();
+        if (journal == null) {
+            return ResponseEntity.notFound().build();
+        }
+        List<MessageJournal.Entry> entries = new ArrayList<>();
+        int bounded = Math.max(1, Math.min(limit, 1000));
+        long nextOffset = since != null
+                ? journal.replaySince(since, bounded, entries::add)
+                : journal.replay(offset, bounded, entries::add);
+        Map<String, Object> page = new HashMap<>();
+        page.put("entries", entries);
+        page.put("nextOffset", nextOffset);
+        page.put("endOffset", journal.nextOffset());
+        return ResponseEntity.ok(page);
+    }
+
+    /**
+     * Recherche dans l'historique (ou les dead letters avec source=deadletters), du plus
+     * récent au plus ancien. Repasser nextCursor en cursor pour la page suivante (-1 = fin).
+     */
+    @GetMapping("/query")
+    public MessageLog.QueryPage query(@RequestParam(defaultValue = "history") String source,
+                                      @RequestParam(required = false) String sender,
+                                      @RequestParam(required = false) String receiver,
+                                      @RequestParam(required = false) String origin,
+                                      @RequestParam(required = false) MessageQuery.Type type,
+                                      @RequestParam(required = false) Long from,
+                                      @RequestParam(required = false) Long to,
+                                      @RequestParam(defaultValue = "" + Long.MAX_VALUE) long cursor,
+                                      @RequestParam(defaultValue = "50") int limit) {
+        MessageQuery query = new MessageQuery(sender, receiver, origin, type, from, to);
+        int bounded = Math.max(1, Math.min(limit, 1000));
+        return "deadletters".equals(source)
+                ? messageService.queryDeadLetters(query, cursor, bounded)
+                : messageService.queryHistory(query, cursor, bounded);
+    }
+
     @GetMapping("/deadletters")
     public Queue<Message> deadLetters() {
         return messageService.getDeadLetters();
     }
 
     @PostMapping("/reply")
-    public String replyToAsk(@RequestParam String agentId, @RequestBody String response) {
-        messageService.replyToAsk(agentId, response);
+    public String replyToAsk(@RequestParam String agentId,
+                             @RequestParam(required = false) String correlationId,
+                             @RequestBody String response) {
+        // sans correlationId, la réponse va au plus ancien ASK en attente de l'agent
+        messageService.replyToAsk(agentId, correlationId, response);
         return "Réponse envoyée à l'ASK";
     }
     
     @GetMapping("/stats")
     public ResponseEntity<Map<String, Object>> getStats() {
-        Queue<Message> history = messageService.history();
-        Queue<Message> deadLetters = messageService.getDeadLetters();
-        
-        // Compter les messages remote en utilisant originService au lieu de receiverId
-        long remoteCount = history.stream()
-            .filter(m -> m.getOriginService() != null && !m.getOriginService().isEmpty())
-            .count();
-        
-        long pendingAsks = history.stream()
-            .filter(m -> m instanceof AskMessage)
-            .map(m -> (AskMessage) m)
-            .filter(a -> !a.getFutureResponse().isDone())
-            .count();
+        // Compteurs tenus à jour à l'écriture : rien n'est recopié ni parcouru ici
+        MessageLog.Stats historyStats = messageService.historyStats();
         
         Map<String, Object> stats = new HashMap<>();
-        stats.put("totalMessages", history.size());
-        stats.put("remoteMessages", remoteCount);
-        stats.put("deadLetters", deadLetters.size());
-        stats.put("pendingAsks", pendingAsks);
+        stats.put("totalMessages", historyStats.totalLogged());
+        stats.put("historySize", historyStats.size());
+        stats.put("historyEvicted", historyStats.evictedBySize() + historyStats.evictedByAge());
+        // remote = message portant un service d'origine
+        stats.put("remoteMessages", historyStats.totalRemote());
+        stats.put("deadLetters", messageService.deadLetterCount());
+        stats.put("pendingAsks", messageService.pendingAskCount());
+        stats.put("expiredAsks", messageService.expiredAskCount());
+        // ASK HTTP dont la réponse n'est pas encore partie
+        stats.put("outstandingHttpAsks", pendingAsks.pending());
         
         return ResponseEntity.ok(stats);
     }
@@ -113,40 +257,37 @@ public class MessageController {
 
     @GetMapping("/logs")
     public ResponseEntity<Map<String, Object>> getLogs() {
-        Queue<Message> history = messageService.history();
-        Queue<Message> deadLetters = messageService.getDeadLetters();
+        // Pages les plus récentes lues via les index, sans copier l'historique
+        List<Message> history = messageService.queryHistory(MessageQuery.ALL, Long.MAX_VALUE, 50).messages();
+        List<Message> deadLetters = messageService.queryDeadLetters(MessageQuery.ALL, Long.MAX_VALUE, 20).messages();
         
         List<Map<String, Object>> logEntries = new ArrayList<>();
         
         // Convert recent messages to log entries (last 50)
-        history.stream()
-            .limit(50)
-            .forEach(msg -> {
-                Map<String, Object> entry = new HashMap<>();
-                entry.put("timestamp", msg.getTimestamp());
-                entry.put("type", msg instanceof AskMessage ? "ASK" : "TELL");
-                entry.put("sender", msg.getSenderId());
-                entry.put("receiver", msg.getReceiverId());
-                entry.put("content", msg.getContent());
-                entry.put("origin", msg.getOriginService());
-                entry.put("isRemote", msg.getOriginService() != null && !msg.getOriginService().isEmpty());
-                logEntries.add(entry);
-            });
+        history.forEach(msg -> {
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("timestamp", msg.getTimestamp());
+            entry.put("type", msg instanceof AskMessage ? "ASK" : "TELL");
+            entry.put("sender", msg.getSenderId());
+            entry.put("receiver", msg.getReceiverId());
+            entry.put("content", msg.getContent());
+            entry.put("origin", msg.getOriginService());
+            entry.put("isRemote", msg.getOriginService() != null && !msg.getOriginService().isEmpty());
+            logEntries.add(entry);
+        });
         
         // Add dead letters as error logs
-        deadLetters.stream()
-            .limit(20)
-            .forEach(msg -> {
-                Map<String, Object> entry = new HashMap<>();
-                entry.put("timestamp", msg.getTimestamp());
-                entry.put("type", "DEAD_LETTER");
-                entry.put("sender", msg.getSenderId());
-                entry.put("receiver", msg.getReceiverId());
-                entry.put("content", msg.getContent());
-                entry.put("origin", msg.getOriginService());
-                entry.put("isRemote", false);
-                logEntries.add(entry);
-            });
+        deadLetters.forEach(msg -> {
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("timestamp", msg.getTimestamp());
+            entry.put("type", "DEAD_LETTER");
+            entry.put("sender", msg.getSenderId());
+            entry.put("receiver", msg.getReceiverId());
+            entry.put("content", msg.getContent());
+            entry.put("origin", msg.getOriginService());
+            entry.put("isRemote", false);
+            logEntries.add(entry);
+        });
         
         // Sort by timestamp (newest first)
         logEntries.sort((a, b) -> Long.compare(
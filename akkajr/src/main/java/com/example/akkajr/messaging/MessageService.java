@@ -3,36 +3,90 @@ package com.example.akkajr.messaging;
 import com.example.akkajr.messaging.dispatcher.Dispatcher;
 import com.example.akkajr.messaging.mailbox.DeadLetterMailbox;
 import com.example.akkajr.messaging.mailbox.Mailbox;
+import com.example.akkajr.messaging.mailbox.MessageJournal;
 import com.example.akkajr.messaging.mailbox.MessageLog;
+import com.example.akkajr.messaging.mailbox.MessageQuery;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Queue;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 @Service
 public class MessageService {
 
     private final Map<String, Mailbox> mailboxes = new ConcurrentHashMap<>();
     private final DeadLetterMailbox deadLetters = new DeadLetterMailbox();
-    private final MessageLog history = new MessageLog();
+    private MessageLog history = new MessageLog();
     private final Dispatcher dispatcher = new Dispatcher(deadLetters, this);
     
     @Autowired(required = false)
     private RemoteMessageClient remoteMessageClient;
+
+    // Transport binaire pour les services déclarés en tcp:// (HTTP/JSON pour les autres)
+    @Autowired(required = false)
+    private TcpMessageClient tcpMessageClient;
     
     @Value("${app.service.name:akkajr}")
     private String currentServiceName;
     
+    @Value("${app.messages.history.capacity:10000}")
+    private int historyCapacity = MessageLog.DEFAULT_CAPACITY;
+
+    @Value("${app.messages.history.max-age:1h}")
+    private Duration historyMaxAge = MessageLog.DEFAULT_MAX_AGE;
+
+    // Journal sur disque (vide = désactivé)
+    @Value("${app.messages.journal.dir:}")
+    private String journalDir;
+
+    @Value("${app.messages.journal.segment-bytes:67108864}")
+    private long journalSegmentBytes = MessageJournal.DEFAULT_SEGMENT_BYTES;
+
+    @Value("${app.messages.journal.flush-messages:1000}")
+    private int journalFlushMessages = MessageJournal.DEFAULT_FLUSH_MESSAGES;
+
+    @Value("${app.messages.journal.flush-interval:200ms}")
+    private Duration journalFlushInterval = MessageJournal.DEFAULT_FLUSH_INTERVAL;
+
+    private MessageJournal journal;
+
     @Value("${app.remote.services:}")
     private String remoteServicesConfig; // Format: "service1=http://localhost:8081,service2=http://localhost:8082"
 
-    // Map pour suivre les ASK reçus non encore répondus
-    private final Map<String, AskMessage> pendingReceivedAsks = new ConcurrentHashMap<>();
+    // ASK reçus non encore répondus : par agent, puis par identifiant de corrélation dans l'ordre d'arrivée.
+    // Chaque map d'agent n'est modifiée que dans un compute de pendingReceivedAsks.
+    private final Map<String, LinkedHashMap<String, AskMessage>> pendingReceivedAsks = new ConcurrentHashMap<>();
+    private final AtomicInteger pendingAskTotal = new AtomicInteger();
+
+    // Nombre d'ASK qu'un agent peut avoir en attente ; à la limite il est bloqué (1 = un seul ASK à la fois)
+    @Value("${app.messages.ask.max-in-flight:1}")
+    private int maxAsksInFlight = 1;
+
+    // Délai de réponse d'un agent à un ASK reçu : passé ce délai l'ASK expire et l'agent est débloqué
+    @Value("${app.messages.ask.timeout:30s}")
+    private Duration askTimeout = Duration.ofSeconds(30);
+
+    // Échéances des ASK en attente, triées par tick (100 ms) ; annulées dès la réponse
+    private final TimingWheel askExpiries = new TimingWheel("ask-expiry", Duration.ofMillis(100), 512);
+    private final LongAdder expiredAsks = new LongAdder();
 
     // Map pour mapper les noms de services aux URLs
     private Map<String, String> remoteServiceUrls;
@@ -45,6 +99,13 @@ public class MessageService {
     // Méthode appelée après injection des dépendances
     @PostConstruct
     public void init() {
+        // Historique borné en taille et en âge, dimensionné par la configuration
+        history = new MessageLog(historyCapacity, historyMaxAge);
+        if (journalDir != null && !journalDir.isBlank()) {
+            journal = new MessageJournal(Path.of(journalDir), journalSegmentBytes, journalFlushMessages,
+                    journalFlushInterval, System::currentTimeMillis);
+            System.out.println("[MessageService] Journal des messages: " + journalDir + " (prochain offset " + journal.nextOffset() + ")");
+        }
         if (remoteServicesConfig != null && !remoteServicesConfig.isBlank()) {
             String[] services = remoteServicesConfig.split(",");
             for (String service : services) {
@@ -54,11 +115,23 @@ public class MessageService {
                 }
             }
         }
+        if (tcpMessageClient != null) {
+            // TELL TCP refusés ou restés en file à la fermeture de leur connexion
+            tcpMessageClient.onUndeliveredTell(deadLetters::push);
+        }
         System.out.println("[MessageService] Service actuel: " + currentServiceName);
         System.out.println("[MessageService] Services distants configurés: " + remoteServiceUrls);
         System.out.println("[MessageService] RemoteMessageClient disponible: " + (remoteMessageClient != null));
     }
 
+    @PreDestroy
+    public void close() {
+        askExpiries.close();
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
     // Envoi d'un message (TELL ou ASK)
     public void send(Message msg) {
         String receiverId = msg.getReceiverId();
@@ -84,10 +157,13 @@ public class MessageService {
             }
             
             System.out.println("[REMOTE] Envoi vers " + receiverAddress.serviceName() + " (" + remoteUrl + ")");
+            boolean tcp = tcpMessageClient != null && TcpMessageClient.isTcp(remoteUrl);
             
             if (msg instanceof AskMessage ask) {
                 // CORRECTION: Lier le CompletableFuture retourné au futureResponse de l'AskMessage
-                CompletableFuture<String> remoteFuture = remoteMessageClient.sendAsk(ask, remoteUrl);
+                CompletableFuture<String> remoteFuture = tcp
+                        ? tcpMessageClient.sendAsk(ask, remoteUrl)
+                        : remoteMessageClient.sendAsk(ask, remoteUrl);
                 remoteFuture.whenComplete((response, error) -> {
                     if (error != null) {
                         System.err.println("[REMOTE ASK ERROR] Erreur lors de l'envoi ASK vers " + remoteUrl + ": " + error.getMessage());
@@ -102,7 +178,11 @@ public class MessageService {
             } else {
                 // Pour TELL, l'envoi est asynchrone, la gestion d'erreur se fait dans RemoteMessageClient
                 // Si une erreur critique survient, elle sera loggée dans RemoteMessageClient
-                remoteMessageClient.sendTell(msg, remoteUrl);
+                if (tcp) {
+                    tcpMessageClient.sendTell(msg, remoteUrl);
+                } else {
+                    remoteMessageClient.sendTell(msg, remoteUrl);
+                }
             }
             return;
         }
@@ -113,36 +193,79 @@ public class MessageService {
         // DEBUG: Log pour voir ce qui arrive
         System.out.println("[DEBUG] Message reçu: " + msg.getClass().getSimpleName() + 
                           " de " + msg.getSenderId() + " vers " + localReceiverId);
-        System.out.println("[DEBUG] " + localReceiverId + " bloqué? " + pendingReceivedAsks.containsKey(localReceiverId));
 
-        // CORRECTION: Bloquer le RECEIVER s'il a un ASK non répondu
-        if (pendingReceivedAsks.containsKey(localReceiverId)) {
-            System.out.println("[BLOCKED] " + localReceiverId + 
-                    " ne peut pas recevoir de message tant qu'il n'a pas répondu à son ASK.");
+        if (!(msg instanceof AskMessage)) {
+            System.out.println("[DEBUG] Ce n'est PAS un AskMessage, c'est: " + msg.getClass().getName());
+        }
+
+        deliverLocal(msg, localReceiverId, !(msg instanceof AskMessage) && isBlocked(localReceiverId));
+    }
+
+    // Envoi d'un lot de messages, dans l'ordre (lot de TELL reçu d'un autre service).
+    // Les destinataires locaux sont livrés directement, sans les traces de debug de send(), et
+    // l'état bloqué de chaque destinataire n'est lu qu'une fois par lot (puis après chacun de ses ASK).
+    public void sendAll(List<? extends Message> messages) {
+        Map<String, Boolean> blocked = new HashMap<>();
+        for (Message msg : messages) {
+            AgentAddress address = AgentAddress.parse(msg.getReceiverId());
+            if (address.isRemote() && remoteMessageClient != null) {
+                send(msg);
+                continue;
+            }
+            String localReceiverId = address.agentId();
+            if (msg instanceof AskMessage) {
+                deliverLocal(msg, localReceiverId, false);
+                blocked.remove(localReceiverId);
+            } else {
+                deliverLocal(msg, localReceiverId, blocked.computeIfAbsent(localReceiverId, this::isBlocked));
+            }
+        }
+    }
+
+    // Livraison à un agent local ; receiverBlocked (ignoré pour un ASK) dit si l'agent refuse les TELL
+    private void deliverLocal(Message msg, String localReceiverId, boolean receiverBlocked) {
+        // Un ASK réserve sa place chez le destinataire ; à la limite d'ASK en attente, l'agent est bloqué
+        boolean accepted = msg instanceof AskMessage ask ? reserveAsk(localReceiverId, ask) : !receiverBlocked;
+        if (!accepted) {
+            System.out.println("[BLOCKED] " + localReceiverId +
+                    " ne peut pas recevoir de message tant qu'il n'a pas répondu à ses ASK.");
             // Mettre dans dead letters au lieu de l'accepter
             deadLetters.push(msg);
+            if (msg instanceof AskMessage ask) {
+                ask.getFutureResponse().completeExceptionally(new RejectedExecutionException(
+                        localReceiverId + " a déjà " + maxAsksInFlight + " ASK en attente"));
+            }
             return;
         }
 
         // Log de tous les messages
         history.log(msg);
+        if (journal != null) {
+            try {
+                journal.append(msg);
+            } catch (RuntimeException e) {
+                // Le message reste livré même si le journal n'a pas pu l'écrire
+                System.err.println("[JOURNAL ERROR] " + e.getMessage());
+            }
+        }
 
         // Récupérer ou créer la mailbox du destinataire
         Mailbox target = mailboxes.computeIfAbsent(localReceiverId, id -> new Mailbox());
 
-        // Si c'est un ASK, bloquer immédiatement le destinataire
+        // Si c'est un ASK, son échéance part maintenant ; elle est annulée dès la réponse
         // CORRECTION: Utiliser localReceiverId au lieu de ask.getReceiverId() pour éviter les incohérences
         if (msg instanceof AskMessage ask) {
-            pendingReceivedAsks.put(localReceiverId, ask);
-            System.out.println("[ASK SYNC] " + localReceiverId + 
-                    " est maintenant bloqué pour répondre à l'ASK");
-            System.out.println("[DEBUG] pendingReceivedAsks contient maintenant: " + pendingReceivedAsks.keySet());
-        } else {
-            System.out.println("[DEBUG] Ce n'est PAS un AskMessage, c'est: " + msg.getClass().getName());
+            TimingWheel.Timeout expiry = askExpiries.schedule(() -> expireAsk(localReceiverId, ask), askTimeout);
+            ask.getFutureResponse().whenComplete((response, error) -> expiry.cancel());
         }
 
         // Ajouter le message à la mailbox
         target.enqueue(msg);
+        // L'ASK était visible dès sa réservation : une réponse ou une expiration arrivée avant
+        // l'enqueue n'a rien trouvé à retirer, on le retire donc ici
+        if (msg instanceof AskMessage ask && ask.getFutureResponse().isDone()) {
+            target.remove(ask);
+        }
 
         // Dispatcher pour TELL asynchrone
         dispatcher.dispatch(msg, target);
@@ -159,26 +282,68 @@ public class MessageService {
         return mailboxes.getOrDefault(address.agentId(), new Mailbox()).queueCopy();
     }
 
-    // Historique complet
+    // Historique conservé (borné par la capacité et la durée de rétention)
     public Queue<Message> history() {
         return history.getAll();
     }
 
+    // Lecture paginée de l'historique à partir d'un curseur
+    public MessageLog.Page historyPage(long cursor, int limit) {
+        return history.read(cursor, limit);
+    }
+
+    public MessageLog.Stats historyStats() {
+        return history.stats();
+    }
+
+    // Journal sur disque, null s'il n'est pas activé
+    public MessageJournal journal() {
+        return journal;
+    }
+
     // Dead letters
     public Queue<Message> getDeadLetters() {
         return deadLetters.getAll();
     }
 
-    // Répondre à un ASK et débloquer l'agent
+    // Recherche paginée (du plus récent au plus ancien) via les index de l'historique
+    public MessageLog.QueryPage queryHistory(MessageQuery query, long before, int limit) {
+        return history.query(query, before, limit);
+    }
+
+    public MessageLog.QueryPage queryDeadLetters(MessageQuery query, long before, int limit) {
+        return deadLetters.query(query, before, limit);
+    }
+
+    // Dead letters reçus depuis le démarrage
+    public long deadLetterCount() {
+        return deadLetters.total();
+    }
+
+    // ASK reçus en attente de réponse, tous agents confondus
+    public int pendingAskCount() {
+        return pendingAskTotal.get();
+    }
+
+    // ASK reçus qui ont expiré sans réponse depuis le démarrage
+    public long expiredAskCount() {
+        return expiredAsks.sum();
+    }
+
+    // Répondre au plus ancien ASK en attente de l'agent
     public void replyToAsk(String agentId, String responseContent) {
+        replyToAsk(agentId, null, responseContent);
+    }
+
+    // Répondre à un ASK précis (null = le plus ancien) et libérer sa place chez l'agent
+    public void replyToAsk(String agentId, String correlationId, String responseContent) {
         AgentAddress address = AgentAddress.parse(agentId);
         String localAgentId = address.agentId();
-        
-        AskMessage ask = pendingReceivedAsks.get(localAgentId);
+
+        AskMessage ask = removePendingAsk(localAgentId, correlationId, null);
         if (ask != null) {
             ask.complete(responseContent);
-            pendingReceivedAsks.remove(localAgentId);
-            System.out.println("[REPLY] " + localAgentId + " a répondu à l'ASK : " + responseContent);
+            System.out.println("[REPLY] " + localAgentId + " a répondu à l'ASK " + ask.getCorrelationId() + " : " + responseContent);
 
             // Supprimer l'ASK de la mailbox pour libérer l'inbox
             Mailbox mailbox = mailboxes.get(localAgentId);
@@ -186,19 +351,93 @@ public class MessageService {
                 mailbox.remove(ask);
             }
         } else {
-            System.out.println("[WARNING] Tentative de réponse à un ASK inexistant pour : " + localAgentId);
+            System.out.println("[WARNING] Tentative de réponse à un ASK inexistant pour : " + localAgentId
+                    + (correlationId != null ? " (" + correlationId + ")" : ""));
         }
     }
-    
-    // Nouvelle méthode pour vérifier si un acteur est bloqué
+
+    // L'agent n'a pas répondu à temps : l'ASK échoue en timeout et sa place est libérée
+    private void expireAsk(String localAgentId, AskMessage ask) {
+        if (removePendingAsk(localAgentId, ask.getCorrelationId(), ask) == null) {
+            return;
+        }
+        Mailbox mailbox = mailboxes.get(localAgentId);
+        if (mailbox != null) {
+            mailbox.remove(ask);
+        }
+        expiredAsks.increment();
+        System.err.println("[ASK EXPIRED] " + localAgentId + " n'a pas répondu dans les " + askTimeout.toMillis() + " ms");
+        ask.getFutureResponse().completeExceptionally(
+                new TimeoutException("Aucune réponse de " + localAgentId + " dans les " + askTimeout.toMillis() + " ms"));
+    }
+
+    // Réserve la place de l'ASK chez l'agent, sauf s'il est à la limite ou si l'identifiant est déjà pris
+    private boolean reserveAsk(String localAgentId, AskMessage ask) {
+        if (ask.getCorrelationId() == null) {
+            ask.setCorrelationId(UUID.randomUUID().toString());
+        }
+        boolean[] reserved = new boolean[1];
+        pendingReceivedAsks.compute(localAgentId, (id, asks) -> {
+            if (asks == null) {
+                asks = new LinkedHashMap<>();
+            }
+            if (asks.size() < maxAsksInFlight && !asks.containsKey(ask.getCorrelationId())) {
+                asks.put(ask.getCorrelationId(), ask);
+                reserved[0] = true;
+            }
+            return asks.isEmpty() ? null : asks;
+        });
+        if (reserved[0]) {
+            pendingAskTotal.incrementAndGet();
+        }
+        return reserved[0];
+    }
+
+    // Retire un ASK en attente (le plus ancien si correlationId est null, seulement s'il s'agit de expected si fourni)
+    private AskMessage removePendingAsk(String localAgentId, String correlationId, AskMessage expected) {
+        AskMessage[] removed = new AskMessage[1];
+        pendingReceivedAsks.computeIfPresent(localAgentId, (id, asks) -> {
+            if (correlationId == null) {
+                Iterator<AskMessage> oldest = asks.values().iterator();
+                removed[0] = oldest.next();
+                oldest.remove();
+            } else if (expected == null || asks.get(correlationId) == expected) {
+                removed[0] = asks.remove(correlationId);
+            }
+            return asks.isEmpty() ? null : asks;
+        });
+        if (removed[0] != null) {
+            pendingAskTotal.decrementAndGet();
+        }
+        return removed[0];
+    }
+
+    // Vrai si l'agent a atteint sa limite d'ASK en attente et refuse les autres messages
     public boolean isBlocked(String agentId) {
         AgentAddress address = AgentAddress.parse(agentId);
-        return pendingReceivedAsks.containsKey(address.agentId());
+        boolean[] blocked = {false};
+        // la taille est lue dans le compute, comme toute écriture de la map de l'agent
+        pendingReceivedAsks.computeIfPresent(address.agentId(), (id, asks) -> {
+            blocked[0] = asks.size() >= maxAsksInFlight;
+            return asks;
+        });
+        return blocked[0];
     }
-    
-    // Nouvelle méthode pour obtenir l'ASK en attente
+
+    // Plus ancien ASK en attente de l'agent
     public AskMessage getPendingAsk(String agentId) {
+        List<AskMessage> asks = getPendingAsks(agentId);
+        return asks.isEmpty() ? null : asks.get(0);
+    }
+
+    // ASK en attente de l'agent, du plus ancien au plus récent
+    public List<AskMessage> getPendingAsks(String agentId) {
         AgentAddress address = AgentAddress.parse(agentId);
-        return pendingReceivedAsks.get(address.agentId());
+        List<AskMessage> copy = new ArrayList<>();
+        pendingReceivedAsks.computeIfPresent(address.agentId(), (id, asks) -> {
+            copy.addAll(asks.values());
+            return asks;
+        });
+        return copy;
     }
 }
@@ -0,0 +1,85 @@
+package com.example.akkajr.messaging;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+
+/**
+ * ASK HTTP en attente de réponse : aucun thread n'est bloqué pendant l'attente, seule une
+ * place est réservée ici. Au-delà de maxPending, les nouveaux ASK sont refusés (503) au lieu
+ * d'accumuler des requêtes ; chaque issue est comptée dans Micrometer.
+ */
+@Component
+public class PendingAsks {
+
+    public static final String OK = "ok";
+    public static final String TIMEOUT = "timeout";
+    public static final String ERROR = "error";
+    public static final String REJECTED = "rejected";
+
+    private final int maxPending;
+    private final Duration timeout;
+    private final Semaphore permits;
+    private final MeterRegistry registry;
+
+    public PendingAsks(@Value("${app.messages.ask.max-pending:10000}") int maxPending,
+                       @Value("${app.messages.ask.timeout:30s}") Duration timeout,
+                       ObjectProvider<MeterRegistry> registryProvider) {
+        if (maxPending <= 0) {
+            throw new IllegalArgumentException("app.messages.ask.max-pending doit être positif");
+        }
+        this.maxPending = maxPending;
+        this.timeout = timeout;
+        this.permits = new Semaphore(maxPending);
+        this.registry = registryProvider.getIfAvailable();
+    }
+
+    // Jauge enregistrée une fois le bean construit, pour ne pas publier this depuis le constructeur
+    @PostConstruct
+    public void registerGauge() {
+        if (registry != null) {
+            Gauge.builder("messages.ask.pending", this, PendingAsks::pending)
+                    .description("ASK HTTP en attente de réponse")
+                    .register(registry);
+        }
+    }
+
+    // Réserve une place, ou compte un refus si la limite est atteinte
+    public boolean tryAcquire() {
+        if (permits.tryAcquire()) {
+            return true;
+        }
+        record(REJECTED);
+        return false;
+    }
+
+    // Libère la place d'un ASK terminé, avec son issue (ok, timeout, error)
+    public void release(String outcome) {
+        permits.release();
+        record(outcome);
+    }
+
+    public int pending() {
+        return maxPending - permits.availablePermits();
+    }
+
+    public int maxPending() {
+        return maxPending;
+    }
+
+    public Duration timeout() {
+        return timeout;
+    }
+
+    private void record(String outcome) {
+        if (registry != null) {
+            registry.counter("messages.ask", "outcome", outcome).increment();
+        }
+    }
+}
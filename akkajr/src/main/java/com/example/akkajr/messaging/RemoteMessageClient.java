@@ -1,31 +1,71 @@
 package com.example.akkajr.messaging;
 
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 
 import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.example.akkajr.core.actors.TraceContext;
 
 @Service
 public class RemoteMessageClient {
     
     private final WebClient webClient;
     private static final Duration TIMEOUT = Duration.ofSeconds(30);
+    public static final String TRACE_ID_HEADER = "X-Trace-Id";
+    public static final String PARENT_SPAN_HEADER = "X-Parent-Span-Id";
+
+    // Regroupement des TELL par service distant (linger 0 = un POST par TELL)
+    @Value("${app.remote.tell.linger:5ms}")
+    private Duration tellLinger = Duration.ofMillis(5);
+
+    @Value("${app.remote.tell.max-batch:500}")
+    private int tellMaxBatch = 500;
+
+    private volatile TellBatcher tellBatcher;
+
+    // Services qui ont répondu 404 sur /tell/batch (version précédente) : un POST par TELL pour eux
+    private final Set<String> batchUnsupported = ConcurrentHashMap.newKeySet();
     
     public RemoteMessageClient() {
         this.webClient = WebClient.builder()
             .build();
     }
+
+    // Regroupement réglé à la main, hors Spring (benchmarks)
+    public RemoteMessageClient(Duration tellLinger, int tellMaxBatch) {
+        this();
+        this.tellLinger = tellLinger;
+        this.tellMaxBatch = tellMaxBatch;
+    }
     
     /**
      * Envoie un TELL vers un autre microservice
      * CORRECTION: Amélioration de la gestion d'erreur avec timeout
      */
     public void sendTell(@NonNull Message msg, @NonNull String baseUrl) {
+        propagateTrace(msg);
+        if (!tellLinger.isZero() && !batchUnsupported.contains(baseUrl)) {
+            batcher().add(baseUrl, msg);
+            return;
+        }
+        postTell(msg, baseUrl);
+    }
+
+    private void postTell(Message msg, String baseUrl) {
         System.out.println("[REMOTE TELL] Message envoyé à " + baseUrl);
         webClient.post()
                 .uri(baseUrl + "/api/messages/tell")
+                .headers(headers -> traceHeaders(msg, headers))
                 .bodyValue(msg)
                 .retrieve()
                 .bodyToMono(String.class)
@@ -40,6 +80,54 @@ public class RemoteMessageClient {
                 );
     }
     
+    /**
+     * Envoie un lot de TELL vers un autre microservice en un seul POST ; un service qui ne
+     * connaît pas /tell/batch (404) reçoit le lot message par message, et les suivants aussi.
+     */
+    void sendTellBatch(String baseUrl, List<Message> messages) {
+        System.out.println("[REMOTE TELL] Lot de " + messages.size() + " messages envoyé à " + baseUrl);
+        webClient.post()
+                .uri(baseUrl + "/api/messages/tell/batch")
+                .bodyValue(messages)
+                .retrieve()
+                .bodyToMono(String.class)
+                .timeout(TIMEOUT)
+                .subscribe(
+                    result -> { },
+                    error -> {
+                        if (error instanceof WebClientResponseException.NotFound) {
+                            System.out.println("[REMOTE TELL] " + baseUrl + " ne reçoit pas les lots, envoi message par message");
+                            batchUnsupported.add(baseUrl);
+                            messages.forEach(msg -> postTell(msg, baseUrl));
+                            return;
+                        }
+                        System.err.println("[REMOTE TELL ERROR] Lot de " + messages.size()
+                                + " messages vers " + baseUrl + " en échec: " + error.getMessage());
+                    }
+                );
+    }
+
+    @PreDestroy
+    public void close() {
+        if (tellBatcher != null) {
+            tellBatcher.close();
+        }
+    }
+
+    private TellBatcher batcher() {
+        TellBatcher current = tellBatcher;
+        if (current == null) {
+            synchronized (this) {
+                current = tellBatcher;
+                if (current == null) {
+                    current = new TellBatcher(tellMaxBatch, tellLinger, this::sendTellBatch);
+                    tellBatcher = current;
+                }
+            }
+        }
+        return current;
+    }
+
     /**
      * Envoie un ASK vers un autre microservice et retourne la réponse
      * CORRECTION: Ajout d'un timeout et meilleure gestion d'erreur
@@ -47,8 +135,10 @@ public class RemoteMessageClient {
     public CompletableFuture<String> sendAsk(@NonNull AskMessage msg, @NonNull String baseUrl) {
         System.out.println("[REMOTE ASK] ASK envoyé à " + baseUrl);
         // Note: originService sera défini par le MessageController du service distant
+        propagateTrace(msg);
         return webClient.post()
                 .uri(baseUrl + "/api/messages/ask")
+                .headers(headers -> traceHeaders(msg, headers))
                 .bodyValue(msg)
                 .retrieve()
                 .bodyToMono(String.class)
@@ -56,4 +146,25 @@ public class RemoteMessageClient {
                 .doOnError(error -> System.err.println("[REMOTE ASK ERROR] Erreur lors de l'envoi vers " + baseUrl + ": " + error.getMessage()))
                 .toFuture();
     }
+
+    /**
+     * Rattache le message à la trace courante : celle du message déjà tracé, sinon celle du
+     * message en cours de traitement par l'acteur appelant, sinon une nouvelle trace.
+     */
+    static void propagateTrace(Message msg) {
+        if (msg.getTraceId() == null) {
+            String current = TraceContext.currentTraceId();
+            msg.setTraceId(current != null ? current : UUID.randomUUID().toString());
+        }
+        if (msg.getParentSpanId() == null) {
+            msg.setParentSpanId(TraceContext.currentSpanId());
+        }
+    }
+
+    private void traceHeaders(Message msg, org.springframework.http.HttpHeaders headers) {
+        headers.set(TRACE_ID_HEADER, msg.getTraceId());
+        if (msg.getParentSpanId() != null) {
+            headers.set(PARENT_SPAN_HEADER, msg.getParentSpanId());
+        }
+    }
 }
@@ -0,0 +1,175 @@
+package com.example.akkajr.messaging;
+
+import com.example.akkajr.messaging.transport.FrameHandler;
+import com.example.akkajr.messaging.transport.Frames;
+import com.example.akkajr.messaging.transport.TcpConnection;
+import com.example.akkajr.messaging.transport.TcpEventLoop;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Envoi des messages vers les services déclarés en tcp://hôte:port : une connexion longue
+ * durée par service, partagée par tous les TELL et ASK, avec des trames binaires au lieu d'une
+ * requête HTTP/JSON par message. Les réponses aux ASK sont associées par identifiant, et une
+ * connexion perdue est rouverte au message suivant.
+ *
+ * Un TELL refusé (connexion fermée ou file pleine) ou resté en file à la fermeture de la
+ * connexion est rendu au gestionnaire de TELL non livrés, les dead letters du MessageService.
+ */
+@Service
+public class TcpMessageClient {
+
+    public static final String SCHEME = "tcp://";
+
+    @Value("${app.remote.tcp.heartbeat-interval:5s}")
+    private Duration heartbeatInterval = Duration.ofSeconds(5);
+
+    @Value("${app.messages.ask.timeout:30s}")
+    private Duration askTimeout = Duration.ofSeconds(30);
+
+    // Octets en attente d'envoi au plus par connexion, au-delà les messages sont refusés
+    @Value("${app.remote.tcp.max-queued-bytes:33554432}")
+    private long maxQueuedBytes = TcpConnection.DEFAULT_MAX_QUEUED_BYTES;
+
+    private final Map<String, TcpConnection> connections = new ConcurrentHashMap<>();
+    private final Map<Long, PendingReply> pendingReplies = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong();
+    private final FrameHandler handler = new ReplyHandler();
+    private volatile Consumer<Message> undeliveredTells =
+            msg -> System.err.println("[TCP TELL ERROR] TELL vers " + msg.getReceiverId() + " perdu");
+    private volatile TcpEventLoop loop;
+
+    public static boolean isTcp(String url) {
+        return url != null && url.startsWith(SCHEME);
+    }
+
+    // Reçoit les TELL qui n'ont pas pu partir, sur le thread appelant ou celui de la boucle
+    public void onUndeliveredTell(@NonNull Consumer<Message> handler) {
+        this.undeliveredTells = handler;
+    }
+
+    public void sendTell(@NonNull Message msg, @NonNull String url) {
+        RemoteMessageClient.propagateTrace(msg);
+        if (!connection(url).send(Frames.message(nextId.incrementAndGet(), msg))) {
+            System.err.println("[TCP TELL ERROR] Connexion vers " + url + " fermée ou saturée, TELL non livré");
+            undeliveredTells.accept(msg);
+        }
+    }
+
+    public CompletableFuture<String> sendAsk(@NonNull AskMessage msg, @NonNull String url) {
+        RemoteMessageClient.propagateTrace(msg);
+        long id = nextId.incrementAndGet();
+        TcpConnection connection = connection(url);
+        CompletableFuture<String> reply = new CompletableFuture<>();
+        pendingReplies.put(id, new PendingReply(connection, reply));
+        reply.orTimeout(askTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((response, error) -> pendingReplies.remove(id));
+        if (!connection.send(Frames.message(id, msg))) {
+            reply.completeExceptionally(new IOException("Connexion vers " + url + " fermée ou saturée"));
+        }
+        return reply;
+    }
+
+    @PreDestroy
+    public void close() {
+        if (loop != null) {
+            loop.close();
+        }
+    }
+
+    // Connexion ouverte vers url, rouverte si la précédente a été fermée
+    private TcpConnection connection(String url) {
+        TcpConnection connection = connections.get(url);
+        if (connection != null && connection.isOpen()) {
+            return connection;
+        }
+        return connections.compute(url, (key, current) -> current != null && current.isOpen()
+                ? current
+                : loop().connect(address(url), handler));
+    }
+
+    private TcpEventLoop loop() {
+        TcpEventLoop current = loop;
+        if (current == null) {
+            synchronized (this) {
+                current = loop;
+                if (current == null) {
+                    current = new TcpEventLoop("tcp-client", heartbeatInterval, maxQueuedBytes);
+                    loop = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private static InetSocketAddress address(String url) {
+        URI uri = URI.create(url);
+        if (uri.getHost() == null || uri.getPort() < 0) {
+            throw new IllegalArgumentException("Adresse TCP invalide (tcp://hôte:port attendu): " + url);
+        }
+        return new InetSocketAddress(uri.getHost(), uri.getPort());
+    }
+
+    private record PendingReply(TcpConnection connection, CompletableFuture<String> future) {
+    }
+
+    private final class ReplyHandler implements FrameHandler {
+
+        @Override
+        public void onFrame(TcpConnection connection, byte type, long id, ByteBuffer payload) {
+            PendingReply pending = pendingReplies.remove(id);
+            if (pending == null) {
+                // ASK déjà expiré de notre côté
+                return;
+            }
+            String text = Frames.readString(payload);
+            if (type == Frames.REPLY) {
+                pending.future().complete(text);
+            } else {
+                pending.future().completeExceptionally(new IllegalStateException("ASK distant en échec: " + text));
+            }
+        }
+
+        @Override
+        public void onUnsent(TcpConnection connection, List<ByteBuffer> frames) {
+            // les ASK en attente échouent dans onClose ; seuls les TELL sont rendus
+            for (ByteBuffer frame : frames) {
+                if (Frames.type(frame) == Frames.TELL) {
+                    undeliveredTells.accept(Frames.readMessage(frame));
+                }
+            }
+        }
+
+        @Override
+        public void onClose(TcpConnection connection, Throwable cause) {
+            connections.values().remove(connection);
+            IOException error = new IOException("Connexion " + connection + " fermée"
+                    + (cause != null ? ": " + cause.getMessage() : ""), cause);
+            pendingReplies.values().removeIf(pending -> {
+                if (pending.connection() != connection) {
+                    return false;
+                }
+                pending.future().completeExceptionally(error);
+                return true;
+            });
+            if (cause != null) {
+                System.err.println("[TCP] " + error.getMessage());
+            }
+        }
+    }
+}
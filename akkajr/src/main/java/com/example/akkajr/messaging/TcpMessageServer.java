@@ -0,0 +1,174 @@
+package com.example.akkajr.messaging;
+
+import com.example.akkajr.messaging.transport.FrameHandler;
+import com.example.akkajr.messaging.transport.Frames;
+import com.example.akkajr.messaging.transport.TcpConnection;
+import com.example.akkajr.messaging.transport.TcpEventLoop;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Point d'entrée TCP des messages distants, pendant de MessageController pour les services
+ * déclarés en tcp:// dans app.remote.services. Les trames d'une connexion sont traitées dans
+ * leur ordre d'arrivée ; la réponse d'un ASK repart sur la même connexion avec son identifiant.
+ *
+ * La boucle d'événements ne fait que décoder : chaque message est remis à un pool de workers,
+ * dans une file par connexion qui garde l'ordre. Un send() lent (journal, verrous) ne bloque
+ * donc ni les autres connexions ni les heartbeats.
+ */
+@Component
+public class TcpMessageServer {
+
+    private final MessageService messageService;
+
+    @Value("${app.service.name:akkajr}")
+    private String currentServiceName;
+
+    // Port d'écoute (0 = port libre choisi par le système, négatif = désactivé)
+    @Value("${app.remote.tcp.port:-1}")
+    private int port = -1;
+
+    @Value("${app.remote.tcp.heartbeat-interval:5s}")
+    private Duration heartbeatInterval = Duration.ofSeconds(5);
+
+    // Threads qui livrent les messages reçus, toutes connexions confondues
+    @Value("${app.remote.tcp.workers:4}")
+    private int workerCount = 4;
+
+    // trames traitées au plus par passage d'une connexion, avant de laisser la place aux autres
+    private static final int MAX_FRAMES_PER_DRAIN = 64;
+
+    private TcpEventLoop loop;
+    private ExecutorService workers;
+    private int boundPort = -1;
+
+    public TcpMessageServer(MessageService messageService) {
+        this.messageService = messageService;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (port < 0) {
+            return;
+        }
+        workers = Executors.newFixedThreadPool(workerCount, r -> {
+            Thread thread = new Thread(r, "tcp-server-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        loop = new TcpEventLoop("tcp-server", heartbeatInterval);
+        boundPort = loop.listen(new InetSocketAddress(port), Handler::new);
+        System.out.println("[TCP] Messages distants acceptés sur le port " + boundPort);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (loop != null) {
+            loop.close();
+        }
+        if (workers != null) {
+            workers.shutdown();
+        }
+    }
+
+    // Port réellement ouvert, -1 si le serveur est désactivé
+    public int port() {
+        return boundPort;
+    }
+
+    // Même nettoyage que MessageController : on retire le préfixe du service actuel
+    private void cleanReceiverId(Message msg) {
+        String receiverId = msg.getReceiverId();
+        if (receiverId != null && receiverId.startsWith(currentServiceName + ":")) {
+            msg.setOriginService(currentServiceName);
+            msg.setReceiverId(receiverId.substring(currentServiceName.length() + 1));
+        }
+    }
+
+    private final class Handler implements FrameHandler {
+        // messages de cette connexion en attente de livraison, dans l'ordre d'arrivée
+        private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        @Override
+        public void onFrame(TcpConnection connection, byte type, long id, ByteBuffer payload) {
+            if (type != Frames.TELL && type != Frames.ASK) {
+                System.err.println("[TCP] Trame inattendue de type " + type + " sur " + connection);
+                return;
+            }
+            // décodé ici : la charge utile n'est valable que pendant l'appel
+            Message msg = Frames.readMessage(type, payload);
+            pending.add(() -> deliver(connection, id, msg));
+            schedule();
+        }
+
+        private void schedule() {
+            if (!draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                workers.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // serveur arrêté : les messages restants sont abandonnés avec la connexion
+                draining.set(false);
+            }
+        }
+
+        private void drain() {
+            try {
+                Runnable task;
+                for (int i = 0; i < MAX_FRAMES_PER_DRAIN && (task = pending.poll()) != null; i++) {
+                    task.run();
+                }
+            } finally {
+                draining.set(false);
+                if (!pending.isEmpty()) {
+                    schedule();
+                }
+            }
+        }
+
+        private void deliver(TcpConnection connection, long id, Message msg) {
+            cleanReceiverId(msg);
+            try {
+                messageService.send(msg);
+            } catch (RuntimeException e) {
+                if (msg instanceof AskMessage ask) {
+                    ask.getFutureResponse().completeExceptionally(e);
+                } else {
+                    System.err.println("[TCP TELL ERROR] " + e.getMessage());
+                }
+            }
+            if (msg instanceof AskMessage ask) {
+                ask.getFutureResponse().whenComplete((response, error) -> {
+                    if (error == null) {
+                        connection.send(Frames.text(Frames.REPLY, id, response));
+                    } else {
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                        connection.send(Frames.text(Frames.FAILURE, id, cause.getClass().getSimpleName() + ": " + cause.getMessage()));
+                    }
+                });
+            }
+        }
+
+        @Override
+        public void onClose(TcpConnection connection, Throwable cause) {
+            if (cause != null) {
+                System.out.println("[TCP] Connexion fermée " + connection + ": " + cause.getMessage());
+            }
+        }
+    }
+}
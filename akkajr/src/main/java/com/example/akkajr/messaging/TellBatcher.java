@@ -0,0 +1,111 @@
+package com.example.akkajr.messaging;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Regroupe les TELL sortants par destination : un lot part dès qu'il atteint maxBatch messages,
+ * sinon linger après son premier message. Les messages d'un lot gardent leur ordre d'envoi.
+ * Après close(), chaque message part seul, sans attente.
+ */
+final class TellBatcher implements AutoCloseable {
+
+    private final int maxBatch;
+    private final long lingerNanos;
+    private final BiConsumer<String, List<Message>> sender;
+    private final Map<String, Batch> batches = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService lingerTimer;
+    private volatile boolean closed;
+
+    /**
+     * sender(destination, lot) est appelé hors verrou, depuis l'appelant (lot plein) ou le timer.
+     */
+    TellBatcher(int maxBatch, Duration linger, BiConsumer<String, List<Message>> sender) {
+        if (maxBatch <= 0) {
+            throw new IllegalArgumentException("La taille de lot doit être positive");
+        }
+        this.maxBatch = maxBatch;
+        this.lingerNanos = linger.toNanos();
+        this.sender = sender;
+        this.lingerTimer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "tell-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    void add(String destination, Message msg) {
+        if (closed) {
+            sender.accept(destination, List.of(msg));
+            return;
+        }
+        Batch batch = batches.computeIfAbsent(destination, d -> new Batch());
+        List<Message> full = null;
+        synchronized (batch) {
+            batch.messages.add(msg);
+            if (batch.messages.size() >= maxBatch) {
+                full = batch.take();
+            } else if (!batch.lingering) {
+                try {
+                    lingerTimer.schedule(() -> flush(destination), lingerNanos, TimeUnit.NANOSECONDS);
+                    batch.lingering = true;
+                } catch (RejectedExecutionException e) {
+                    // fermé pendant l'ajout : plus de timer, le lot part tout de suite
+                    full = batch.take();
+                }
+            }
+        }
+        if (full != null) {
+            sender.accept(destination, full);
+        }
+    }
+
+    // Envoie tout de suite le lot en cours de chaque destination
+    void flushAll() {
+        for (String destination : batches.keySet()) {
+            flush(destination);
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        flushAll();
+        lingerTimer.shutdownNow();
+        // lots planifiés par un add() concurrent, dont le flush différé vient d'être annulé
+        flushAll();
+    }
+
+    private void flush(String destination) {
+        Batch batch = batches.get(destination);
+        List<Message> pending;
+        synchronized (batch) {
+            batch.lingering = false;
+            if (batch.messages.isEmpty()) {
+                return;
+            }
+            pending = batch.take();
+        }
+        sender.accept(destination, pending);
+    }
+
+    private final class Batch {
+        private List<Message> messages = new ArrayList<>();
+        // un flush différé est déjà planifié pour ce lot
+        private boolean lingering;
+
+        private List<Message> take() {
+            List<Message> taken = messages;
+            messages = new ArrayList<>(Math.min(taken.size(), maxBatch));
+            return taken;
+        }
+    }
+}
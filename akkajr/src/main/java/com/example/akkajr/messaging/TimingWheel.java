@@ -0,0 +1,178 @@
+package com.example.akkajr.messaging;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Roue temporelle (hashed timing wheel) pour des milliers d'échéances : une échéance est
+ * rangée dans la case de son tick, planifier et annuler coûtent O(1) quel que soit le nombre
+ * d'échéances, et un seul thread avance la roue d'une case par tick. Les échéances plus
+ * lointaines qu'un tour restent dans leur case jusqu'au bon tour.
+ *
+ * Une échéance annulée est retirée tout de suite de sa case : la mémoire suit le nombre
+ * d'échéances actives. Le thread ne démarre qu'à la première échéance et attend sans tourner
+ * quand la roue est vide. Précision : un tick.
+ */
+final class TimingWheel implements AutoCloseable {
+
+    private final String name;
+    private final long tickNanos;
+    private final Timeout[] slots;
+    private final int mask;
+    private final long startNanos = System.nanoTime();
+    private long currentTick;
+    private int size;
+    private Thread worker;
+    private boolean closed;
+
+    TimingWheel(String name, Duration tick, int wheelSize) {
+        if (tick.isZero() || tick.isNegative() || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Tick positif et nombre de cases en puissance de 2 requis");
+        }
+        this.name = name;
+        this.tickNanos = tick.toNanos();
+        this.slots = new Timeout[wheelSize];
+        this.mask = wheelSize - 1;
+        for (int i = 0; i < wheelSize; i++) {
+            // sentinelle de la liste doublement chaînée de chaque case
+            slots[i] = new Timeout(null, null, 0);
+            slots[i].next = slots[i];
+            slots[i].previous = slots[i];
+        }
+    }
+
+    /**
+     * Exécute task après delay (au tick près), sur le thread de la roue : la tâche doit être courte.
+     */
+    synchronized Timeout schedule(Runnable task, Duration delay) {
+        if (closed) {
+            throw new IllegalStateException("Roue " + name + " arrêtée");
+        }
+        long deadlineTick = (System.nanoTime() - startNanos + delay.toNanos() + tickNanos - 1) / tickNanos;
+        Timeout timeout = new Timeout(this, task, Math.max(deadlineTick, currentTick + 1));
+        Timeout head = slots[(int) (timeout.deadlineTick & mask)];
+        timeout.previous = head.previous;
+        timeout.next = head;
+        head.previous.next = timeout;
+        head.previous = timeout;
+        if (size++ == 0) {
+            notifyAll();
+        }
+        if (worker == null) {
+            worker = new Thread(this::run, name);
+            worker.setDaemon(true);
+            worker.start();
+        }
+        return timeout;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    @Override
+    public void close() {
+        Thread thread;
+        synchronized (this) {
+            closed = true;
+            thread = worker;
+            notifyAll();
+        }
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private void run() {
+        List<Timeout> expired = new ArrayList<>();
+        for (;;) {
+            long untilNextTick;
+            synchronized (this) {
+                while (size == 0 && !closed) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (closed) {
+                    return;
+                }
+                long elapsed = System.nanoTime() - startNanos;
+                long due = elapsed / tickNanos;
+                // rattrape les ticks manqués (GC, machine chargée) sans sauter de case
+                while (currentTick < due) {
+                    if (size == 0) {
+                        currentTick = due;
+                        break;
+                    }
+                    currentTick++;
+                    collect(slots[(int) (currentTick & mask)], expired);
+                }
+                untilNextTick = (currentTick + 1) * tickNanos - elapsed;
+            }
+            for (Timeout timeout : expired) {
+                try {
+                    timeout.task.run();
+                } catch (RuntimeException e) {
+                    System.err.println("[" + name + "] Échéance en erreur: " + e.getMessage());
+                }
+            }
+            if (expired.isEmpty()) {
+                LockSupport.parkNanos(this, untilNextTick);
+            }
+            expired.clear();
+        }
+    }
+
+    // Retire de la case les échéances arrivées à ce tick ; celles des tours suivants restent
+    private void collect(Timeout head, List<Timeout> expired) {
+        Timeout timeout = head.next;
+        while (timeout != head) {
+            Timeout next = timeout.next;
+            if (timeout.deadlineTick <= currentTick) {
+                timeout.unlink();
+                size--;
+                expired.add(timeout);
+            }
+            timeout = next;
+        }
+    }
+
+    /**
+     * Une échéance planifiée ; cancel() la retire de la roue si elle n'a pas encore expiré.
+     */
+    static final class Timeout {
+        private final TimingWheel wheel;
+        private final Runnable task;
+        private final long deadlineTick;
+        private Timeout previous;
+        private Timeout next;
+
+        private Timeout(TimingWheel wheel, Runnable task, long deadlineTick) {
+            this.wheel = wheel;
+            this.task = task;
+            this.deadlineTick = deadlineTick;
+        }
+
+        boolean cancel() {
+            synchronized (wheel) {
+                if (next == null) {
+                    return false;
+                }
+                unlink();
+                wheel.size--;
+                return true;
+            }
+        }
+
+        private void unlink() {
+            previous.next = next;
+            next.previous = previous;
+            previous = null;
+            next = null;
+        }
+    }
+}
@@ -2,25 +2,38 @@ package com.example.akkajr.messaging.mailbox;
 
 import com.example.akkajr.messaging.Message;
 import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
 
+/**
+ * Messages non livrés, conservés dans un MessageLog : bornés en taille et en âge,
+ * et interrogeables par les mêmes index que l'historique.
+ */
 public class DeadLetterMailbox {
 
-    private final Queue<Message> deadLetters = new ConcurrentLinkedQueue<>();
+    private final MessageLog deadLetters = new MessageLog();
 
     public void push(Message m) {
-        deadLetters.offer(m);
+        deadLetters.log(m);
     }
 
     public Queue<Message> getAll() {
-        return new ConcurrentLinkedQueue<>(deadLetters);
+        return deadLetters.getAll();
+    }
+
+    public MessageLog.QueryPage query(MessageQuery query, long before, int limit) {
+        return deadLetters.query(query, before, limit);
     }
 
     public boolean isEmpty() {
-        return deadLetters.isEmpty();
+        return size() == 0;
     }
 
+    // Dead letters encore conservés
     public int size() {
-        return deadLetters.size();
+        return deadLetters.stats().size();
+    }
+
+    // Dead letters reçus depuis le démarrage
+    public long total() {
+        return deadLetters.stats().totalLogged();
     }
 }
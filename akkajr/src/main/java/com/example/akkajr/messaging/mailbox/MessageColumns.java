@@ -0,0 +1,325 @@
+package com.example.akkajr.messaging.mailbox;
+
+import com.example.akkajr.messaging.AskMessage;
+import com.example.akkajr.messaging.Message;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Stockage en colonnes des messages d'un MessageLog, une case par emplacement du tampon.
+ *
+ * Les identifiants (expéditeur, destinataire, service d'origine) passent par un dictionnaire :
+ * chaque chaîne distincte n'est gardée qu'une fois et les colonnes ne contiennent que des int.
+ * Timestamps et type sont dans des tableaux primitifs ; contenu, traceId, parentSpanId et
+ * correlationId (ASK) sont
+ * copiés dans une arène d'octets circulaire, en UTF-8 ou sur 16 octets pour les identifiants
+ * au format UUID. Un message conservé ne coûte donc qu'une quarantaine d'octets plus son
+ * texte, sans en-têtes d'objets.
+ *
+ * Les messages sont libérés dans l'ordre d'écriture (FIFO), ce qui permet à l'arène de
+ * fonctionner comme un tampon circulaire. Les Message renvoyés sont des copies.
+ */
+final class MessageColumns {
+
+    static final int NONE = -1;
+    // longueur d'un identifiant stocké sous forme d'UUID binaire (16 octets)
+    private static final int UUID_FORM = -2;
+    private static final int UUID_BYTES = 16;
+    private static final byte ASK_FLAG = 1;
+    private static final int INITIAL_ARENA_BYTES = 64 * 1024;
+
+    private final Dictionary ids = new Dictionary();
+    private final int[] senders;
+    private final int[] receivers;
+    private final int[] origins;
+    private final long[] timestamps;
+    private final byte[] flags;
+    private final long[] textStarts;
+    private final int[] contentLengths;
+    private final int[] traceLengths;
+    private final int[] parentLengths;
+    private final int[] correlationLengths;
+
+    private final int maxArenaBytes;
+    private byte[] arena;
+    // positions absolues : l'octet p est rangé en arena[p % arena.length]
+    private long arenaStart;
+    private long arenaEnd;
+
+    MessageColumns(int capacity, int maxArenaBytes) {
+        this.senders = new int[capacity];
+        this.receivers = new int[capacity];
+        this.origins = new int[capacity];
+        this.timestamps = new long[capacity];
+        this.flags = new byte[capacity];
+        this.textStarts = new long[capacity];
+        this.contentLengths = new int[capacity];
+        this.traceLengths = new int[capacity];
+        this.parentLengths = new int[capacity];
+        this.correlationLengths = new int[capacity];
+        this.maxArenaBytes = maxArenaBytes;
+        this.arena = new byte[Math.min(INITIAL_ARENA_BYTES, maxArenaBytes)];
+    }
+
+    /**
+     * Texte à copier dans l'arène pour ce message : contenu, traceId, parentSpanId, correlationId.
+     */
+    static Text text(Message m) {
+        byte[] trace = uuid(m.getTraceId());
+        byte[] parent = uuid(m.getParentSpanId());
+        String correlationId = m instanceof AskMessage ask ? ask.getCorrelationId() : null;
+        byte[] correlation = uuid(correlationId);
+        return new Text(utf8(m.getContent()),
+                trace != null ? trace : utf8(m.getTraceId()), trace != null,
+                parent != null ? parent : utf8(m.getParentSpanId()), parent != null,
+                correlation != null ? correlation : utf8(correlationId), correlation != null);
+    }
+
+    /**
+     * Vrai si needed octets tiennent dans l'arène sans dépasser sa taille maximale, en
+     * l'agrandissant au besoin. Avec force (plus aucun message conservé), l'arène dépasse ce
+     * maximum juste assez pour un message trop gros, et revient au maximum quand il est libéré.
+     */
+    boolean fits(int needed, boolean force) {
+        long used = arenaEnd - arenaStart;
+        long wanted = used + needed;
+        if (!force && wanted > maxArenaBytes) {
+            return false;
+        }
+        if (arena.length >= wanted) {
+            return true;
+        }
+        if (wanted > Integer.MAX_VALUE) {
+            return false;
+        }
+        long grown = arena.length;
+        while (grown < wanted) {
+            grown *= 2;
+        }
+        resize((int) (wanted > maxArenaBytes ? wanted : Math.min(grown, maxArenaBytes)));
+        return true;
+    }
+
+    void write(int slot, Message m, Text text) {
+        senders[slot] = ids.intern(m.getSenderId());
+        receivers[slot] = ids.intern(m.getReceiverId());
+        origins[slot] = ids.intern(m.getOriginService());
+        timestamps[slot] = m.getTimestamp();
+        flags[slot] = m instanceof AskMessage ? ASK_FLAG : 0;
+        textStarts[slot] = arenaEnd;
+        contentLengths[slot] = append(text.content(), false);
+        traceLengths[slot] = append(text.traceId(), text.traceIdIsUuid());
+        parentLengths[slot] = append(text.parentSpanId(), text.parentSpanIdIsUuid());
+        correlationLengths[slot] = append(text.correlationId(), text.correlationIdIsUuid());
+    }
+
+    /**
+     * Libère le plus ancien message conservé, qui occupe cet emplacement.
+     */
+    void release(int slot) {
+        ids.release(senders[slot]);
+        ids.release(receivers[slot]);
+        ids.release(origins[slot]);
+        arenaStart = textStarts[slot] + textLength(slot);
+        if (arena.length > maxArenaBytes && arenaEnd - arenaStart <= maxArenaBytes) {
+            resize(maxArenaBytes);
+        }
+    }
+
+    Message read(int slot) {
+        Message m = isAsk(slot) ? new AskMessage() : new Message();
+        m.setSenderId(ids.value(senders[slot]));
+        m.setReceiverId(ids.value(receivers[slot]));
+        m.setOriginService(ids.value(origins[slot]));
+        m.setTimestamp(timestamps[slot]);
+        long position = textStarts[slot];
+        m.setContent(readString(position, contentLengths[slot]));
+        position += stored(contentLengths[slot]);
+        m.setTraceId(readString(position, traceLengths[slot]));
+        position += stored(traceLengths[slot]);
+        m.setParentSpanId(readString(position, parentLengths[slot]));
+        position += stored(parentLengths[slot]);
+        if (m instanceof AskMessage ask) {
+            ask.setCorrelationId(readString(position, correlationLengths[slot]));
+        }
+        return m;
+    }
+
+    int sender(int slot) {
+        return senders[slot];
+    }
+
+    int receiver(int slot) {
+        return receivers[slot];
+    }
+
+    int origin(int slot) {
+        return origins[slot];
+    }
+
+    boolean isAsk(int slot) {
+        return (flags[slot] & ASK_FLAG) != 0;
+    }
+
+    // Identifiant d'une chaîne déjà connue, NONE sinon (sans la retenir)
+    int idOf(String value) {
+        return ids.find(value);
+    }
+
+    String value(int id) {
+        return ids.value(id);
+    }
+
+    private int textLength(int slot) {
+        return stored(contentLengths[slot]) + stored(traceLengths[slot]) + stored(parentLengths[slot])
+                + stored(correlationLengths[slot]);
+    }
+
+    // Octets occupés dans l'arène pour une longueur de colonne
+    private static int stored(int length) {
+        return length == UUID_FORM ? UUID_BYTES : Math.max(0, length);
+    }
+
+    private int append(byte[] bytes, boolean uuid) {
+        if (bytes == null) {
+            return NONE;
+        }
+        copyIn(bytes);
+        return uuid ? UUID_FORM : bytes.length;
+    }
+
+    private void copyIn(byte[] bytes) {
+        int at = (int) (arenaEnd % arena.length);
+        int first = Math.min(bytes.length, arena.length - at);
+        System.arraycopy(bytes, 0, arena, at, first);
+        System.arraycopy(bytes, first, arena, 0, bytes.length - first);
+        arenaEnd += bytes.length;
+    }
+
+    private String readString(long position, int length) {
+        if (length == NONE) {
+            return null;
+        }
+        if (length == UUID_FORM) {
+            ByteBuffer uuid = ByteBuffer.wrap(copyOut(position, UUID_BYTES));
+            return new UUID(uuid.getLong(), uuid.getLong()).toString();
+        }
+        int at = (int) (position % arena.length);
+        if (at + length <= arena.length) {
+            return new String(arena, at, length, StandardCharsets.UTF_8);
+        }
+        return new String(copyOut(position, length), StandardCharsets.UTF_8);
+    }
+
+    private byte[] copyOut(long position, int length) {
+        byte[] bytes = new byte[length];
+        int at = (int) (position % arena.length);
+        int first = Math.min(length, arena.length - at);
+        System.arraycopy(arena, at, bytes, 0, first);
+        System.arraycopy(arena, 0, bytes, first, length - first);
+        return bytes;
+    }
+
+    private void resize(int size) {
+        byte[] resized = new byte[size];
+        for (long p = arenaStart; p < arenaEnd; p++) {
+            resized[(int) (p % size)] = arena[(int) (p % arena.length)];
+        }
+        arena = resized;
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Les traceId / spanId / correlationId générés sont des UUID : 16 octets au lieu de 36 s'ils se relisent à l'identique
+    private static byte[] uuid(String value) {
+        if (value == null || value.length() != 36 || value.charAt(8) != '-') {
+            return null;
+        }
+        try {
+            UUID uuid = UUID.fromString(value);
+            if (uuid.toString().equals(value)) {
+                return ByteBuffer.allocate(UUID_BYTES).putLong(uuid.getMostSignificantBits())
+                        .putLong(uuid.getLeastSignificantBits()).array();
+            }
+        } catch (IllegalArgumentException e) {
+            // pas un UUID : gardé en texte
+        }
+        return null;
+    }
+
+    /**
+     * Texte encodé d'un message, avant sa copie dans l'arène.
+     */
+    record Text(byte[] content, byte[] traceId, boolean traceIdIsUuid, byte[] parentSpanId, boolean parentSpanIdIsUuid,
+                byte[] correlationId, boolean correlationIdIsUuid) {
+        int length() {
+            return size(content) + size(traceId) + size(parentSpanId) + size(correlationId);
+        }
+
+        private static int size(byte[] bytes) {
+            return bytes == null ? 0 : bytes.length;
+        }
+    }
+
+    /**
+     * Chaînes distinctes avec compteur de références : une chaîne disparaît du dictionnaire
+     * avec le dernier message conservé qui l'utilise, et son identifiant est réutilisé.
+     */
+    private static final class Dictionary {
+        private final Map<String, Integer> idByValue = new HashMap<>();
+        private String[] values = new String[64];
+        private int[] references = new int[64];
+        private int[] free = new int[16];
+        private int freeCount;
+        private int next;
+
+        int intern(String value) {
+            if (value == null) {
+                return NONE;
+            }
+            Integer existing = idByValue.get(value);
+            int id;
+            if (existing != null) {
+                id = existing;
+            } else {
+                id = freeCount > 0 ? free[--freeCount] : next++;
+                if (id == values.length) {
+                    values = Arrays.copyOf(values, id * 2);
+                    references = Arrays.copyOf(references, id * 2);
+                }
+                values[id] = value;
+                idByValue.put(value, id);
+            }
+            references[id]++;
+            return id;
+        }
+
+        void release(int id) {
+            if (id == NONE || --references[id] > 0) {
+                return;
+            }
+            idByValue.remove(values[id]);
+            values[id] = null;
+            if (freeCount == free.length) {
+                free = Arrays.copyOf(free, freeCount * 2);
+            }
+            free[freeCount++] = id;
+        }
+
+        int find(String value) {
+            Integer id = value == null ? null : idByValue.get(value);
+            return id == null ? NONE : id;
+        }
+
+        String value(int id) {
+            return id == NONE ? null : values[id];
+        }
+
+    }
+}
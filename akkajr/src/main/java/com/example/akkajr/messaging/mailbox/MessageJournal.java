@@ -0,0 +1,640 @@
+package com.example.akkajr.messaging.mailbox;
+
+import com.example.akkajr.messaging.AskMessage;
+import com.example.akkajr.messaging.Message;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Journal des messages sur disque, en ajout seul, qui survit aux redémarrages.
+ *
+ * Les messages sont écrits séquentiellement dans des segments (00000000000000000000.log,
+ * nommés d'après le premier offset qu'ils contiennent) ; un nouveau segment est ouvert
+ * quand le courant dépasse segmentBytes. Chaque segment a deux index creux, une entrée
+ * tous les 4 Ko écrits : offset -> position (.index) et date d'écriture -> position
+ * (.timeindex). Une relecture retrouve ainsi son point de départ sans parcourir le journal,
+ * puis lit les segments en mémoire mappée : l'historique peut dépasser largement la heap.
+ *
+ * Le fsync est groupé et fait par un thread dédié, hors verrou : toutes les flushMessages
+ * écritures ou toutes les flushInterval.
+ * Après un arrêt brutal, la fin du dernier segment est vérifiée (CRC) et tronquée au
+ * dernier message complet, et ses index sont reconstruits.
+ */
+public final class MessageJournal implements AutoCloseable {
+
+    public static final long DEFAULT_SEGMENT_BYTES = 64L * 1024 * 1024;
+    public static final int DEFAULT_FLUSH_MESSAGES = 1000;
+    public static final Duration DEFAULT_FLUSH_INTERVAL = Duration.ofMillis(200);
+    static final int INDEX_INTERVAL_BYTES = 4096;
+
+    // longueur, CRC, puis offset, date d'écriture, timestamp du message, type et six champs texte ;
+    // un ASK ajoute un septième champ (correlationId), absent des journaux écrits avant lui
+    private static final int LENGTH_BYTES = Integer.BYTES;
+    private static final int TEXT_FIELDS = 6;
+    private static final int MIN_RECORD_LENGTH = Integer.BYTES + 3 * Long.BYTES + 1 + TEXT_FIELDS * Integer.BYTES;
+    private static final byte TELL = 0;
+    private static final byte ASK = 1;
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final int flushMessages;
+    private final LongSupplier clock;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final ScheduledExecutorService flusher;
+    private Segment active;
+    private long nextOffset;
+    private int unflushed;
+    // un fsync est déjà demandé au thread flusher
+    private boolean flushRequested;
+    private boolean closed;
+
+    public MessageJournal(Path directory) {
+        this(directory, DEFAULT_SEGMENT_BYTES, DEFAULT_FLUSH_MESSAGES, DEFAULT_FLUSH_INTERVAL, System::currentTimeMillis);
+    }
+
+    public MessageJournal(Path directory, long segmentBytes, int flushMessages, Duration flushInterval, LongSupplier clock) {
+        if (segmentBytes <= 0 || segmentBytes > Integer.MAX_VALUE || flushMessages <= 0) {
+            throw new IllegalArgumentException("Taille de segment (au plus 2 Go) et lot de fsync doivent être positifs");
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.flushMessages = flushMessages;
+        this.clock = clock;
+        try {
+            Files.createDirectories(directory);
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible d'ouvrir le journal " + directory, e);
+        }
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "message-journal-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = Math.max(1, flushInterval.toMillis());
+        flusher.scheduleWithFixedDelay(this::flushQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Ajoute le message en fin de journal et renvoie son offset.
+     */
+    public long append(Message m) {
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Journal fermé");
+            }
+            long offset = nextOffset;
+            long appendedAt = clock.getAsLong();
+            ByteBuffer record = encode(offset, appendedAt, m);
+            if (active.size > 0 && active.size + record.remaining() > segmentBytes) {
+                roll(offset);
+            }
+            active.append(offset, appendedAt, record);
+            nextOffset++;
+            if (++unflushed >= flushMessages && !flushRequested) {
+                // le fsync part sur le flusher : l'appelant (requête HTTP, boucle TCP) ne l'attend pas
+                requestFlush();
+            }
+            return offset;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Écriture impossible dans le journal " + directory, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Relit au plus limit messages à partir de l'offset donné (le plus ancien conservé si
+     * l'offset est antérieur) et renvoie l'offset à passer à la relecture suivante.
+     */
+    public long replay(long fromOffset, int limit, Consumer<Entry> consumer) {
+        Map.Entry<Long, Segment> start;
+        long position;
+        Segment last;
+        long readable;
+        lock.lock();
+        try {
+            start = segments.floorEntry(fromOffset);
+            if (start == null) {
+                start = segments.firstEntry();
+            }
+            position = start.getValue().positionForOffset(fromOffset);
+            last = active;
+            readable = active.size;
+        } finally {
+            lock.unlock();
+        }
+        return scan(start, position, last, readable, fromOffset, Long.MIN_VALUE, limit, consumer);
+    }
+
+    /**
+     * Relit au plus limit messages écrits à partir de timestampMillis.
+     */
+    public long replaySince(long timestampMillis, int limit, Consumer<Entry> consumer) {
+        Map.Entry<Long, Segment> start = null;
+        long position = 0;
+        Segment last;
+        long readable;
+        lock.lock();
+        try {
+            for (Map.Entry<Long, Segment> candidate : segments.entrySet()) {
+                if (candidate.getValue().maxTimestamp >= timestampMillis) {
+                    start = candidate;
+                    position = candidate.getValue().positionForTimestamp(timestampMillis);
+                    break;
+                }
+            }
+            last = active;
+            readable = active.size;
+            if (start == null) {
+                return nextOffset;
+            }
+        } finally {
+            lock.unlock();
+        }
+        return scan(start, position, last, readable, Long.MIN_VALUE, timestampMillis, limit, consumer);
+    }
+
+    public long nextOffset() {
+        lock.lock();
+        try {
+            return nextOffset;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    // Force l'écriture sur disque de ce qui a été ajouté depuis le dernier fsync
+    public void flush() {
+        FileChannel channel;
+        lock.lock();
+        try {
+            flushRequested = false;
+            if (closed || unflushed == 0) {
+                return;
+            }
+            channel = active.log;
+            unflushed = 0;
+        } finally {
+            lock.unlock();
+        }
+        try {
+            // hors verrou : les écritures continuent pendant le fsync
+            channel.force(false);
+        } catch (ClosedChannelException e) {
+            // segment scellé (donc déjà forcé) ou journal fermé entre-temps
+        } catch (IOException e) {
+            throw new UncheckedIOException("fsync impossible sur le journal " + directory, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        flusher.shutdown();
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            active.log.force(false);
+            active.closeChannels();
+        } catch (IOException e) {
+            System.err.println("[JOURNAL] Fermeture incomplète de " + directory + ": " + e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Appelé sous le verrou
+    private void requestFlush() {
+        try {
+            flusher.execute(this::flushQuietly);
+            flushRequested = true;
+        } catch (RejectedExecutionException e) {
+            // journal en cours de fermeture : close() force le segment actif
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (UncheckedIOException e) {
+            System.err.println("[JOURNAL] " + e.getMessage());
+        }
+    }
+
+    private void roll(long baseOffset) throws IOException {
+        active.seal();
+        active = Segment.create(directory, baseOffset);
+        segments.put(baseOffset, active);
+        unflushed = 0;
+    }
+
+    private void recover() throws IOException {
+        long[] bases;
+        try (Stream<Path> files = Files.list(directory)) {
+            bases = files.map(p -> p.getFileName().toString())
+                    .filter(name -> name.matches("\\d{20}\\.log"))
+                    .mapToLong(name -> Long.parseLong(name.substring(0, 20)))
+                    .sorted()
+                    .toArray();
+        }
+        for (int i = 0; i < bases.length; i++) {
+            boolean last = i == bases.length - 1;
+            Segment segment = Segment.open(directory, bases[i], last);
+            segments.put(bases[i], segment);
+            if (last) {
+                active = segment;
+                nextOffset = segment.nextOffset;
+            }
+        }
+        if (active == null) {
+            active = Segment.create(directory, 0);
+            segments.put(0L, active);
+        }
+    }
+
+    /**
+     * Lit les segments à partir de start/position, sans verrou : les segments scellés sont
+     * immuables et le segment actif n'est lu que jusqu'à la taille relevée sous verrou.
+     */
+    private long scan(Map.Entry<Long, Segment> start, long position, Segment last, long lastEnd, long minOffset,
+                      long minTimestamp, int limit, Consumer<Entry> consumer) {
+        long next = Math.max(minOffset, start.getKey());
+        int delivered = 0;
+        Map.Entry<Long, Segment> current = start;
+        while (current != null && delivered < limit) {
+            Segment segment = current.getValue();
+            long end = segment == last ? lastEnd : segment.size;
+            if (end > position) {
+                MappedByteBuffer buffer = segment.map(end);
+                int p = (int) position;
+                while (p < end && delivered < limit) {
+                    int length = buffer.getInt(p);
+                    long offset = buffer.getLong(p + LENGTH_BYTES + Integer.BYTES);
+                    long appendedAt = buffer.getLong(p + LENGTH_BYTES + Integer.BYTES + Long.BYTES);
+                    if (offset >= minOffset && appendedAt >= minTimestamp) {
+                        consumer.accept(new Entry(offset, appendedAt, decode(buffer, p)));
+                        delivered++;
+                    }
+                    next = Math.max(next, offset + 1);
+                    p += LENGTH_BYTES + length;
+                }
+            }
+            if (segment == last) {
+                break;
+            }
+            current = segments.higherEntry(current.getKey());
+            position = 0;
+        }
+        return next;
+    }
+
+    private static ByteBuffer encode(long offset, long appendedAt, Message m) {
+        byte[][] fields = {
+                utf8(m.getSenderId()), utf8(m.getReceiverId()), utf8(m.getContent()),
+                utf8(m.getOriginService()), utf8(m.getTraceId()), utf8(m.getParentSpanId())
+        };
+        if (m instanceof AskMessage ask) {
+            fields = Arrays.copyOf(fields, fields.length + 1);
+            fields[fields.length - 1] = utf8(ask.getCorrelationId());
+        }
+        int length = MIN_RECORD_LENGTH + (fields.length - TEXT_FIELDS) * Integer.BYTES;
+        for (byte[] field : fields) {
+            length += field == null ? 0 : field.length;
+        }
+        ByteBuffer record = ByteBuffer.allocate(LENGTH_BYTES + length);
+        record.putInt(length);
+        record.putInt(0); // CRC, calculé une fois le corps écrit
+        record.putLong(offset);
+        record.putLong(appendedAt);
+        record.putLong(m.getTimestamp());
+        record.put(m instanceof AskMessage ? ASK : TELL);
+        for (byte[] field : fields) {
+            record.putInt(field == null ? -1 : field.length);
+            if (field != null) {
+                record.put(field);
+            }
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(record.array(), 2 * Integer.BYTES, length - Integer.BYTES);
+        record.putInt(LENGTH_BYTES, (int) crc.getValue());
+        return record.flip();
+    }
+
+    private static Message decode(ByteBuffer buffer, int position) {
+        ByteBuffer in = buffer.slice(position + 2 * Integer.BYTES + 2 * Long.BYTES, buffer.getInt(position) - Integer.BYTES - 2 * Long.BYTES);
+        long timestamp = in.getLong();
+        Message m = in.get() == ASK ? new AskMessage() : new Message();
+        m.setSenderId(readString(in));
+        m.setReceiverId(readString(in));
+        m.setContent(readString(in));
+        m.setOriginService(readString(in));
+        m.setTraceId(readString(in));
+        m.setParentSpanId(readString(in));
+        if (m instanceof AskMessage ask && in.hasRemaining()) {
+            ask.setCorrelationId(readString(in));
+        }
+        m.setTimestamp(timestamp);
+        return m;
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Vérifie la longueur et le CRC du message à cette position ; -1 s'il est incomplet ou corrompu
+    private static int validLength(ByteBuffer buffer, int position, long end) {
+        if (position + LENGTH_BYTES > end) {
+            return -1;
+        }
+        int length = buffer.getInt(position);
+        if (length < MIN_RECORD_LENGTH || position + LENGTH_BYTES + (long) length > end) {
+            return -1;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(position + 2 * Integer.BYTES, length - Integer.BYTES));
+        return (int) crc.getValue() == buffer.getInt(position + LENGTH_BYTES) ? length : -1;
+    }
+
+    /**
+     * Un message relu : son offset, sa date d'écriture dans le journal et son contenu.
+     */
+    public record Entry(long offset, long appendedAt, Message message) {
+    }
+
+    /**
+     * Un fichier .log et ses deux index creux, gardés aussi en mémoire (quelques entrées par Mo).
+     */
+    private static final class Segment {
+        private final long baseOffset;
+        private final Path logFile;
+        private final Path indexFile;
+        private final Path timeIndexFile;
+        private FileChannel log;
+        private FileChannel index;
+        private FileChannel timeIndex;
+        private volatile long size;
+        private volatile long maxTimestamp = Long.MIN_VALUE;
+        private long nextOffset;
+        private long bytesSinceIndex;
+        // offset relatif -> position
+        private int[] indexOffsets = new int[16];
+        private int[] indexPositions = new int[16];
+        private int indexSize;
+        // date maximale écrite avant position -> position
+        private long[] timeStamps = new long[16];
+        private int[] timePositions = new int[16];
+        private int timeSize;
+
+        private Segment(Path directory, long baseOffset) {
+            this.baseOffset = baseOffset;
+            String name = String.format("%020d", baseOffset);
+            this.logFile = directory.resolve(name + ".log");
+            this.indexFile = directory.resolve(name + ".index");
+            this.timeIndexFile = directory.resolve(name + ".timeindex");
+            this.nextOffset = baseOffset;
+        }
+
+        static Segment create(Path directory, long baseOffset) throws IOException {
+            Segment segment = new Segment(directory, baseOffset);
+            segment.openChannels();
+            return segment;
+        }
+
+        /**
+         * Le dernier segment est revérifié et ses index reconstruits ; les autres, scellés
+         * proprement, rechargent leurs index depuis le disque.
+         */
+        static Segment open(Path directory, long baseOffset, boolean last) throws IOException {
+            Segment segment = new Segment(directory, baseOffset);
+            segment.size = Files.size(segment.logFile);
+            if (!last && segment.loadIndexes()) {
+                return segment;
+            }
+            segment.openChannels();
+            segment.rebuild();
+            if (!last) {
+                segment.seal();
+            }
+            return segment;
+        }
+
+        void append(long offset, long appendedAt, ByteBuffer record) throws IOException {
+            int length = record.remaining();
+            if (size > 0 && bytesSinceIndex >= INDEX_INTERVAL_BYTES) {
+                addIndexEntries(offset, (int) size);
+            }
+            while (record.hasRemaining()) {
+                log.write(record);
+            }
+            size += length;
+            bytesSinceIndex += length;
+            maxTimestamp = Math.max(maxTimestamp, appendedAt);
+            nextOffset = offset + 1;
+        }
+
+        long positionForOffset(long offset) {
+            long relative = offset - baseOffset;
+            int i = lastAtMost(indexOffsets, indexSize, relative);
+            return i < 0 ? 0 : indexPositions[i];
+        }
+
+        long positionForTimestamp(long timestamp) {
+            // dernière entrée dont tous les messages précédents sont antérieurs à timestamp
+            int low = 0;
+            int high = timeSize - 1;
+            int found = -1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (timeStamps[mid] < timestamp) {
+                    found = mid;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return found < 0 ? 0 : timePositions[found];
+        }
+
+        MappedByteBuffer map(long end) {
+            try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.READ)) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, end);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Lecture impossible du segment " + logFile, e);
+            }
+        }
+
+        /**
+         * Ferme le segment à l'écriture : entrée finale dans l'index temporel (qui donne la
+         * date maximale du segment), puis fsync de tous les fichiers.
+         */
+        void seal() throws IOException {
+            if (timeSize == 0 || timePositions[timeSize - 1] != size) {
+                appendTimeEntry(maxTimestamp, (int) size);
+            }
+            log.force(false);
+            index.force(false);
+            timeIndex.force(false);
+            closeChannels();
+        }
+
+        void closeChannels() throws IOException {
+            log.close();
+            index.close();
+            timeIndex.close();
+        }
+
+        // Les index d'un segment ouvert en écriture sont toujours réécrits depuis le début
+        private void openChannels() throws IOException {
+            log = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            log.position(size);
+            index = FileChannel.open(indexFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            timeIndex = FileChannel.open(timeIndexFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        // Parcourt le fichier, tronque après le dernier message valide et réécrit les index
+        private void rebuild() throws IOException {
+            MappedByteBuffer buffer = log.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int p = 0;
+            long valid = 0;
+            bytesSinceIndex = 0;
+            for (;;) {
+                int length = validLength(buffer, p, size);
+                if (length < 0) {
+                    break;
+                }
+                long offset = buffer.getLong(p + LENGTH_BYTES + Integer.BYTES);
+                long appendedAt = buffer.getLong(p + LENGTH_BYTES + Integer.BYTES + Long.BYTES);
+                if (p > 0 && bytesSinceIndex >= INDEX_INTERVAL_BYTES) {
+                    addIndexEntries(offset, p);
+                }
+                bytesSinceIndex += LENGTH_BYTES + length;
+                maxTimestamp = Math.max(maxTimestamp, appendedAt);
+                nextOffset = offset + 1;
+                p += LENGTH_BYTES + length;
+                valid = p;
+            }
+            if (valid < size) {
+                System.err.println("[JOURNAL] " + logFile.getFileName() + " : " + (size - valid)
+                        + " octets incomplets ou corrompus tronqués");
+                log.truncate(valid);
+                size = valid;
+            }
+            log.position(size);
+        }
+
+        private boolean loadIndexes() throws IOException {
+            if (!Files.exists(indexFile) || !Files.exists(timeIndexFile)) {
+                return false;
+            }
+            ByteBuffer offsets = ByteBuffer.wrap(Files.readAllBytes(indexFile));
+            ByteBuffer times = ByteBuffer.wrap(Files.readAllBytes(timeIndexFile));
+            while (offsets.remaining() >= 2 * Integer.BYTES) {
+                addOffsetEntry(offsets.getInt(), offsets.getInt());
+            }
+            while (times.remaining() >= Long.BYTES + Integer.BYTES) {
+                long timestamp = times.getLong();
+                int position = times.getInt();
+                addTimeEntry(timestamp, position);
+            }
+            // sans entrée finale, le segment n'a pas été scellé : on le reconstruit
+            if (timeSize == 0 || timePositions[timeSize - 1] != size) {
+                indexSize = 0;
+                timeSize = 0;
+                return false;
+            }
+            maxTimestamp = timeStamps[timeSize - 1];
+            return true;
+        }
+
+        // Entrées d'index pour le message qui commence à position
+        private void addIndexEntries(long offset, int position) throws IOException {
+            int relative = (int) (offset - baseOffset);
+            addOffsetEntry(relative, position);
+            index.write(ByteBuffer.allocate(2 * Integer.BYTES).putInt(relative).putInt(position).flip());
+            appendTimeEntry(maxTimestamp, position);
+            bytesSinceIndex = 0;
+        }
+
+        private void appendTimeEntry(long timestamp, int position) throws IOException {
+            addTimeEntry(timestamp, position);
+            timeIndex.write(ByteBuffer.allocate(Long.BYTES + Integer.BYTES).putLong(timestamp).putInt(position).flip());
+        }
+
+        private void addOffsetEntry(int relative, int position) {
+            if (indexSize == indexOffsets.length) {
+                indexOffsets = Arrays.copyOf(indexOffsets, indexSize * 2);
+                indexPositions = Arrays.copyOf(indexPositions, indexSize * 2);
+            }
+            indexOffsets[indexSize] = relative;
+            indexPositions[indexSize] = position;
+            indexSize++;
+        }
+
+        private void addTimeEntry(long timestamp, int position) {
+            if (timeSize == timeStamps.length) {
+                timeStamps = Arrays.copyOf(timeStamps, timeSize * 2);
+                timePositions = Arrays.copyOf(timePositions, timeSize * 2);
+            }
+            timeStamps[timeSize] = timestamp;
+            timePositions[timeSize] = position;
+            timeSize++;
+        }
+
+        private static int lastAtMost(int[] keys, int size, long key) {
+            int low = 0;
+            int high = size - 1;
+            int found = -1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid] <= key) {
+                    found = mid;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return found;
+        }
+    }
+}
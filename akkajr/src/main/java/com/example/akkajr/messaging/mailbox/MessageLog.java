@@ -1,18 +1,368 @@
 package com.example.akkajr.messaging.mailbox;
 
 import com.example.akkajr.messaging.Message;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Queue;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.LongSupplier;
 
+/**
+ * Historique des messages dans un tampon circulaire de taille fixe : la mémoire ne dépend
+ * plus du trafic. Un message est évincé quand le tampon est plein (rétention par taille)
+ * ou quand il est plus vieux que maxAge (rétention par âge, désactivée si maxAge vaut zéro).
+ *
+ * Chaque message reçoit un numéro de séquence croissant qui sert de curseur de lecture :
+ * read(cursor, limit) renvoie une page à partir de ce curseur, et signale les messages
+ * évincés entre deux lectures au lieu de les sauter en silence.
+ *
+ * Les messages conservés sont indexés par expéditeur, destinataire, service d'origine,
+ * type (ASK / TELL) et tranche d'une minute : query() part de l'index le plus sélectif et
+ * ne parcourt que ses entrées, du plus récent au plus ancien, au lieu de tout l'historique.
+ * Les index suivent l'ordre des séquences, l'éviction retire donc toujours leur tête.
+ *
+ * Les messages ne sont pas gardés tels quels mais copiés dans un MessageColumns (identifiants
+ * dédupliqués, colonnes primitives, texte dans une arène d'octets bornée) ; l'arène pleine
+ * évince les plus anciens messages comme le tampon plein. Les lectures renvoient des copies.
+ */
 public class MessageLog {
 
-    private final Queue<Message> history = new ConcurrentLinkedQueue<>();
+    public static final int DEFAULT_CAPACITY = 10_000;
+    public static final Duration DEFAULT_MAX_AGE = Duration.ofHours(1);
+    static final long BUCKET_MILLIS = 60_000;
+    // Texte moyen prévu par message ; au-delà, l'arène évince avant que le tampon soit plein
+    static final int ARENA_BYTES_PER_MESSAGE = 256;
 
-    public void log(Message m) {
-        history.offer(m);
+    private final int capacity;
+    private final long maxAgeMillis;
+    private final LongSupplier clock;
+    private final MessageColumns columns;
+    private final long[] loggedAt;
+
+    // Séquence du plus ancien message conservé et du prochain message écrit
+    private long head;
+    private long tail;
+    private long evictedBySize;
+    private long evictedByAge;
+    // Compteurs cumulés, mis à jour à l'écriture (jamais recalculés)
+    private long totalAsks;
+    private long totalRemote;
+
+    // Index secondaires : identifiant (dictionnaire des colonnes) -> séquences conservées, dans l'ordre
+    private final Map<Integer, SeqList> bySender = new HashMap<>();
+    private final Map<Integer, SeqList> byReceiver = new HashMap<>();
+    private final Map<Integer, SeqList> byOrigin = new HashMap<>();
+    private final SeqList asks = new SeqList();
+    private final SeqList tells = new SeqList();
+    // tranche de temps -> première séquence écrite dans la tranche
+    private final TreeMap<Long, Long> byBucket = new TreeMap<>();
+
+    public MessageLog() {
+        this(DEFAULT_CAPACITY, DEFAULT_MAX_AGE);
+    }
+
+    public MessageLog(int capacity, Duration maxAge) {
+        this(capacity, maxAge, System::currentTimeMillis);
+    }
+
+    public MessageLog(int capacity, Duration maxAge, LongSupplier clock) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("La capacité de l'historique doit être positive");
+        }
+        if (maxAge == null || maxAge.isNegative()) {
+            throw new IllegalArgumentException("La durée de rétention ne peut pas être négative");
+        }
+        this.capacity = capacity;
+        this.maxAgeMillis = maxAge.toMillis();
+        this.clock = clock;
+        this.columns = new MessageColumns(capacity, (int) Math.min(Integer.MAX_VALUE, (long) capacity * ARENA_BYTES_PER_MESSAGE));
+        this.loggedAt = new long[capacity];
+    }
+
+    public synchronized void log(Message m) {
+        long now = clock.getAsLong();
+        expire(now);
+        MessageColumns.Text text = MessageColumns.text(m);
+        int textLength = text.length();
+        // Tampon ou arène pleins : les plus anciens messages laissent leur place
+        while (tail > head && (tail - head == capacity || !columns.fits(textLength, false))) {
+            evictHead();
+            evictedBySize++;
+        }
+        columns.fits(textLength, true);
+        int i = index(tail);
+        columns.write(i, m, text);
+        loggedAt[i] = now;
+        addToIndexes(tail, i, now);
+        tail++;
+    }
+
+    /**
+     * Messages correspondant aux critères, du plus récent au plus ancien, strictement avant
+     * le curseur (Long.MAX_VALUE pour la première page). Le coût dépend de la taille de la
+     * page et de la sélectivité de l'index choisi, pas de la taille de l'historique.
+     */
+    public synchronized QueryPage query(MessageQuery query, long before, int limit) {
+        expire(clock.getAsLong());
+        long lower = head;
+        long upper = Math.min(before, tail);
+        if (query.from() != null) {
+            Map.Entry<Long, Long> bucket = byBucket.floorEntry(query.from() / BUCKET_MILLIS);
+            if (bucket != null) {
+                lower = Math.max(lower, bucket.getValue());
+            }
+        }
+        if (query.to() != null) {
+            Map.Entry<Long, Long> bucket = byBucket.higherEntry(query.to() / BUCKET_MILLIS);
+            if (bucket != null) {
+                upper = Math.min(upper, bucket.getValue());
+            }
+        }
+        int sender = columns.idOf(query.senderId());
+        int receiver = columns.idOf(query.receiverId());
+        int origin = columns.idOf(query.originService());
+        SeqList candidates = null;
+        for (SeqList list : new SeqList[] {
+                lookup(bySender, query.senderId(), sender), lookup(byReceiver, query.receiverId(), receiver),
+                lookup(byOrigin, query.originService(), origin), typeList(query.type())}) {
+            if (list != null && (candidates == null || list.size() < candidates.size())) {
+                candidates = list;
+            }
+        }
+        List<Message> page = new ArrayList<>(Math.min(Math.max(limit, 0), 256));
+        long last = -1;
+        if (candidates == null) {
+            // aucun critère indexé : le parcours des séquences est déjà borné par la tranche de temps
+            for (long seq = upper - 1; seq >= lower && page.size() < limit; seq--) {
+                if (matches(query, sender, receiver, origin, seq)) {
+                    page.add(columns.read(index(seq)));
+                    last = seq;
+                }
+            }
+        } else {
+            for (int i = candidates.lastBefore(upper); i >= 0 && page.size() < limit; i--) {
+                long seq = candidates.get(i);
+                if (seq < lower) {
+                    break;
+                }
+                if (matches(query, sender, receiver, origin, seq)) {
+                    page.add(columns.read(index(seq)));
+                    last = seq;
+                }
+            }
+        }
+        return new QueryPage(page, page.size() == limit ? last : -1);
+    }
+
+    /**
+     * Au plus limit messages à partir du curseur (séquence), du plus ancien au plus récent.
+     * Un curseur déjà évincé reprend au plus ancien message conservé ; Page.missed indique
+     * combien de messages ont été perdus entre-temps.
+     */
+    public synchronized Page read(long cursor, int limit) {
+        expire(clock.getAsLong());
+        long from = Math.min(Math.max(cursor, head), tail);
+        long missed = cursor < head ? head - Math.max(cursor, 0) : 0;
+        int count = (int) Math.min(Math.max(limit, 0), tail - from);
+        List<Message> page = new ArrayList<>(count);
+        for (long seq = from; seq < from + count; seq++) {
+            page.add(columns.read(index(seq)));
+        }
+        return new Page(page, from + count, missed, tail - (from + count));
+    }
+
+    // Copie des messages conservés, bornée par la capacité
+    public synchronized Queue<Message> getAll() {
+        expire(clock.getAsLong());
+        Queue<Message> copy = new ConcurrentLinkedQueue<>();
+        for (long seq = head; seq < tail; seq++) {
+            copy.offer(columns.read(index(seq)));
+        }
+        return copy;
+    }
+
+    public synchronized Stats stats() {
+        expire(clock.getAsLong());
+        return new Stats(capacity, maxAgeMillis, (int) (tail - head), tail, head, evictedBySize, evictedByAge,
+                totalAsks, totalRemote);
+    }
+
+    // Les messages sont rangés par date d'écriture : on évince depuis la tête tant qu'ils sont trop vieux
+    private void expire(long now) {
+        if (maxAgeMillis == 0) {
+            return;
+        }
+        long oldestAllowed = now - maxAgeMillis;
+        while (head < tail && loggedAt[index(head)] < oldestAllowed) {
+            evictHead();
+            evictedByAge++;
+        }
+    }
+
+    private void evictHead() {
+        int i = index(head);
+        removeFromIndex(bySender, columns.sender(i));
+        removeFromIndex(byReceiver, columns.receiver(i));
+        removeFromIndex(byOrigin, columns.origin(i));
+        (columns.isAsk(i) ? asks : tells).removeFirst();
+        columns.release(i);
+        head++;
+        // une tranche n'est plus utile dès que la suivante commence avant le plus ancien message
+        while (byBucket.size() > 1 && byBucket.higherEntry(byBucket.firstKey()).getValue() <= head) {
+            byBucket.pollFirstEntry();
+        }
     }
 
-    public Queue<Message> getAll() {
-        return new ConcurrentLinkedQueue<>(history);
+    private void addToIndexes(long seq, int slot, long now) {
+        addToIndex(bySender, columns.sender(slot), seq);
+        addToIndex(byReceiver, columns.receiver(slot), seq);
+        addToIndex(byOrigin, columns.origin(slot), seq);
+        if (columns.isAsk(slot)) {
+            asks.addLast(seq);
+            totalAsks++;
+        } else {
+            tells.addLast(seq);
+        }
+        String origin = columns.value(columns.origin(slot));
+        if (origin != null && !origin.isEmpty()) {
+            totalRemote++;
+        }
+        long bucket = now / BUCKET_MILLIS;
+        if (byBucket.isEmpty() || bucket > byBucket.lastKey()) {
+            byBucket.put(bucket, seq);
+        }
+    }
+
+    private static void addToIndex(Map<Integer, SeqList> index, int id, long seq) {
+        if (id != MessageColumns.NONE) {
+            index.computeIfAbsent(id, k -> new SeqList()).addLast(seq);
+        }
+    }
+
+    private static void removeFromIndex(Map<Integer, SeqList> index, int id) {
+        SeqList list = id == MessageColumns.NONE ? null : index.get(id);
+        if (list == null) {
+            return;
+        }
+        list.removeFirst();
+        if (list.size() == 0) {
+            index.remove(id);
+        }
+    }
+
+    // Un critère sans entrée dans son index donne une liste vide : aucun résultat
+    private static SeqList lookup(Map<Integer, SeqList> index, String key, int id) {
+        return key == null ? null : index.getOrDefault(id, SeqList.EMPTY);
+    }
+
+    private SeqList typeList(MessageQuery.Type type) {
+        if (type == null) {
+            return null;
+        }
+        return type == MessageQuery.Type.ASK ? asks : tells;
+    }
+
+    // Comparaisons sur les colonnes (identifiants du dictionnaire), sans reconstruire le message
+    private boolean matches(MessageQuery query, int sender, int receiver, int origin, long seq) {
+        int slot = index(seq);
+        long at = loggedAt[slot];
+        return (query.senderId() == null || columns.sender(slot) == sender)
+                && (query.receiverId() == null || columns.receiver(slot) == receiver)
+                && (query.originService() == null || columns.origin(slot) == origin)
+                && (query.type() == null || (query.type() == MessageQuery.Type.ASK) == columns.isAsk(slot))
+                && (query.from() == null || at >= query.from())
+                && (query.to() == null || at <= query.to());
+    }
+
+    private int index(long seq) {
+        return (int) (seq % capacity);
+    }
+
+    /**
+     * Une page de l'historique : nextCursor est à repasser à la lecture suivante,
+     * remaining le nombre de messages déjà disponibles après cette page.
+     */
+    public record Page(List<Message> messages, long nextCursor, long missed, long remaining) {
+    }
+
+    /**
+     * Une page de résultats de query() ; nextCursor vaut -1 quand il n'y a plus rien à lire.
+     */
+    public record QueryPage(List<Message> messages, long nextCursor) {
+    }
+
+    // totalLogged est aussi le curseur du prochain message ; les totaux couvrent tout ce qui a été écrit
+    public record Stats(int capacity, long maxAgeMillis, int size, long totalLogged,
+                        long oldestCursor, long evictedBySize, long evictedByAge, long totalAsks, long totalRemote) {
+    }
+
+    /**
+     * Séquences croissantes dans un tableau circulaire : ajout en fin, retrait en tête et
+     * accès par position pour la recherche dichotomique du curseur.
+     */
+    private static final class SeqList {
+        static final SeqList EMPTY = new SeqList();
+
+        private long[] values = new long[8];
+        private int first;
+        private int size;
+
+        void addLast(long seq) {
+            if (size == values.length) {
+                long[] grown = new long[size * 2];
+                for (int i = 0; i < size; i++) {
+                    grown[i] = get(i);
+                }
+                values = grown;
+                first = 0;
+            }
+            values[(first + size) % values.length] = seq;
+            size++;
+        }
+
+        void removeFirst() {
+            first = (first + 1) % values.length;
+            size--;
+            if (size == 0) {
+                first = 0;
+            } else if (values.length > 64 && size < values.length / 4) {
+                // rend la place après un pic d'activité sur cette clé
+                long[] shrunk = new long[values.length / 2];
+                for (int i = 0; i < size; i++) {
+                    shrunk[i] = get(i);
+                }
+                values = shrunk;
+                first = 0;
+            }
+        }
+
+        long get(int i) {
+            return values[(first + i) % values.length];
+        }
+
+        int size() {
+            return size;
+        }
+
+        // Position de la dernière séquence strictement inférieure à upper, -1 s'il n'y en a pas
+        int lastBefore(long upper) {
+            int low = 0;
+            int high = size - 1;
+            int found = -1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (get(mid) < upper) {
+                    found = mid;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return found;
+        }
     }
 }
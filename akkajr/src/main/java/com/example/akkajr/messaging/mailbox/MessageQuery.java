@@ -0,0 +1,15 @@
+package com.example.akkajr.messaging.mailbox;
+
+/**
+ * Critères de recherche dans un MessageLog ; un critère null n'est pas filtré.
+ * from et to bornent (inclus) la date d'écriture dans le log, en epoch ms.
+ */
+public record MessageQuery(String senderId, String receiverId, String originService, Type type, Long from, Long to) {
+
+    public static final MessageQuery ALL = new MessageQuery(null, null, null, null, null, null);
+
+    public enum Type {
+        ASK,
+        TELL
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.akkajr.messaging.transport;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Reçoit les trames d'une connexion, sur le thread de la boucle d'événements : le traitement
+ * doit rester court, et la charge utile n'est valable que pendant l'appel.
+ */
+public interface FrameHandler {
+
+    void onFrame(TcpConnection connection, byte type, long id, ByteBuffer payload);
+
+    // Connexion fermée (cause null pour une fermeture demandée)
+    void onClose(TcpConnection connection, Throwable cause);
+
+    // Trames acceptées par send() mais pas envoyées avant la fermeture, appelé juste avant onClose
+    default void onUnsent(TcpConnection connection, List<ByteBuffer> frames) {
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.akkajr.messaging.transport;
+
+import com.example.akkajr.messaging.AskMessage;
+import com.example.akkajr.messaging.Message;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Trames binaires du transport TCP, préfixées par leur longueur :
+ * [longueur int][type byte][identifiant long][charge utile].
+ *
+ * TELL et ASK portent le message (timestamp puis les champs texte, -1 pour null),
+ * REPLY et FAILURE la réponse ou l'erreur de l'ASK de même identifiant, PING rien.
+ */
+public final class Frames {
+
+    public static final byte TELL = 1;
+    public static final byte ASK = 2;
+    public static final byte REPLY = 3;
+    public static final byte FAILURE = 4;
+    public static final byte PING = 5;
+
+    // type + identifiant, après la longueur
+    static final int HEADER_BYTES = 1 + Long.BYTES;
+    // au-delà, la connexion est considérée comme corrompue
+    static final int MAX_FRAME_BYTES = 16 * 1024 * 1024;
+
+    private Frames() {
+    }
+
+    public static ByteBuffer message(long id, Message msg) {
+        String correlationId = msg instanceof AskMessage ask ? ask.getCorrelationId() : null;
+        byte[][] fields = {
+                utf8(msg.getSenderId()), utf8(msg.getReceiverId()), utf8(msg.getContent()),
+                utf8(msg.getOriginService()), utf8(msg.getTraceId()), utf8(msg.getParentSpanId()),
+                utf8(correlationId)
+        };
+        int length = HEADER_BYTES + Long.BYTES;
+        for (byte[] field : fields) {
+            length += Integer.BYTES + (field == null ? 0 : field.length);
+        }
+        ByteBuffer frame = header(length, msg instanceof AskMessage ? ASK : TELL, id);
+        frame.putLong(msg.getTimestamp());
+        for (byte[] field : fields) {
+            put(frame, field);
+        }
+        return frame.flip();
+    }
+
+    public static ByteBuffer text(byte type, long id, String text) {
+        byte[] bytes = utf8(text);
+        ByteBuffer frame = header(HEADER_BYTES + Integer.BYTES + (bytes == null ? 0 : bytes.length), type, id);
+        put(frame, bytes);
+        return frame.flip();
+    }
+
+    static ByteBuffer ping() {
+        return header(HEADER_BYTES, PING, 0).flip();
+    }
+
+    /**
+     * Type d'une trame complète, telle que passée à TcpConnection.send().
+     */
+    public static byte type(ByteBuffer frame) {
+        return frame.get(frame.position() + Integer.BYTES);
+    }
+
+    /**
+     * Relit le message d'une trame TELL ou ASK complète (longueur et en-tête compris).
+     */
+    public static Message readMessage(ByteBuffer frame) {
+        int payload = frame.position() + Integer.BYTES + HEADER_BYTES;
+        return readMessage(type(frame), frame.slice(payload, frame.limit() - payload));
+    }
+
+    /**
+     * Relit le message d'une trame TELL ou ASK (charge utile seule).
+     */
+    public static Message readMessage(byte type, ByteBuffer payload) {
+        Message msg = type == ASK ? new AskMessage() : new Message();
+        msg.setTimestamp(payload.getLong());
+        msg.setSenderId(readString(payload));
+        msg.setReceiverId(readString(payload));
+        msg.setContent(readString(payload));
+        msg.setOriginService(readString(payload));
+        msg.setTraceId(readString(payload));
+        msg.setParentSpanId(readString(payload));
+        String correlationId = readString(payload);
+        if (msg instanceof AskMessage ask) {
+            ask.setCorrelationId(correlationId);
+        }
+        return msg;
+    }
+
+    public static String readString(ByteBuffer payload) {
+        int length = payload.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(payload.array(), payload.arrayOffset() + payload.position(), length, StandardCharsets.UTF_8);
+        payload.position(payload.position() + length);
+        return value;
+    }
+
+    private static ByteBuffer header(int length, byte type, long id) {
+        if (length > MAX_FRAME_BYTES) {
+            throw new IllegalArgumentException("Trame de " + length + " octets, maximum " + MAX_FRAME_BYTES);
+        }
+        return ByteBuffer.allocate(Integer.BYTES + length).putInt(length).put(type).putLong(id);
+    }
+
+    private static void put(ByteBuffer frame, byte[] field) {
+        if (field == null) {
+            frame.putInt(-1);
+        } else {
+            frame.putInt(field.length).put(field);
+        }
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+}
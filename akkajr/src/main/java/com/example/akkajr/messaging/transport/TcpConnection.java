@@ -0,0 +1,207 @@
+package com.example.akkajr.messaging.transport;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Connexion TCP longue durée partagée par tous les messages vers un même pair. N'importe quel
+ * thread peut envoyer une trame : elle est mise en file et écrite par la boucle d'événements,
+ * qui regroupe les trames en attente dans une seule écriture.
+ *
+ * Les octets en attente sont bornés par maxQueuedBytes : un pair trop lent fait refuser les
+ * trames suivantes au lieu de remplir la heap. Les trames encore en file à la fermeture sont
+ * rendues au handler (onUnsent) plutôt que jetées.
+ */
+public final class TcpConnection {
+
+    public static final long DEFAULT_MAX_QUEUED_BYTES = 32L * 1024 * 1024;
+
+    private static final int READ_BUFFER_BYTES = 64 * 1024;
+    // trames regroupées au plus par écriture
+    private static final int MAX_GATHER = 64;
+
+    private final TcpEventLoop loop;
+    private final SocketChannel channel;
+    private final FrameHandler handler;
+    private final String peer;
+    private final long maxQueuedBytes;
+    private final Queue<ByteBuffer> outbound = new ConcurrentLinkedQueue<>();
+    // octets en file ou en cours d'écriture
+    private final AtomicLong queuedBytes = new AtomicLong();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private volatile boolean open = true;
+
+    // état réservé au thread de la boucle
+    private final ArrayDeque<ByteBuffer> writing = new ArrayDeque<>();
+    private ByteBuffer inbound = ByteBuffer.allocate(READ_BUFFER_BYTES);
+    private SelectionKey key;
+    private boolean connected;
+    long lastReadNanos = System.nanoTime();
+    long lastWriteNanos = System.nanoTime();
+
+    TcpConnection(TcpEventLoop loop, SocketChannel channel, FrameHandler handler, SocketAddress peer, long maxQueuedBytes) {
+        this.loop = loop;
+        this.channel = channel;
+        this.handler = handler;
+        this.peer = String.valueOf(peer);
+        this.maxQueuedBytes = maxQueuedBytes;
+    }
+
+    /**
+     * Met la trame en file ; faux si la connexion est fermée ou si trop d'octets attendent déjà.
+     * Une trame acceptée part, ou revient au handler par onUnsent si la connexion se ferme avant.
+     */
+    public boolean send(ByteBuffer frame) {
+        if (!open) {
+            return false;
+        }
+        int size = frame.remaining();
+        if (queuedBytes.addAndGet(size) > maxQueuedBytes) {
+            queuedBytes.addAndGet(-size);
+            return false;
+        }
+        outbound.add(frame);
+        // fermée pendant l'ajout : si close() n'a pas repris la trame, elle reste à l'appelant
+        if (!open && outbound.removeIf(queued -> queued == frame)) {
+            queuedBytes.addAndGet(-size);
+            return false;
+        }
+        if (flushScheduled.compareAndSet(false, true)) {
+            loop.execute(this::flush);
+        }
+        return true;
+    }
+
+    public boolean isOpen() {
+        return open;
+    }
+
+    public void close() {
+        loop.execute(() -> close(null));
+    }
+
+    @Override
+    public String toString() {
+        return "TcpConnection[" + peer + "]";
+    }
+
+    void register(SelectionKey key, boolean connected) {
+        this.key = key;
+        this.connected = connected;
+    }
+
+    void finishConnect() {
+        try {
+            channel.finishConnect();
+            connected = true;
+            key.interestOps(SelectionKey.OP_READ);
+            lastReadNanos = System.nanoTime();
+            flush();
+        } catch (IOException e) {
+            close(e);
+        }
+    }
+
+    void flush() {
+        flushScheduled.set(false);
+        for (ByteBuffer frame; (frame = outbound.poll()) != null; ) {
+            writing.add(frame);
+        }
+        if (!connected || !open || writing.isEmpty()) {
+            return;
+        }
+        try {
+            while (!writing.isEmpty()) {
+                ByteBuffer[] batch = writing.stream().limit(MAX_GATHER).toArray(ByteBuffer[]::new);
+                long written = channel.write(batch);
+                while (!writing.isEmpty() && !writing.peek().hasRemaining()) {
+                    queuedBytes.addAndGet(-writing.poll().limit());
+                }
+                if (written == 0) {
+                    break;
+                }
+            }
+            lastWriteNanos = System.nanoTime();
+            // socket plein : la suite part quand il redevient inscriptible
+            key.interestOps(writing.isEmpty() ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        } catch (IOException e) {
+            close(e);
+        }
+    }
+
+    void read() {
+        try {
+            int read = channel.read(inbound);
+            if (read < 0) {
+                close(new IOException("Connexion fermée par le pair"));
+                return;
+            }
+            lastReadNanos = System.nanoTime();
+            inbound.flip();
+            while (open && inbound.remaining() >= Integer.BYTES) {
+                int length = inbound.getInt(inbound.position());
+                if (length < Frames.HEADER_BYTES || length > Frames.MAX_FRAME_BYTES) {
+                    throw new IOException("Trame invalide de " + length + " octets");
+                }
+                if (inbound.remaining() < Integer.BYTES + length) {
+                    if (inbound.capacity() < Integer.BYTES + length) {
+                        inbound = ByteBuffer.allocate(Integer.BYTES + length).put(inbound).flip();
+                    }
+                    break;
+                }
+                int end = inbound.position() + Integer.BYTES + length;
+                inbound.position(inbound.position() + Integer.BYTES);
+                byte type = inbound.get();
+                long id = inbound.getLong();
+                ByteBuffer payload = inbound.slice(inbound.position(), end - inbound.position());
+                inbound.position(end);
+                if (type != Frames.PING) {
+                    handler.onFrame(this, type, id, payload);
+                }
+            }
+            inbound.compact();
+        } catch (IOException | RuntimeException e) {
+            close(e);
+        }
+    }
+
+    void close(Throwable cause) {
+        if (!open) {
+            return;
+        }
+        open = false;
+        if (key != null) {
+            key.cancel();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // déjà fermée
+        }
+        List<ByteBuffer> unsent = new ArrayList<>(writing);
+        writing.clear();
+        for (ByteBuffer frame; (frame = outbound.poll()) != null; ) {
+            unsent.add(frame);
+        }
+        for (ByteBuffer frame : unsent) {
+            queuedBytes.addAndGet(-frame.limit());
+            // une trame à moitié écrite est rendue entière : le pair a jeté le morceau reçu
+            frame.rewind();
+        }
+        loop.closed(this);
+        if (!unsent.isEmpty()) {
+            handler.onUnsent(this, unsent);
+        }
+        handler.onClose(this, cause);
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.akkajr.messaging.transport;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+
+/**
+ * Boucle d'événements NIO : un seul thread et un Selector pour toutes les connexions
+ * (entrantes et sortantes). Elle envoie un PING sur chaque connexion restée muette pendant
+ * heartbeatInterval et ferme celles dont le pair n'a rien envoyé pendant trois intervalles.
+ */
+public final class TcpEventLoop implements AutoCloseable {
+
+    private static final int MISSED_HEARTBEATS = 3;
+
+    private final Selector selector;
+    private final Thread thread;
+    private final long heartbeatNanos;
+    private final long maxQueuedBytes;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    // connexions ouvertes, manipulées par le thread de la boucle uniquement
+    private final Set<TcpConnection> connections = new HashSet<>();
+    private volatile boolean closed;
+
+    public TcpEventLoop(String name, Duration heartbeatInterval) {
+        this(name, heartbeatInterval, TcpConnection.DEFAULT_MAX_QUEUED_BYTES);
+    }
+
+    // maxQueuedBytes : octets en attente d'envoi au plus par connexion
+    public TcpEventLoop(String name, Duration heartbeatInterval, long maxQueuedBytes) {
+        if (maxQueuedBytes <= 0) {
+            throw new IllegalArgumentException("maxQueuedBytes doit être positif");
+        }
+        this.maxQueuedBytes = maxQueuedBytes;
+        try {
+            this.selector = Selector.open();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.heartbeatNanos = heartbeatInterval.toNanos();
+        this.thread = new Thread(this::run, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Accepte les connexions entrantes sur address ; chacune reçoit le handler fourni.
+     * Renvoie le port réellement ouvert (utile avec le port 0).
+     */
+    public int listen(InetSocketAddress address, Supplier<FrameHandler> handlers) {
+        try {
+            ServerSocketChannel server = ServerSocketChannel.open();
+            server.bind(address);
+            server.configureBlocking(false);
+            execute(() -> {
+                try {
+                    server.register(selector, SelectionKey.OP_ACCEPT, handlers);
+                } catch (IOException e) {
+                    System.err.println("[TCP] Écoute impossible sur " + address + ": " + e.getMessage());
+                }
+            });
+            return ((InetSocketAddress) server.getLocalAddress()).getPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Ouvre une connexion sortante ; les trames envoyées avant l'établissement partent ensuite.
+     */
+    public TcpConnection connect(InetSocketAddress address, FrameHandler handler) {
+        try {
+            SocketChannel channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            boolean connected = channel.connect(address);
+            TcpConnection connection = new TcpConnection(this, channel, handler, address, maxQueuedBytes);
+            execute(() -> register(channel, connection, connected));
+            return connection;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        selector.wakeup();
+    }
+
+    void execute(Runnable task) {
+        tasks.add(task);
+        if (Thread.currentThread() != thread) {
+            selector.wakeup();
+        }
+    }
+
+    void closed(TcpConnection connection) {
+        connections.remove(connection);
+    }
+
+    private void register(SocketChannel channel, TcpConnection connection, boolean connected) {
+        try {
+            SelectionKey key = channel.register(selector, connected ? SelectionKey.OP_READ : SelectionKey.OP_CONNECT, connection);
+            connection.register(key, connected);
+            connections.add(connection);
+            if (connected) {
+                connection.flush();
+            }
+        } catch (IOException e) {
+            connection.close(e);
+        }
+    }
+
+    private void run() {
+        long selectMillis = Math.max(1, heartbeatNanos / 2_000_000);
+        long nextHeartbeat = System.nanoTime() + heartbeatNanos;
+        while (!closed) {
+            try {
+                // une trame mise en file depuis ce thread (réponse traitée sur place) n'attend pas le timeout
+                if (tasks.isEmpty()) {
+                    selector.select(selectMillis);
+                } else {
+                    selector.selectNow();
+                }
+            } catch (IOException e) {
+                System.err.println("[TCP] Erreur du selector: " + e.getMessage());
+                break;
+            }
+            for (Runnable task; (task = tasks.poll()) != null; ) {
+                task.run();
+            }
+            for (SelectionKey key : selector.selectedKeys()) {
+                handle(key);
+            }
+            selector.selectedKeys().clear();
+            long now = System.nanoTime();
+            if (now - nextHeartbeat >= 0) {
+                heartbeat(now);
+                nextHeartbeat = now + heartbeatNanos / 2;
+            }
+        }
+        for (TcpConnection connection : new ArrayList<>(connections)) {
+            connection.close(null);
+        }
+        for (SelectionKey key : selector.keys()) {
+            try {
+                key.channel().close();
+            } catch (IOException e) {
+                // fermeture au mieux
+            }
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            // fermeture au mieux
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void handle(SelectionKey key) {
+        if (!key.isValid()) {
+            return;
+        }
+        if (key.isAcceptable()) {
+            accept((ServerSocketChannel) key.channel(), (Supplier<FrameHandler>) key.attachment());
+            return;
+        }
+        TcpConnection connection = (TcpConnection) key.attachment();
+        if (key.isConnectable()) {
+            connection.finishConnect();
+            return;
+        }
+        if (key.isReadable()) {
+            connection.read();
+        }
+        if (key.isValid() && key.isWritable()) {
+            connection.flush();
+        }
+    }
+
+    private void accept(ServerSocketChannel server, Supplier<FrameHandler> handlers) {
+        try {
+            for (SocketChannel channel; (channel = server.accept()) != null; ) {
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                register(channel, new TcpConnection(this, channel, handlers.get(), channel.getRemoteAddress(), maxQueuedBytes), true);
+            }
+        } catch (IOException e) {
+            System.err.println("[TCP] Connexion entrante refusée: " + e.getMessage());
+        }
+    }
+
+    private void heartbeat(long now) {
+        for (TcpConnection connection : new ArrayList<>(connections)) {
+            if (now - connection.lastReadNanos > MISSED_HEARTBEATS * heartbeatNanos) {
+                connection.close(new IOException("Aucun heartbeat du pair depuis " + MISSED_HEARTBEATS + " intervalles"));
+            } else if (now - connection.lastWriteNanos >= heartbeatNanos) {
+                connection.send(Frames.ping());
+            }
+        }
+    }
+}
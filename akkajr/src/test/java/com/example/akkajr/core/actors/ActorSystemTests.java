@@ -6,17 +6,39 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
+import com.example.akkajr.core.metrics.ActorLatencySnapshot;
+import com.example.akkajr.core.metrics.DeadLetterCount;
+import com.example.akkajr.core.metrics.DeadLetterReport;
+import com.example.akkajr.core.metrics.HotActor;
+import com.example.akkajr.core.metrics.HotActorTracker;
+import com.example.akkajr.core.metrics.HotActorsReport;
+import com.example.akkajr.core.metrics.LatencyHistogram;
 import com.example.akkajr.core.metrics.MetricsSnapshot;
+import com.example.akkajr.core.metrics.SpaceSaving;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import reactor.core.publisher.Flux;
 
 class ActorSystemTests {
 
@@ -152,6 +174,33 @@ class ActorSystemTests {
         assertEquals(1, received.get(), "Exactly one message should be processed");
     }
 
+    @Test
+    void pausedActorsDoNotHoldThreadsAndResumeReschedulesThem() throws Exception {
+        system = new ActorSystem();
+        int actors = 100;
+        CountDownLatch latch = new CountDownLatch(actors);
+        AtomicInteger received = new AtomicInteger();
+        List<ActorRef> refs = new ArrayList<>();
+        for (int i = 0; i < actors; i++) {
+            ActorRef ref = system.actorOf(Props.create(PauseProbeActor.class, received, latch), "paused-" + i);
+            system.pause(ref);
+            ref.tell("pending", null);
+            refs.add(ref);
+        }
+
+        Thread.sleep(100);
+        assertEquals(0, received.get(), "Paused actors should not process messages");
+        assertEquals(actors, system.metricsSnapshot().getPausedActors());
+        long actorThreads = Thread.getAllStackTraces().keySet().stream()
+                .filter(t -> t.getName().startsWith("actor-"))
+                .count();
+        assertTrue(actorThreads < actors, "Paused actors should not each own a thread, found " + actorThreads);
+
+        refs.forEach(system::resume);
+        assertTrue(latch.await(2, TimeUnit.SECONDS), "Resumed actors should be rescheduled");
+        assertEquals(actors, received.get());
+    }
+
     @Test
     void poisonPillStopsActor() throws Exception {
         system = new ActorSystem();
@@ -228,7 +277,13 @@ class ActorSystemTests {
 
         assertTrue(latch.await(2, TimeUnit.SECONDS), "Messages not processed in time");
 
+        // the latch fires inside receive, the counter is updated right after it returns
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
         MetricsSnapshot after = system.metricsSnapshot();
+        while (after.getMessagesProcessed() - before.getMessagesProcessed() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+            after = system.metricsSnapshot();
+        }
         assertEquals(before.getTotalActors() + 1, after.getTotalActors(), "Actor count should increase by one");
         assertTrue(after.getMessagesProcessed() - before.getMessagesProcessed() >= 2, "Messages processed should have increased");
 
@@ -237,6 +292,903 @@ class ActorSystemTests {
         assertTrue(stopped.getActorsStopped() - before.getActorsStopped() >= 1, "Stopped counter should increase");
     }
 
+    @Test
+    void conflatingMailboxKeepsLatestValuePerKey() throws Exception {
+        system = new ActorSystem();
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch gate = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(5);
+        List<Object> received = Collections.synchronizedList(new ArrayList<>());
+
+        Props props = Props.create(GatedRecordingActor.class, entered, gate, done, received)
+                .withMailbox(MailboxType.conflating(m -> m instanceof Price p ? p.symbol() : null));
+        ActorRef ref = system.actorOf(props, "prices");
+
+        ref.tell("hold", null);
+        assertTrue(entered.await(2, TimeUnit.SECONDS), "Actor did not start processing");
+
+        ref.tell(new Price("A", 1), null);
+        ref.tell("x", null);
+        ref.tell(new Price("B", 1), null);
+        ref.tell(new Price("A", 2), null);
+        ref.tell("y", null);
+        ref.tell(new Price("B", 2), null);
+        ref.tell(new Price("A", 3), null);
+        gate.countDown();
+
+        assertTrue(done.await(2, TimeUnit.SECONDS), "Messages were not processed in time");
+        Thread.sleep(50);
+        assertEquals(List.of("hold", new Price("A", 3), "x", new Price("B", 2), "y"), received,
+                "Keyed updates should be conflated in place while other messages keep FIFO order");
+    }
+
+    @Test
+    void idleActorIsPassivatedAndTransparentlyReactivated() throws Exception {
+        system = new ActorSystem();
+        AtomicInteger incarnations = new AtomicInteger();
+        Props props = Props.create(SessionActor.class, incarnations).withPassivation(Duration.ofMillis(100));
+        ActorRef session = system.actorOf(props, "session-42");
+
+        CountDownLatch firstReply = new CountDownLatch(1);
+        AtomicReference<Object> reply = new AtomicReference<>();
+        ActorRef probe = system.actorOf(Props.create(ProbeActor.class, firstReply, reply), "session-probe");
+        session.tell("inc", null);
+        session.tell("inc", null);
+        session.tell("get", probe);
+        assertTrue(firstReply.await(2, TimeUnit.SECONDS));
+        assertEquals(2, reply.get());
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (system.metricsSnapshot().getPassivatedActors() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(1, system.metricsSnapshot().getPassivatedActors(), "Idle session should be passivated");
+        assertEquals(session, system.actorSelection("/user/session-42"), "Passivated actor path should stay resolvable");
+
+        CountDownLatch secondReply = new CountDownLatch(1);
+        ActorRef probe2 = system.actorOf(Props.create(ProbeActor.class, secondReply, reply), "session-probe-2");
+        session.tell("inc", null);
+        session.tell("get", probe2);
+        assertTrue(secondReply.await(2, TimeUnit.SECONDS), "Buffered messages should be replayed after reactivation");
+        assertEquals(3, reply.get(), "State should be restored from the passivation store");
+        assertEquals(2, incarnations.get(), "Actor should have been recreated from its props");
+        assertEquals(0, system.metricsSnapshot().getPassivatedActors());
+    }
+
+    @Test
+    void actorStoppedDuringReactivationIsStoppedOnce() throws Exception {
+        system = new ActorSystem();
+        AtomicInteger incarnations = new AtomicInteger();
+        AtomicInteger postStops = new AtomicInteger();
+        CountDownLatch reactivating = new CountDownLatch(1);
+        CountDownLatch gate = new CountDownLatch(1);
+        Props props = Props.create(SlowReactivationActor.class, incarnations, postStops, reactivating, gate)
+                .withPassivation(Duration.ofMillis(100));
+        ActorRef ref = system.actorOf(props, "slow-session");
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (system.metricsSnapshot().getPassivatedActors() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(1, postStops.get(), "Passivation should stop the first incarnation");
+        ref.tell("wake", null);
+        assertTrue(reactivating.await(2, TimeUnit.SECONDS));
+        // stop while the second incarnation is inside preStart
+        system.stop(ref);
+        gate.countDown();
+
+        deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (postStops.get() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(2, postStops.get(), "The instance created by the racing reactivation should be stopped");
+        Thread.sleep(50);
+        assertEquals(2, postStops.get());
+        assertEquals(0, system.metricsSnapshot().getPassivatedActors(), "Passivation should end exactly once");
+    }
+
+    public static class SlowReactivationActor extends Actor {
+        private final AtomicInteger incarnations;
+        private final AtomicInteger postStops;
+        private final CountDownLatch reactivating;
+        private final CountDownLatch gate;
+
+        public SlowReactivationActor(AtomicInteger incarnations, AtomicInteger postStops, CountDownLatch reactivating,
+                                     CountDownLatch gate) {
+            this.incarnations = incarnations;
+            this.postStops = postStops;
+            this.reactivating = reactivating;
+            this.gate = gate;
+        }
+
+        @Override
+        public void preStart() {
+            if (incarnations.incrementAndGet() == 2) {
+                reactivating.countDown();
+                try {
+                    gate.await(2, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        @Override
+        public void receive(Object message, ActorRef sender) {
+        }
+
+        @Override
+        public void postStop() {
+            postStops.incrementAndGet();
+        }
+    }
+
+    public static class SessionActor extends Actor {
+        private final AtomicInteger incarnations;
+        private int counter;
+
+        public SessionActor(AtomicInteger incarnations) {
+            this.incarnations = incarnations;
+        }
+
+        @Override
+        public void preStart() {
+            incarnations.incrementAndGet();
+        }
+
+        @Override
+        public void receive(Object message, ActorRef sender) {
+            if ("inc".equals(message)) {
+                counter++;
+            } else if ("get".equals(message)) {
+                sender.tell(counter, getContext().getSelf());
+            }
+        }
+
+        @Override
+        public void postStop() {
+            // releases the session; the state must already have been snapshotted
+            counter = 0;
+        }
+
+        @Override
+        public Object snapshotState() {
+            return counter;
+        }
+
+        @Override
+        public void restoreState(Object state) {
+            counter = (Integer) state;
+        }
+    }
+
+    @Test
+    void overflowMailboxSpillsToDiskAndReadsBackInOrder(@TempDir Path overflowDir) throws Exception {
+        system = new ActorSystem();
+        int total = 500;
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch gate = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(total + 1);
+        List<Object> received = Collections.synchronizedList(new ArrayList<>());
+
+        Props props = Props.create(GatedRecordingActor.class, entered, gate, done, received)
+                .withMailbox(MailboxType.overflowToDisk(16, overflowDir, MessageSerializer.java(), 4096));
+        ActorRef ref = system.actorOf(props, "backlog");
+
+        ref.tell("hold", null);
+        assertTrue(entered.await(2, TimeUnit.SECONDS), "Actor did not start processing");
+        for (int i = 0; i < total; i++) {
+            ref.tell(i, null);
+        }
+        assertEquals(total, system.metricsSnapshot().getTotalBacklog(), "Backlog should count spilled messages");
+        try (Stream<Path> files = Files.walk(overflowDir)) {
+            assertTrue(files.anyMatch(p -> p.getFileName().toString().startsWith("segment-")), "Backlog should spill to segment files");
+        }
+
+        gate.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS), "Spilled messages were not processed in time");
+        List<Object> expected = new ArrayList<>();
+        expected.add("hold");
+        for (int i = 0; i < total; i++) {
+            expected.add(i);
+        }
+        assertEquals(expected, received, "Spilled messages should be read back in FIFO order");
+
+        system.stop(ref);
+        try (Stream<Path> files = Files.walk(overflowDir)) {
+            assertEquals(1, files.count(), "Segment files should be deleted once the actor stops");
+        }
+    }
+
+    @Test
+    void concurrentProducersSpillingToDiskKeepTheirOwnOrder(@TempDir Path overflowDir) throws Exception {
+        system = new ActorSystem();
+        int producers = 4;
+        int perProducer = 300;
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch gate = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(producers * perProducer + 1);
+        List<Object> received = Collections.synchronizedList(new ArrayList<>());
+
+        // small segments so producers keep racing to create and link the next one
+        Props props = Props.create(GatedRecordingActor.class, entered, gate, done, received)
+                .withMailbox(MailboxType.overflowToDisk(8, overflowDir, MessageSerializer.java(), 512));
+        ActorRef ref = system.actorOf(props, "backlog-concurrent");
+
+        ref.tell("hold", null);
+        assertTrue(entered.await(2, TimeUnit.SECONDS), "Actor did not start processing");
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    ref.tell(producer + ":" + i, null);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        // let the consumer run while the producers are still spilling
+        gate.countDown();
+        for (Thread thread : threads) {
+            thread.join(5000);
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS), "Spilled messages were not processed in time");
+        int[] next = new int[producers];
+        for (Object message : received.subList(1, received.size())) {
+            String[] parts = ((String) message).split(":");
+            int producer = Integer.parseInt(parts[0]);
+            assertEquals(next[producer]++, Integer.parseInt(parts[1]), "Messages of producer " + producer + " out of order");
+        }
+
+        system.stop(ref);
+        try (Stream<Path> files = Files.walk(overflowDir)) {
+            assertEquals(1, files.count(), "Segment files should be deleted once the actor stops");
+        }
+    }
+
+    @Test
+    void poisonPillStopsActorWhoseBacklogSpilledToDisk(@TempDir Path overflowDir) throws Exception {
+        system = new ActorSystem();
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch gate = new CountDownLatch(1);
+        CountDownLatch stopped = new CountDownLatch(1);
+        Props props = Props.create(GatedStopAwareActor.class, entered, gate, stopped)
+                .withMailbox(MailboxType.overflowToDisk(4, overflowDir, MessageSerializer.java(), 4096));
+        ActorRef ref = system.actorOf(props, "backlog-stop");
+
+        ref.tell("hold", null);
+        assertTrue(entered.await(2, TimeUnit.SECONDS), "Actor did not start processing");
+        for (int i = 0; i < 20; i++) {
+            ref.tell(i, null);
+        }
+        // the in-memory head is full: the PoisonPill itself has to go through the disk segments
+        system.sendPoisonPill(ref);
+        gate.countDown();
+
+        assertTrue(stopped.await(5, TimeUnit.SECONDS), "postStop should run once the spilled PoisonPill is read back");
+        assertEquals(0, system.metricsSnapshot().getDeadLetters(), "The PoisonPill should not become a dead letter");
+    }
+
+    @Test
+    void latencyHistogramsSeparateMailboxWaitFromServiceTime() throws Exception {
+        system = new ActorSystem();
+        CountDownLatch done = new CountDownLatch(5);
+        ActorRef slow = system.actorOf(Props.create(SleepingActor.class, 20L, done), "slow");
+        for (int i = 0; i < 5; i++) {
+            slow.tell("work-" + i, null);
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+
+        // the latch fires inside receive, the service time is recorded right after it returns
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        ActorLatencySnapshot latency = sleepingActorLatency();
+        while (latency.getServiceTime().getCount() < 5 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+            latency = sleepingActorLatency();
+        }
+        assertEquals(5, latency.getServiceTime().getCount());
+        assertEquals(5, latency.getMailboxWait().getCount());
+        // every handler call sleeps 20ms, and the last message waited behind the four before it
+        assertTrue(latency.getServiceTime().getP50() >= TimeUnit.MILLISECONDS.toNanos(18));
+        assertTrue(latency.getMailboxWait().getMax() >= TimeUnit.MILLISECONDS.toNanos(70));
+    }
+
+    private ActorLatencySnapshot sleepingActorLatency() {
+        return system.latencySnapshots().stream()
+                .filter(s -> s.getActorClass().equals(SleepingActor.class.getName()))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    @Test
+    void latencyHistogramKeepsPercentilesWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long v = 1; v <= 1000; v++) {
+            histogram.record(v * 1000);
+        }
+        assertEquals(1000, histogram.count());
+        assertEquals(1_000_000, histogram.max());
+        assertTrue(Math.abs(histogram.valueAtPercentile(50) - 500_000) <= 500_000 / 16);
+        assertTrue(Math.abs(histogram.valueAtPercentile(99) - 990_000) <= 990_000 / 16);
+        assertEquals(1_000_000, histogram.valueAtPercentile(100));
+    }
+
+    @Test
+    void flightRecorderEventsAreEmittedOnlyWhenEnabled(@TempDir Path dir) throws Exception {
+        system = new ActorSystem();
+        Path dump = dir.resolve("actors.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.example.akkajr.MessageProcessed").withThreshold(Duration.ZERO);
+            recording.enable("com.example.akkajr.MessageFailed");
+            recording.enable("com.example.akkajr.ActorStarted").withThreshold(Duration.ZERO);
+            recording.start();
+            CountDownLatch done = new CountDownLatch(2);
+            ActorRef probe = system.actorOf(Props.create(SleepingActor.class, 0L, done), "jfr-probe");
+            probe.tell("one", null);
+            probe.tell("two", null);
+            assertTrue(done.await(2, TimeUnit.SECONDS));
+            // the event is committed right after receive returns, just before the counter moves
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+            while (system.metricsSnapshot().getMessagesProcessed() < 2 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+        long processed = events.stream()
+                .filter(e -> e.getEventType().getName().equals("com.example.akkajr.MessageProcessed"))
+                .filter(e -> "/user/jfr-probe".equals(e.getString("path")))
+                .count();
+        assertEquals(2, processed);
+        assertTrue(events.stream().anyMatch(e -> e.getEventType().getName().equals("com.example.akkajr.ActorStarted")
+                && "/user/jfr-probe".equals(e.getString("path"))));
+        // not enabled in this recording
+        assertTrue(events.stream().noneMatch(e -> e.getEventType().getName().equals("com.example.akkajr.MessageEnqueued")));
+    }
+
+    @Test
+    void traceContextFlowsThroughTellChains() throws Exception {
+        system = new ActorSystem();
+        List<String[]> seen = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(1);
+        ActorRef last = system.actorOf(Props.create(TraceRelayActor.class, seen, null, done), "notification");
+        ActorRef middle = system.actorOf(Props.create(TraceRelayActor.class, seen, last, null), "payment");
+        ActorRef first = system.actorOf(Props.create(TraceRelayActor.class, seen, middle, null), "order");
+
+        first.tell("order-1", null);
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+
+        assertEquals(3, seen.size());
+        String traceId = seen.get(0)[0];
+        assertNotNull(traceId);
+        assertNull(seen.get(0)[2]);
+        for (int i = 1; i < 3; i++) {
+            assertEquals(traceId, seen.get(i)[0]);
+            // each hop's parent is the span of the message that caused it
+            assertEquals(seen.get(i - 1)[1], seen.get(i)[2]);
+        }
+        assertNull(TraceContext.currentTraceId());
+    }
+
+    @Test
+    void tracingCanBeTurnedOff() throws Exception {
+        system = new ActorSystem();
+        system.setTracingEnabled(false);
+        List<String[]> seen = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(1);
+        ActorRef last = system.actorOf(Props.create(TraceRelayActor.class, seen, null, done), "untraced-last");
+        ActorRef first = system.actorOf(Props.create(TraceRelayActor.class, seen, last, null), "untraced-first");
+
+        first.tell("ping", null);
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+
+        assertEquals(2, seen.size());
+        for (String[] ids : seen) {
+            assertNull(ids[0]);
+            assertNull(ids[1]);
+        }
+    }
+
+    public static class TraceRelayActor extends Actor {
+        private final List<String[]> seen;
+        private final ActorRef next;
+        private final CountDownLatch done;
+
+        public TraceRelayActor(List<String[]> seen, ActorRef next, CountDownLatch done) {
+            this.seen = seen;
+            this.next = next;
+            this.done = done;
+        }
+
+        @Override
+        public void receive(Object message, ActorRef sender) {
+            seen.add(new String[] {TraceContext.currentTraceId(), TraceContext.currentSpanId(), TraceContext.currentParentSpanId()});
+            if (next != null) {
+                next.tell(message, getContext().getSelf());
+            } else {
+                done.countDown();
+            }
+        }
+    }
+
+    @Test
+    void processedEventsAreSampledButFailuresAlwaysKept() throws Exception {
+        system = new ActorSystem();
+        system.setEventsPerSecondTarget(10);
+        int total = 2000;
+        CountDownLatch done = new CountDownLatch(total);
+        ActorRef flaky = system.actorOf(Props.create(FailOnBoomActor.class, done), "flaky");
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < total - 1; i++) {
+            flaky.tell("ok", null);
+        }
+        flaky.tell("boom", null);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        long windows = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startedAt) + 1;
+
+        // the failure is recorded right after receive throws
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (system.eventSamplingStats().getFailuresRecorded() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        var stats = system.eventSamplingStats();
+        assertEquals(total - 1, stats.getProcessedSeen());
+        assertTrue(stats.getProcessedRecorded() <= 10 * windows, "recorded " + stats.getProcessedRecorded());
+        assertEquals(stats.getProcessedSeen() - stats.getProcessedRecorded(), stats.getProcessedSampledOut());
+        assertEquals(1, stats.getFailuresRecorded());
+        assertTrue(system.recentEvents().stream().anyMatch(e -> e.getType().equals("failed") && e.getPath().equals("/user/flaky")));
+    }
+
+    public static class FailOnBoomActor extends Actor {
+        private final CountDownLatch done;
+
+        public FailOnBoomActor(CountDownLatch done) {
+            this.done = done;
+        }
+
+        @Override
+        public void receive(Object message, ActorRef sender) {
+            done.countDown();
+            if ("boom".equals(message)) {
+                throw new IllegalStateException("boom");
+            }
+        }
+    }
+
+    @Test
+    void undeliverableMessagesAreCountedAsDeadLetters() throws Exception {
+        system = new ActorSystem();
+        ActorRef sender = system.actorOf(Props.create(NoopActor.class), "dl-sender");
+        ActorRef paused = system.actorOf(Props.create(NoopActor.class), "dl-paused");
+        system.pause(paused);
+        paused.tell("queued-1", sender);
+        paused.tell("queued-2", sender);
+        system.stop(paused);
+        for (int i = 0; i < 3; i++) {
+            paused.tell("late", sender);
+        }
+        paused.tell(42, null);
+
+        DeadLetterReport report = system.deadLetterReport();
+        assertEquals(6, report.getTotal());
+        assertEquals(6, system.metricsSnapshot().getDeadLetters());
+        DeadLetterCount top = report.getEntries().get(0);
+        assertEquals("/user/dl-sender", top.getSender());
+        assertEquals("/user/dl-paused", top.getRecipient());
+        assertEquals(String.class.getName(), top.getMessageClass());
+        assertEquals(5, top.getCount());
+        assertEquals(2, report.getEntries().size());
+    }
+
+    @Test
+    void deadLetterTableStaysBounded() {
+        system = new ActorSystem();
+        int recipients = DeadLetters.MAX_ENTRIES + 50;
+        for (int i = 0; i < recipients; i++) {
+            system.publishDeadLetter("lost", null, "/user/missing-" + i);
+        }
+        DeadLetterReport report = system.deadLetterReport();
+        assertEquals(recipients, report.getTotal());
+        assertEquals(DeadLetters.MAX_ENTRIES, report.getEntries().size());
+        assertEquals(50, report.getOther());
+    }
+
+    @Test
+    void propsResolveNamedDispatchersAndMailboxesFromSettings() throws Exception {
+        ActorSystemSettings settings = ActorSystemSettings.defaults()
+                .withDispatcher("io", new ActorSystemSettings.DispatcherSettings(2, 1))
+                .withMailbox("small", MailboxType.bounded(2));
+        system = new ActorSystem(null, settings);
+
+        AtomicReference<String> thread = new AtomicReference<>();
+        CountDownLatch ran = new CountDownLatch(1);
+        ActorRef io = system.actorOf(Props.create(ThreadProbeActor.class, thread, ran).withDispatcher("io"), "io-worker");
+        io.tell("where", null);
+        assertTrue(ran.await(2, TimeUnit.SECONDS));
+        assertTrue(thread.get().startsWith("actor-dispatcher-io-"), thread.get());
+
+        ActorRef bounded = system.actorOf(Props.create(NoopActor.class).withMailbox("small"), "bounded");
+        system.pause(bounded);
+        for (int i = 0; i < 5; i++) {
+            bounded.tell("m" + i, null);
+        }
+        assertEquals(3, system.deadLetterReport().getTotal(), "Messages beyond capacity become dead letters");
+
+        assertThrows(IllegalArgumentException.class, () -> system.actorOf(Props.create(NoopActor.class).withDispatcher("missing")));
+        assertThrows(IllegalArgumentException.class, () -> system.actorOf(Props.create(NoopActor.class).withMailbox("missing")));
+    }
+
+    @Test
+    void configurationPropertiesBuildSettings() {
+        ActorSystemProperties properties = new ActorSystemProperties();
+        ActorSystemProperties.Dispatcher io = new ActorSystemProperties.Dispatcher();
+        io.setThreads(4);
+        io.setThroughput(1);
+        properties.getDispatchers().put("io", io);
+        ActorSystemProperties.Mailbox ingest = new ActorSystemProperties.Mailbox();
+        ingest.setType("bounded");
+        ingest.setCapacity(100);
+        properties.getMailboxes().put("ingest", ingest);
+        properties.getEvents().setBufferSize(500);
+        properties.getHealth().setBacklogThreshold(5000L);
+        properties.getMetrics().setCardinality(com.example.akkajr.core.metrics.MetricCardinality.PER_CLASS);
+
+        ActorSystemSettings settings = properties.toSettings();
+        assertEquals(new ActorSystemSettings.DispatcherSettings(4, 1), settings.dispatchers().get("io"));
+        assertNotNull(settings.dispatchers().get(ActorSystemSettings.DEFAULT_DISPATCHER));
+        assertEquals("bounded", settings.mailboxes().get("ingest").name());
+        assertEquals(500, settings.eventBufferSize());
+        assertEquals(5000L, settings.backlogThreshold());
+        assertEquals(com.example.akkajr.core.metrics.MetricCardinality.PER_CLASS, settings.metricCardinality());
+
+        ActorSystemProperties.Mailbox broken = new ActorSystemProperties.Mailbox();
+        broken.setType("bounded");
+        properties.getMailboxes().put("broken", broken);
+        assertThrows(IllegalArgumentException.class, properties::toSettings);
+    }
+
+    @Test
+    void subscriberKeepsMailboxWithinWindow() throws Exception {
+        system = new ActorSystem();
+        List<Object> received = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger maxBacklog = new AtomicInteger();
+        CountDownLatch completed = new CountDownLatch(1);
+        ActorRef sink = system.actorOf(Props.create(StreamSinkActor.class, received, maxBacklog, completed), "sink");
+
+        Flux.range(0, 1000).subscribe(ActorStreams.subscriber(sink, 16));
+
+        assertTrue(completed.await(5, TimeUnit.SECONDS), "Completion should reach the actor");
+        assertEquals(1000, received.size());
+        assertEquals(999, received.get(999), "Elements keep their order");
+        // the completion signal may be queued behind a full window
+        assertTrue(maxBacklog.get() <= 16 + 1, "Mailbox backlog stays within the window, was " + maxBacklog.get());
+    }
+
+    @Test
+    void publisherEmitsToldMessagesAndBuffersUpToLimit() {
+        system = new ActorSystem();
+        ActorPublisher<Integer> publisher = ActorStreams.publisher(system, Integer.class, 10);
+        for (int i = 0; i < 15; i++) {
+            publisher.ref().tell(i, null);
+        }
+        publisher.ref().tell("not an element", null);
+        publisher.ref().tell(new ActorStreams.StreamCompleted(), null);
+
+        List<Integer> emitted = Flux.from(publisher).limitRate(3).collectList().block(Duration.ofSeconds(5));
+
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), emitted, "Elements beyond the buffer are dropped without a subscriber");
+        assertEquals(6, system.deadLetterReport().getTotal(), "Overflow and foreign messages become dead letters");
+    }
+
+    @Test
+    void wildcardSelectionFansOutFromTheIndex() throws Exception {
+        system = new ActorSystem();
+        AtomicInteger received = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(3);
+        ActorRef supervisor = system.actorOf(Props.create(NoopActor.class), "supervisor");
+        ActorRef worker1 = system.actorOfChild(Props.create(CountingActor.class, received, latch), "worker-1", supervisor);
+        system.actorOfChild(Props.create(CountingActor.class, received, latch), "worker-2", supervisor);
+        system.actorOfChild(Props.create(CountingActor.class, received, latch), "audit", supervisor);
+        system.actorOfChild(Props.create(NoopActor.class), "leaf", worker1);
+        system.actorOf(Props.create(NoopActor.class), "other");
+
+        system.select("/user/supervisor/*").tell("ping", null);
+        assertTrue(latch.await(2, TimeUnit.SECONDS), "Every direct child should receive the broadcast");
+        assertEquals(3, received.get());
+
+        assertEquals(2, system.select("/user/supervisor/worker-*").resolve().size());
+        assertEquals(5, system.select("/user/supervisor/**").resolve().size(), "** includes the root of the subtree");
+        assertEquals(List.of(worker1), system.select("/user/*/worker-1").resolve());
+        assertEquals(6, system.select("/user/**").resolve().size(), "Guardians are never selected");
+
+        system.stop(worker1);
+        assertEquals(List.of(), system.select("/user/supervisor/worker-1/**").resolve(), "Stopped subtrees leave the index");
+        system.select("/user/nobody/*").tell("lost", null);
+        assertEquals(1, system.deadLetterReport().getTotal(), "An empty selection yields a dead letter");
+        assertThrows(IllegalArgumentException.class, () -> system.select("user//x"));
+    }
+
+    @Test
+    void spinningDispatchersRunTurnsOnTheirOwnThreads() throws Exception {
+        ActorSystemSettings settings = ActorSystemSettings.defaults()
+                .withDispatcher("spin", new ActorSystemSettings.DispatcherSettings(1, 10, IdleStrategy.BUSY_SPIN))
+                .withDispatcher("backoff", new ActorSystemSettings.DispatcherSettings(2, 10, IdleStrategy.BACKOFF));
+        system = new ActorSystem(null, settings);
+        for (String dispatcher : List.of("spin", "backoff")) {
+            AtomicInteger received = new AtomicInteger();
+            CountDownLatch latch = new CountDownLatch(200);
+            ActorRef counter = system.actorOf(Props.create(CountingActor.class, received, latch).withDispatcher(dispatcher), "counter-" + dispatcher);
+            for (int i = 0; i < 100; i++) {
+                counter.tell(i, null);
+            }
+            // a backoff worker is parked by now; the next message must wake it up
+            Thread.sleep(50);
+            for (int i = 0; i < 100; i++) {
+                counter.tell(i, null);
+            }
+            assertTrue(latch.await(2, TimeUnit.SECONDS), "All messages should be processed on " + dispatcher);
+
+            AtomicReference<String> thread = new AtomicReference<>();
+            CountDownLatch ran = new CountDownLatch(1);
+            system.actorOf(Props.create(ThreadProbeActor.class, thread, ran).withDispatcher(dispatcher)).tell("where", null);
+            assertTrue(ran.await(2, TimeUnit.SECONDS));
+            assertTrue(thread.get().startsWith("actor-dispatcher-" + dispatcher + "-"), "Unexpected thread " + thread.get());
+        }
+
+        ActorSystemProperties properties = new ActorSystemProperties();
+        ActorSystemProperties.Dispatcher rpc = new ActorSystemProperties.Dispatcher();
+        rpc.setIdleStrategy(IdleStrategy.BACKOFF);
+        properties.getDispatchers().put("rpc", rpc);
+        assertEquals(IdleStrategy.BACKOFF, properties.toSettings().dispatchers().get("rpc").idleStrategy());
+        assertEquals(IdleStrategy.BLOCKING, ActorSystemSettings.defaults().dispatchers().get(ActorSystemSettings.DEFAULT_DISPATCHER).idleStrategy());
+    }
+
+    @Test
+    void ringMailboxKeepsPerProducerOrderAndRejectsWhenFull() throws Exception {
+        system = new ActorSystem();
+        system.setTracingEnabled(false);
+        int producers = 4;
+        int perProducer = 5000;
+        CountDownLatch latch = new CountDownLatch(producers * perProducer);
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+        ActorRef ring = system.actorOf(Props.create(FifoProbeActor.class, latch, received).withMailbox(MailboxType.ring(64)), "ring");
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            String prefix = "p" + p + "-";
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    // a full ring rejects, so senders are expected to retry or slow down
+                    while (ring.cell().remainingCapacity() == 0) {
+                        Thread.onSpinWait();
+                    }
+                    ring.tell(prefix + i, null);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        // producers racing for the last free slot may still see a rejection
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (received.size() + system.deadLetterReport().getTotal() < producers * perProducer && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(producers * perProducer, received.size() + system.deadLetterReport().getTotal(), "Every message is delivered or dead-lettered");
+        int[] next = new int[producers];
+        synchronized (received) {
+            for (String message : received) {
+                int producer = message.charAt(1) - '0';
+                int index = Integer.parseInt(message.substring(3));
+                assertTrue(index >= next[producer], "Messages of " + producer + " out of order");
+                next[producer] = index + 1;
+            }
+        }
+
+        ActorRef paused = system.actorOf(Props.create(NoopActor.class).withMailbox(MailboxType.ring(3)), "paused-ring");
+        system.pause(paused);
+        long before = system.deadLetterReport().getTotal();
+        for (int i = 0; i < 6; i++) {
+            paused.tell(i, null);
+        }
+        assertEquals(4, paused.cell().mailboxSize(), "Capacity is rounded up to a power of two");
+        assertEquals(before + 2, system.deadLetterReport().getTotal(), "Messages sent to a full ring become dead letters");
+        system.stop(paused);
+        assertEquals(before + 6, system.deadLetterReport().getTotal(), "Queued messages are drained to dead letters on stop");
+    }
+
+    @Test
+    void hotActorsAreRankedFromConstantSizeSummaries() throws Exception {
+        SpaceSaving summary = new SpaceSaving(4, SpaceSaving.Aggregation.SUM);
+        summary.offer("/user/heavy", 100);
+        summary.offer("/user/medium", 50);
+        for (int i = 0; i < 100; i++) {
+            summary.offer("/user/noise-" + i, 1);
+        }
+        List<HotActor> top = summary.top(2);
+        assertEquals("/user/heavy", top.get(0).getPath());
+        assertEquals("/user/medium", top.get(1).getPath());
+        assertTrue(top.get(0).getValue() - top.get(0).getError() <= 100 && top.get(0).getValue() >= 100);
+
+        AtomicLong now = new AtomicLong();
+        HotActorTracker tracker = new HotActorTracker(16, Duration.ofSeconds(10), now::get);
+        tracker.recordTurn("/user/a", 10, 5_000_000, 3);
+        tracker.recordBacklog("/user/b", 128);
+        now.addAndGet(TimeUnit.SECONDS.toNanos(12));
+        tracker.recordTurn("/user/a", 5, 1_000_000, 0);
+        HotActorsReport report = tracker.top(5);
+        assertEquals(15, report.getByMessages().get(0).getValue(), "The previous window is still reported");
+        assertEquals(6_000, report.getByProcessingTimeMicros().get(0).getValue());
+        assertEquals("/user/b", report.getByBacklog().get(0).getPath());
+        now.addAndGet(TimeUnit.SECONDS.toNanos(25));
+        assertTrue(tracker.top(5).getByMessages().isEmpty(), "Activity older than two windows is forgotten");
+
+        system = new ActorSystem();
+        AtomicInteger received = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(55);
+        ActorRef busy = system.actorOf(Props.create(CountingActor.class, received, latch), "busy");
+        ActorRef quiet = system.actorOf(Props.create(CountingActor.class, received, latch), "quiet");
+        for (int i = 0; i < 50; i++) {
+            busy.tell(i, null);
+        }
+        for (int i = 0; i < 5; i++) {
+            quiet.tell(i, null);
+        }
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        // turns are accounted right after the last receive returns
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (totalMessages(system.topActors(10)) < 55 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        List<HotActor> byMessages = system.topActors(10).getByMessages();
+        assertEquals("/user/busy", byMessages.get(0).getPath());
+        assertEquals(50, byMessages.get(0).getValue());
+        assertThrows(IllegalArgumentException.class, () -> system.topActors(0));
+    }
+
+    @Test
+    void hotActorTrackerMergesConcurrentTurnsWithoutLosingCounts() throws Exception {
+        SpaceSaving summary = new SpaceSaving(8, SpaceSaving.Aggregation.SUM);
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            summary.offer(i % 5 == 0 ? "/user/heavy" : "/user/noise-" + random.nextInt(500), 1);
+        }
+        HotActor heavy = summary.top(1).get(0);
+        assertEquals("/user/heavy", heavy.getPath());
+        assertTrue(heavy.getValue() - heavy.getError() <= 2_000 && heavy.getValue() >= 2_000);
+
+        HotActorTracker tracker = new HotActorTracker(64, Duration.ofMinutes(1));
+        int threads = 4;
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    tracker.recordTurn("/user/actor-" + (i % 16), 1, 1_000, id);
+                }
+                done.countDown();
+            }).start();
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        HotActorsReport report = tracker.top(64);
+        assertEquals(16, report.getByMessages().size());
+        assertEquals(threads * 10_000L, totalMessages(report));
+        assertEquals(threads - 1, report.getByBacklog().get(0).getValue());
+    }
+
+    private static long totalMessages(HotActorsReport report) {
+        return report.getByMessages().stream().mapToLong(HotActor::getValue).sum();
+    }
+
+    public static class ThreadProbeActor extends Actor {
+        private final AtomicReference<String> thread;
+        private final CountDownLatch ran;
+
+        public ThreadProbeActor(AtomicReference<String> thread, CountDownLatch ran) {
+            this.thread = thread;
+            this.ran = ran;
+        }
+
+        @Override
+        public void receive(Object message, ActorRef sender) {
+            thread.set(Thread.currentThread().getName());
+            ran.countDown();
+        }
+    }
+
+    public static class StreamSinkActor extends Actor {
+        private final List<Object> received;
+        private final AtomicInteger maxBacklog;
+        private final CountDownLatch completed;
+
+        public StreamSinkActor(List<Object> received, AtomicInteger maxBacklog, CountDownLatch completed) {
+            this.received = received;
+            this.maxBacklog = maxBacklog;
+            this.completed = completed;
+        }
+
+        @Override
+        public void receive(Object message, ActorRef sender) {
+            if (message instanceof ActorStreams.StreamCompleted) {
+                completed.countDown();
+                return;
+            }
+            // the message being processed has left the mailbox, so count it back in
+            maxBacklog.accumulateAndGet(getContext().getSelf().cell().mailboxSize() + 1, Math::max);
+            received.add(message);
+        }
+    }
+
+    public static class SleepingActor extends Actor {
+        private final long millis;
+        private final CountDownLatch done;
+
+        public SleepingActor(Long millis, CountDownLatch done) {
+            this.millis = millis;
+            this.done = done;
+        }
+
+        @Override
+        public void receive(Object message, ActorRef sender) throws Exception {
+            Thread.sleep(millis);
+            done.countDown();
+        }
+    }
+
+    public record Price(String symbol, int value) {}
+
+    public static class GatedRecordingActor extends Actor {
+        private final CountDownLatch entered;
+        private final CountDownLatch gate;
+        private final CountDownLatch done;
+        private final List<Object> received;
+
+        public GatedRecordingActor(CountDownLatch entered, CountDownLatch gate, CountDownLatch done, List<Object> received) {
+            this.entered = entered;
+            this.gate = gate;
+            this.done = done;
+            this.received = received;
+        }
+
+        @Override
+        public void receive(Object message, ActorRef sender) throws Exception {
+            received.add(message);
+            if ("hold".equals(message)) {
+                entered.countDown();
+                gate.await(2, TimeUnit.SECONDS);
+            }
+            done.countDown();
+        }
+    }
+
+    public static class GatedStopAwareActor extends Actor {
+        private final CountDownLatch entered;
+        private final CountDownLatch gate;
+        private final CountDownLatch stopped;
+
+        public GatedStopAwareActor(CountDownLatch entered, CountDownLatch gate, CountDownLatch stopped) {
+            this.entered = entered;
+            this.gate = gate;
+            this.stopped = stopped;
+        }
+
+        @Override
+        public void receive(Object message, ActorRef sender) throws Exception {
+            if ("hold".equals(message)) {
+                entered.countDown();
+                gate.await(2, TimeUnit.SECONDS);
+            }
+        }
+
+        @Override
+        public void postStop() {
+            stopped.countDown();
+        }
+    }
+
     // Simple probe actor for testing message delivery
     public static class ProbeActor extends Actor {
         private final CountDownLatch latch;
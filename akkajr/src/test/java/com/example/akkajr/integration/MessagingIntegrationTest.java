@@ -11,8 +11,11 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -54,6 +57,29 @@ class MessagingIntegrationTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void testTellBatchDeliversMessagesInOrder() throws Exception {
+        List<Map<String, String>> batch = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Map<String, String> message = new HashMap<>();
+            message.put("senderId", "actor1");
+            message.put("receiverId", "batch-receiver");
+            message.put("content", "Batch " + i);
+            batch.add(message);
+        }
+
+        mockMvc.perform(post("/api/messages/tell/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/messages/inbox/batch-receiver"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].content").value("Batch 0"))
+                .andExpect(jsonPath("$[2].content").value("Batch 2"));
+    }
+
     @Test
     void testAskMessage() throws Exception {
         Map<String, String> message = new HashMap<>();
@@ -144,6 +170,31 @@ class MessagingIntegrationTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void testAskIsAnsweredWithoutHoldingTheRequestThread() throws Exception {
+        Map<String, String> askMessage = new HashMap<>();
+        askMessage.put("senderId", "actor1");
+        askMessage.put("receiverId", "async-responder");
+        askMessage.put("content", "Question?");
+
+        // La requête rend la main tout de suite, la réponse part à la réception du reply
+        MvcResult pending = mockMvc.perform(post("/api/messages/ask")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(askMessage)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(post("/api/messages/reply")
+                .param("agentId", "async-responder")
+                .contentType(MediaType.TEXT_PLAIN)
+                .content("Answer"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Answer"));
+    }
+
     @Test
     void testMessageBlocking() throws Exception {
         // Envoyer un ASK
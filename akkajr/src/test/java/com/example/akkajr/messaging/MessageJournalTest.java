@@ -0,0 +1,116 @@
+package com.example.akkajr.messaging;
+import com.example.akkajr.messaging.mailbox.MessageJournal;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageJournalTest {
+
+    @TempDir
+    Path dir;
+
+    private final AtomicLong now = new AtomicLong(1_000);
+
+    // Petits segments pour forcer plusieurs fichiers et plusieurs entrées d'index par segment
+    private MessageJournal open() {
+        return new MessageJournal(dir, 16 * 1024, 100, Duration.ofSeconds(1), now::getAndIncrement);
+    }
+
+    private static String content(int i) {
+        return "message-" + i + "-" + "x".repeat(100);
+    }
+
+    @Test
+    void testAppendRollsSegmentsAndReplaysFromOffset() {
+        // Arrange
+        try (MessageJournal journal = open()) {
+            for (int i = 0; i < 1000; i++) {
+                Message msg = i % 10 == 0 ? new AskMessage("agentA", "agentB", content(i)) : new Message("agentA", "agentB", content(i));
+                if (msg instanceof AskMessage ask) {
+                    ask.setCorrelationId("corr-" + i);
+                }
+                assertEquals(i, journal.append(msg));
+            }
+
+            // Act
+            List<MessageJournal.Entry> entries = new ArrayList<>();
+            long next = journal.replay(537, 50, entries::add);
+
+            // Assert
+            assertTrue(journal.segmentCount() > 3, "Le journal devrait être découpé en segments");
+            assertEquals(50, entries.size());
+            assertEquals(537, entries.get(0).offset());
+            assertEquals(content(537), entries.get(0).message().getContent());
+            assertInstanceOf(AskMessage.class, entries.get(3).message());
+            assertEquals("corr-540", ((AskMessage) entries.get(3).message()).getCorrelationId());
+            assertEquals(587, next);
+        }
+    }
+
+    @Test
+    void testReopenKeepsHistoryAndReplaysSinceTimestamp() {
+        // Arrange
+        try (MessageJournal journal = open()) {
+            for (int i = 0; i < 500; i++) {
+                journal.append(new Message("agentA", "agentB", content(i)));
+            }
+        }
+
+        // Act
+        try (MessageJournal journal = open()) {
+            journal.append(new Message("agentA", "agentB", content(500)));
+            List<MessageJournal.Entry> entries = new ArrayList<>();
+            // les dates d'écriture valent 1000, 1001, ... : 1300 correspond à l'offset 300
+            long next = journal.replaySince(1_300, 1_000, entries::add);
+
+            // Assert
+            assertEquals(501, journal.nextOffset());
+            assertEquals(201, entries.size());
+            assertEquals(300, entries.get(0).offset());
+            assertEquals(content(500), entries.get(200).message().getContent());
+            assertEquals(501, next);
+        }
+    }
+
+    @Test
+    void testTornWriteIsTruncatedOnRecovery() throws Exception {
+        // Arrange
+        try (MessageJournal journal = open()) {
+            for (int i = 0; i < 10; i++) {
+                journal.append(new Message("agentA", "agentB", content(i)));
+            }
+        }
+        Path lastSegment;
+        try (Stream<Path> files = Files.list(dir)) {
+            lastSegment = files.filter(p -> p.toString().endsWith(".log")).sorted().reduce((a, b) -> b).orElseThrow();
+        }
+        // Simuler un arrêt en pleine écriture : un en-tête de message sans son contenu
+        try (FileChannel channel = FileChannel.open(lastSegment, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.allocate(12).putInt(500).putInt(42).putInt(7).flip());
+        }
+
+        // Act
+        try (MessageJournal journal = open()) {
+            long offset = journal.append(new Message("agentA", "agentB", "after restart"));
+            List<MessageJournal.Entry> entries = new ArrayList<>();
+            journal.replay(0, 100, entries::add);
+
+            // Assert
+            assertEquals(10, offset);
+            assertEquals(11, entries.size());
+            assertEquals("after restart", entries.get(10).message().getContent());
+        }
+    }
+}
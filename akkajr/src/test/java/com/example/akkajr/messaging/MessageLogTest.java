@@ -0,0 +1,179 @@
+package com.example.akkajr.messaging;
+import com.example.akkajr.messaging.mailbox.MessageLog;
+import com.example.akkajr.messaging.mailbox.MessageQuery;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageLogTest {
+
+    private final AtomicLong now = new AtomicLong(1_000);
+
+    private MessageLog log(int capacity, Duration maxAge) {
+        return new MessageLog(capacity, maxAge, now::get);
+    }
+
+    @Test
+    void testSizeRetentionKeepsNewestMessages() {
+        // Arrange
+        MessageLog log = log(3, Duration.ZERO);
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            log.log(new Message("agentA", "agentB", "m" + i));
+        }
+
+        // Assert
+        var all = log.getAll();
+        assertEquals(3, all.size());
+        assertEquals("m2", all.peek().getContent());
+        MessageLog.Stats stats = log.stats();
+        assertEquals(5, stats.totalLogged());
+        assertEquals(2, stats.evictedBySize());
+        assertEquals(0, stats.evictedByAge());
+    }
+
+    @Test
+    void testAgeRetentionEvictsOldMessages() {
+        // Arrange
+        MessageLog log = log(10, Duration.ofSeconds(60));
+        log.log(new Message("agentA", "agentB", "old"));
+        now.addAndGet(45_000);
+        log.log(new Message("agentA", "agentB", "recent"));
+
+        // Act
+        now.addAndGet(30_000);
+
+        // Assert
+        var all = log.getAll();
+        assertEquals(1, all.size());
+        assertEquals("recent", all.peek().getContent());
+        assertEquals(1, log.stats().evictedByAge());
+    }
+
+    @Test
+    void testCursorReadsPagesAndReportsMissedMessages() {
+        // Arrange
+        MessageLog log = log(4, Duration.ZERO);
+        for (int i = 0; i < 3; i++) {
+            log.log(new Message("agentA", "agentB", "m" + i));
+        }
+
+        // Act
+        MessageLog.Page first = log.read(0, 2);
+        for (int i = 3; i < 8; i++) {
+            log.log(new Message("agentA", "agentB", "m" + i));
+        }
+        MessageLog.Page second = log.read(first.nextCursor(), 10);
+
+        // Assert
+        assertEquals(2, first.messages().size());
+        assertEquals(1, first.remaining());
+        assertEquals(0, first.missed());
+        // m2 et m3 ont été évincés avant la seconde lecture
+        assertEquals(2, second.missed());
+        assertEquals("m4", second.messages().get(0).getContent());
+        assertEquals(4, second.messages().size());
+        assertEquals(8, second.nextCursor());
+        assertTrue(log.read(second.nextCursor(), 10).messages().isEmpty());
+    }
+
+    @Test
+    void testQueryPaginatesNewestFirstThroughIndexes() {
+        // Arrange
+        MessageLog log = log(100, Duration.ZERO);
+        for (int i = 0; i < 30; i++) {
+            Message msg = i % 3 == 0 ? new AskMessage("agentA", "agent" + (i % 2), "m" + i) : new Message("agentB", "agent" + (i % 2), "m" + i);
+            log.log(msg);
+        }
+        MessageQuery asksToAgent0 = new MessageQuery(null, "agent0", null, MessageQuery.Type.ASK, null, null);
+
+        // Act
+        MessageLog.QueryPage first = log.query(asksToAgent0, Long.MAX_VALUE, 3);
+        MessageLog.QueryPage second = log.query(asksToAgent0, first.nextCursor(), 3);
+
+        // Assert : ASK vers agent0 = i multiple de 6
+        assertEquals(List.of("m24", "m18", "m12"), first.messages().stream().map(Message::getContent).toList());
+        assertEquals(List.of("m6", "m0"), second.messages().stream().map(Message::getContent).toList());
+        assertEquals(-1, second.nextCursor());
+        assertTrue(log.query(new MessageQuery("unknown", null, null, null, null, null), Long.MAX_VALUE, 10).messages().isEmpty());
+        assertEquals(10, log.stats().totalAsks());
+    }
+
+    @Test
+    void testQueryFollowsEvictionAndTimeRange() {
+        // Arrange
+        MessageLog log = log(5, Duration.ZERO);
+        for (int i = 0; i < 8; i++) {
+            log.log(new Message("agentA", "agentB", "m" + i));
+            now.addAndGet(30_000);
+        }
+        Message remote = new Message("agentC", "agentB", "remote");
+        remote.setOriginService("service2");
+        log.log(remote);
+
+        // Act : m0..m3 évincés, les dates vont de 1000 à 241000 par pas de 30 s
+        MessageLog.QueryPage bySender = log.query(new MessageQuery("agentA", null, null, null, null, null), Long.MAX_VALUE, 10);
+        MessageLog.QueryPage inRange = log.query(new MessageQuery(null, null, null, null, 150_000L, 211_000L), Long.MAX_VALUE, 10);
+
+        // Assert
+        assertEquals(List.of("m7", "m6", "m5", "m4"), bySender.messages().stream().map(Message::getContent).toList());
+        assertEquals(List.of("m7", "m6", "m5"), inRange.messages().stream().map(Message::getContent).toList());
+        assertEquals(1, log.stats().totalRemote());
+    }
+
+    @Test
+    void testStoredMessagesAreRebuiltFromColumns() {
+        // Arrange : 4 messages => arène de 4 x 256 octets, chaque contenu en occupe 300
+        MessageLog log = log(4, Duration.ZERO);
+        for (int i = 0; i < 6; i++) {
+            AskMessage ask = new AskMessage("agentA", "agentB", i + "é".repeat(150));
+            ask.setOriginService("service2");
+            ask.setTraceId("trace-" + i);
+            ask.setParentSpanId("0f8fad5b-d9cb-469f-a165-70867728950" + i);
+            ask.setCorrelationId("7c9e6679-7425-40de-944b-e07fc1f90ae" + i);
+            ask.setTimestamp(42 + i);
+            log.log(ask);
+        }
+
+        // Act
+        var all = log.getAll();
+
+        // Assert : l'arène pleine évince avant le tampon, les champs reviennent intacts
+        assertEquals(3, all.size());
+        assertEquals(3, log.stats().evictedBySize());
+        Message last = all.stream().reduce((a, b) -> b).orElseThrow();
+        assertInstanceOf(AskMessage.class, last);
+        assertEquals("5" + "é".repeat(150), last.getContent());
+        assertEquals("agentA", last.getSenderId());
+        assertEquals("service2", last.getOriginService());
+        assertEquals("trace-5", last.getTraceId());
+        assertEquals("0f8fad5b-d9cb-469f-a165-708677289505", last.getParentSpanId());
+        assertEquals("7c9e6679-7425-40de-944b-e07fc1f90ae5", ((AskMessage) last).getCorrelationId());
+        assertEquals(47, last.getTimestamp());
+    }
+
+    @Test
+    void testOversizedMessageIsKeptAloneThenEvicted() {
+        // Arrange : 4 messages => arène de 1 Ko, le premier contenu en fait 8
+        MessageLog log = log(4, Duration.ZERO);
+        log.log(new Message("agentA", "agentB", "x".repeat(8 * 1024)));
+
+        // Act
+        var alone = log.getAll();
+        log.log(new Message("agentA", "agentB", "petit"));
+        for (int i = 0; i < 3; i++) {
+            log.log(new Message("agentA", "agentB", "y".repeat(200)));
+        }
+
+        // Assert : le gros message est lisible tant qu'il est seul, puis évincé par le suivant
+        assertEquals(8 * 1024, alone.peek().getContent().length());
+        assertEquals(4, log.getAll().size());
+        assertEquals(1, log.stats().evictedBySize());
+        assertEquals("petit", log.getAll().peek().getContent());
+    }
+}
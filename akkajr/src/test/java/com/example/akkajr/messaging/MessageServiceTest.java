@@ -6,8 +6,12 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -100,6 +104,47 @@ class MessageServiceTest {
         }, "Devrait timeout si aucune réponse n'est donnée");
     }
 
+    @Test
+    void testUnansweredAskExpiresAndUnblocksReceiver() {
+        // Arrange
+        ReflectionTestUtils.setField(messageService, "askTimeout", Duration.ofMillis(200));
+        AskMessage ask = new AskMessage("sender1", "receiver1", "Test question");
+        messageService.send(ask);
+
+        // Act
+        ExecutionException error = assertThrows(ExecutionException.class,
+                () -> ask.getFutureResponse().get(5, TimeUnit.SECONDS));
+
+        // Assert
+        assertInstanceOf(TimeoutException.class, error.getCause());
+        assertFalse(messageService.isBlocked("receiver1"), "L'acteur devrait être débloqué après expiration");
+        assertTrue(messageService.inbox("receiver1").isEmpty(), "L'ASK expiré devrait quitter la mailbox");
+        assertEquals(1, messageService.expiredAskCount());
+        assertEquals(0, messageService.pendingAskCount());
+    }
+
+    @Test
+    void testReplyRacingTheSendDoesNotLeaveTheAskInTheInbox() throws Exception {
+        for (int i = 0; i < 200; i++) {
+            // Arrange : la réponse arrive pendant que send() livre encore l'ASK
+            String agent = "racer" + i;
+            AskMessage ask = new AskMessage("agentA", agent, "Question?");
+            CompletableFuture<Void> replier = CompletableFuture.runAsync(() -> {
+                while (!ask.getFutureResponse().isDone()) {
+                    messageService.replyToAsk(agent, "Réponse");
+                }
+            });
+
+            // Act
+            messageService.send(ask);
+            replier.get(5, TimeUnit.SECONDS);
+
+            // Assert
+            assertEquals("Réponse", ask.getFutureResponse().get());
+            assertTrue(messageService.inbox(agent).isEmpty(), "L'ASK répondu ne doit pas rester dans l'inbox de " + agent);
+        }
+    }
+
     @Test
     void testInbox() {
         // Arrange
@@ -202,6 +247,70 @@ class MessageServiceTest {
             "First ASK should be pending");
     }
 
+    @Test
+    void testPipelinedAsksAreAnsweredByCorrelationId() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(messageService, "maxAsksInFlight", 3);
+        AskMessage ask1 = new AskMessage("agentA", "agentB", "First question");
+        AskMessage ask2 = new AskMessage("agentC", "agentB", "Second question");
+        AskMessage ask3 = new AskMessage("agentD", "agentB", "Third question");
+
+        // Act
+        messageService.send(ask1);
+        messageService.send(ask2);
+        messageService.send(ask3);
+        messageService.replyToAsk("agentB", ask2.getCorrelationId(), "Second answer");
+        messageService.replyToAsk("agentB", "Oldest answer");
+
+        // Assert
+        assertEquals("Second answer", ask2.getFutureResponse().get(1, TimeUnit.SECONDS));
+        assertEquals("Oldest answer", ask1.getFutureResponse().get(1, TimeUnit.SECONDS));
+        assertFalse(ask3.getFutureResponse().isDone());
+        assertEquals(List.of(ask3), messageService.getPendingAsks("agentB"));
+        assertEquals(1, messageService.pendingAskCount());
+        assertTrue(messageService.getDeadLetters().isEmpty(), "Aucun ASK ne devrait être refusé sous la limite");
+    }
+
+    @Test
+    void testAskBeyondInFlightLimitIsRejected() {
+        // Arrange
+        ReflectionTestUtils.setField(messageService, "maxAsksInFlight", 2);
+        messageService.send(new AskMessage("agentA", "agentB", "First question"));
+        messageService.send(new AskMessage("agentA", "agentB", "Second question"));
+        AskMessage third = new AskMessage("agentA", "agentB", "Third question");
+
+        // Act
+        messageService.send(third);
+        messageService.send(new Message("agentA", "agentB", "Tell while blocked"));
+
+        // Assert
+        assertTrue(messageService.isBlocked("agentB"));
+        ExecutionException error = assertThrows(ExecutionException.class,
+                () -> third.getFutureResponse().get(1, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, error.getCause());
+        assertEquals(2, messageService.getDeadLetters().size());
+        assertEquals(2, messageService.pendingAskCount());
+    }
+
+    @Test
+    void testSendAllSeesReceiverBlockedByAnAskOfTheSameBatch() {
+        // Arrange
+        Message before = new Message("agentA", "agentB", "Tell before ask");
+        AskMessage ask = new AskMessage("agentA", "agentB", "Question");
+        Message after = new Message("agentA", "agentB", "Tell after ask");
+        Message other = new Message("agentA", "agentC", "Tell to other");
+
+        // Act
+        messageService.sendAll(List.of(before, ask, after, other));
+
+        // Assert
+        assertTrue(messageService.isBlocked("agentB"));
+        assertEquals(1, messageService.getDeadLetters().size());
+        assertEquals(after.getContent(), messageService.getDeadLetters().peek().getContent());
+        assertEquals(List.of(before, ask), List.copyOf(messageService.inbox("agentB")));
+        assertEquals(List.of(other), List.copyOf(messageService.inbox("agentC")));
+    }
+
     @Test
     void testInboxForRemoteAgent() {
         // Arrange
@@ -0,0 +1,59 @@
+package com.example.akkajr.messaging;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PendingAsksTest {
+
+    private SimpleMeterRegistry registry;
+    private PendingAsks pendingAsks;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        ObjectProvider<MeterRegistry> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(registry);
+        pendingAsks = new PendingAsks(2, Duration.ofSeconds(5), provider);
+        pendingAsks.registerGauge();
+    }
+
+    @Test
+    void testLimitRejectsAsksBeyondMaxPending() {
+        // Act
+        assertTrue(pendingAsks.tryAcquire());
+        assertTrue(pendingAsks.tryAcquire());
+        boolean third = pendingAsks.tryAcquire();
+
+        // Assert
+        assertFalse(third, "Le troisième ASK devrait être refusé");
+        assertEquals(2, pendingAsks.pending());
+        assertEquals(2.0, registry.get("messages.ask.pending").gauge().value());
+        assertEquals(1.0, registry.get("messages.ask").tag("outcome", PendingAsks.REJECTED).counter().count());
+    }
+
+    @Test
+    void testReleaseFreesSlotAndCountsOutcome() {
+        // Arrange
+        pendingAsks.tryAcquire();
+        pendingAsks.tryAcquire();
+
+        // Act
+        pendingAsks.release(PendingAsks.OK);
+        pendingAsks.release(PendingAsks.TIMEOUT);
+
+        // Assert
+        assertEquals(0, pendingAsks.pending());
+        assertTrue(pendingAsks.tryAcquire());
+        assertEquals(1.0, registry.get("messages.ask").tag("outcome", PendingAsks.OK).counter().count());
+        assertEquals(1.0, registry.get("messages.ask").tag("outcome", PendingAsks.TIMEOUT).counter().count());
+    }
+}
@@ -1,9 +1,15 @@
 package com.example.akkajr.messaging;
 
+import com.sun.net.httpserver.HttpServer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -63,4 +69,44 @@ class RemoteMessageClientTest {
             remoteMessageClient.sendAsk(null, baseUrl);
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    void testBatchFallsBackToSingleTellsWhenPeerHasNoBatchEndpoint() throws Exception {
+        // Arrange : un service de la version précédente, sans /tell/batch
+        List<String> paths = new CopyOnWriteArrayList<>();
+        HttpServer peer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        peer.createContext("/api/messages", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            paths.add(path);
+            exchange.getRequestBody().readAllBytes();
+            exchange.sendResponseHeaders(path.endsWith("/tell") ? 200 : 404, -1);
+            exchange.close();
+        });
+        peer.start();
+        RemoteMessageClient client = new RemoteMessageClient(Duration.ofMillis(5), 500);
+        String baseUrl = "http://localhost:" + peer.getAddress().getPort();
+
+        try {
+            // Act
+            client.sendTell(new Message("agentA", "service2:agentB", "m1"), baseUrl);
+            client.sendTell(new Message("agentA", "service2:agentB", "m2"), baseUrl);
+            awaitCount(paths, "/api/messages/tell", 2);
+            client.sendTell(new Message("agentA", "service2:agentB", "m3"), baseUrl);
+            awaitCount(paths, "/api/messages/tell", 3);
+
+            // Assert : le lot refusé est renvoyé message par message, puis plus aucun lot
+            assertEquals(1, paths.stream().filter(p -> p.endsWith("/tell/batch")).count());
+            assertEquals(3, paths.stream().filter(p -> p.endsWith("/tell")).count());
+        } finally {
+            client.close();
+            peer.stop(0);
+        }
+    }
+
+    private static void awaitCount(List<String> paths, String path, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (paths.stream().filter(path::equals).count() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.akkajr.messaging;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TcpMessageClientTest {
+
+    private MessageService remoteService;
+    private TcpMessageServer server;
+    private TcpMessageClient client;
+    private String url;
+
+    @BeforeEach
+    void setUp() {
+        remoteService = new MessageService();
+        client = new TcpMessageClient();
+    }
+
+    // Service distant "service2" joignable en TCP sur un port libre
+    private void start(Duration heartbeatInterval) {
+        server = new TcpMessageServer(remoteService);
+        ReflectionTestUtils.setField(server, "currentServiceName", "service2");
+        ReflectionTestUtils.setField(server, "port", 0);
+        ReflectionTestUtils.setField(server, "heartbeatInterval", heartbeatInterval);
+        server.start();
+        ReflectionTestUtils.setField(client, "heartbeatInterval", heartbeatInterval);
+        url = "tcp://localhost:" + server.port();
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        if (server != null) {
+            server.close();
+        }
+        remoteService.close();
+    }
+
+    @Test
+    void testTellAndAskTravelOverTheSameConnection() throws Exception {
+        // Arrange
+        start(Duration.ofMillis(50));
+        Message tell = new Message("agentA", "service2:agentB", "Bonjour");
+        AskMessage ask = new AskMessage("agentA", "service2:agentC", "Question?");
+
+        // Act
+        client.sendTell(tell, url);
+        CompletableFuture<String> reply = client.sendAsk(ask, url);
+        awaitPendingAsk("agentC");
+        // plusieurs intervalles de heartbeat sans trafic : la connexion doit rester ouverte
+        Thread.sleep(300);
+        remoteService.replyToAsk("agentC", "Réponse");
+
+        // Assert
+        assertEquals("Réponse", reply.get(5, TimeUnit.SECONDS));
+        Message received = remoteService.inbox("agentB").peek();
+        assertNotNull(received, "Le TELL devrait être livré à agentB");
+        assertEquals("Bonjour", received.getContent());
+        assertEquals("service2", received.getOriginService());
+        assertNotNull(received.getTraceId(), "La trace devrait voyager avec le message");
+    }
+
+    @Test
+    void testTellsOfOneConnectionAreDeliveredInOrder() throws Exception {
+        // Arrange
+        start(Duration.ofSeconds(5));
+
+        // Act : livrés par les workers du serveur, hors de la boucle d'E/S
+        for (int i = 0; i < 500; i++) {
+            client.sendTell(new Message("agentA", "service2:agentB", "m" + i), url);
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (remoteService.inbox("agentB").size() < 500 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        // Assert
+        List<String> contents = remoteService.inbox("agentB").stream().map(Message::getContent).toList();
+        assertEquals(500, contents.size());
+        for (int i = 0; i < 500; i++) {
+            assertEquals("m" + i, contents.get(i));
+        }
+    }
+
+    @Test
+    void testPendingAskFailsWhenConnectionIsLost() throws Exception {
+        // Arrange
+        start(Duration.ofMillis(50));
+        CompletableFuture<String> reply = client.sendAsk(new AskMessage("agentA", "service2:agentC", "Question?"), url);
+        awaitPendingAsk("agentC");
+
+        // Act
+        server.close();
+
+        // Assert
+        ExecutionException error = assertThrows(ExecutionException.class, () -> reply.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IOException.class, error.getCause());
+    }
+
+    @Test
+    void testRejectedRemoteAskIsReportedAsFailure() {
+        // Arrange : agentC a déjà un ASK en attente (limite de 1 par défaut) ; heartbeat long pour
+        // vérifier que le refus, produit sur le thread de la boucle, part sans attendre son prochain réveil
+        start(Duration.ofSeconds(30));
+        client.sendAsk(new AskMessage("agentA", "service2:agentC", "Première"), url);
+
+        // Act
+        CompletableFuture<String> second = client.sendAsk(new AskMessage("agentA", "service2:agentC", "Seconde"), url);
+
+        // Assert
+        ExecutionException error = assertThrows(ExecutionException.class, () -> second.get(2, TimeUnit.SECONDS));
+        assertTrue(error.getCause().getMessage().contains("RejectedExecutionException"));
+    }
+
+    @Test
+    void testTellsBeyondQueueLimitOrUnsentAtCloseBecomeUndelivered() throws Exception {
+        // Arrange : un pair qui accepte la connexion mais ne lit jamais, et une file de 64 Ko
+        ReflectionTestUtils.setField(client, "maxQueuedBytes", 64 * 1024L);
+        List<Message> undelivered = new CopyOnWriteArrayList<>();
+        client.onUndeliveredTell(undelivered::add);
+        try (ServerSocket peer = new ServerSocket(0)) {
+            CompletableFuture<Socket> accepted = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return peer.accept();
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            String peerUrl = "tcp://localhost:" + peer.getLocalPort();
+
+            // Act : bien plus que les tampons du noyau et la file réunis
+            for (int i = 0; i < 4000; i++) {
+                client.sendTell(new Message("agentA", "service2:agentB", i + "x".repeat(10_000)), peerUrl);
+            }
+            int rejected = undelivered.size();
+            accepted.get(5, TimeUnit.SECONDS).close();
+
+            // Assert : les TELL refusés puis ceux encore en file à la fermeture sont rendus
+            assertTrue(rejected > 0, "La file bornée devrait refuser des TELL");
+            assertEquals("service2:agentB", undelivered.get(0).getReceiverId());
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (undelivered.size() == rejected && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertTrue(undelivered.size() > rejected, "Les TELL en file à la fermeture devraient être rendus");
+        }
+    }
+
+    private void awaitPendingAsk(String agentId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (remoteService.getPendingAsk(agentId) == null && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertNotNull(remoteService.getPendingAsk(agentId), "L'ASK devrait être arrivé chez " + agentId);
+    }
+}
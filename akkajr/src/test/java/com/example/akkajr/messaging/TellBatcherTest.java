@@ -0,0 +1,83 @@
+package com.example.akkajr.messaging;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TellBatcherTest {
+
+    private final Map<String, List<List<Message>>> sent = new ConcurrentHashMap<>();
+    private TellBatcher batcher;
+
+    private TellBatcher batcher(int maxBatch, Duration linger) {
+        batcher = new TellBatcher(maxBatch, linger,
+                (destination, batch) -> sent.computeIfAbsent(destination, d -> new CopyOnWriteArrayList<>()).add(batch));
+        return batcher;
+    }
+
+    @AfterEach
+    void tearDown() {
+        batcher.close();
+    }
+
+    @Test
+    void testFullBatchIsSentImmediately() {
+        // Arrange : linger très long, seule la taille peut déclencher l'envoi
+        TellBatcher batcher = batcher(3, Duration.ofMinutes(1));
+
+        // Act
+        for (int i = 0; i < 7; i++) {
+            batcher.add("http://service2", new Message("agentA", "service2:agentB", "m" + i));
+        }
+
+        // Assert
+        List<List<Message>> batches = sent.get("http://service2");
+        assertEquals(2, batches.size(), "Deux lots pleins, le septième message attend");
+        assertEquals(List.of("m0", "m1", "m2"), batches.get(0).stream().map(Message::getContent).toList());
+        assertEquals(List.of("m3", "m4", "m5"), batches.get(1).stream().map(Message::getContent).toList());
+    }
+
+    @Test
+    void testLingerCoalescesMessagesPerDestination() throws Exception {
+        // Arrange
+        TellBatcher batcher = batcher(100, Duration.ofMillis(50));
+
+        // Act
+        batcher.add("http://service2", new Message("agentA", "service2:agentB", "a1"));
+        batcher.add("http://service3", new Message("agentA", "service3:agentC", "b1"));
+        batcher.add("http://service2", new Message("agentA", "service2:agentB", "a2"));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (sent.size() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        // Assert : un seul lot par destination après le délai
+        assertEquals(1, sent.get("http://service2").size());
+        assertEquals(List.of("a1", "a2"), sent.get("http://service2").get(0).stream().map(Message::getContent).toList());
+        assertEquals(List.of("b1"), sent.get("http://service3").get(0).stream().map(Message::getContent).toList());
+    }
+
+    @Test
+    void testAddAfterCloseSendsImmediately() {
+        // Arrange
+        TellBatcher batcher = batcher(100, Duration.ofMinutes(1));
+        batcher.add("http://service2", new Message("agentA", "service2:agentB", "avant"));
+        batcher.close();
+
+        // Act
+        assertDoesNotThrow(() -> batcher.add("http://service2", new Message("agentA", "service2:agentB", "après")));
+
+        // Assert : le lot en cours part à la fermeture, le message suivant seul
+        List<List<Message>> batches = sent.get("http://service2");
+        assertEquals(2, batches.size());
+        assertEquals(List.of("après"), batches.get(1).stream().map(Message::getContent).toList());
+    }
+}
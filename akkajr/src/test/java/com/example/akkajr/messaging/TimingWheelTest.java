@@ -0,0 +1,57 @@
+package com.example.akkajr.messaging;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    private final TimingWheel wheel = new TimingWheel("test-wheel", Duration.ofMillis(10), 8);
+
+    @AfterEach
+    void tearDown() {
+        wheel.close();
+    }
+
+    @Test
+    void testTimeoutFiresAfterDelayEvenBeyondOneRound() throws Exception {
+        // Arrange : 8 cases de 10 ms, l'échéance de 150 ms fait presque deux tours
+        CountDownLatch fired = new CountDownLatch(2);
+        long start = System.nanoTime();
+
+        // Act
+        wheel.schedule(fired::countDown, Duration.ofMillis(30));
+        wheel.schedule(fired::countDown, Duration.ofMillis(150));
+
+        // Assert
+        assertTrue(fired.await(5, TimeUnit.SECONDS), "Les deux échéances devraient expirer");
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 150);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void testCancelledTimeoutNeverFires() throws Exception {
+        // Arrange
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch later = new CountDownLatch(1);
+        TimingWheel.Timeout cancelled = wheel.schedule(runs::incrementAndGet, Duration.ofMillis(20));
+
+        // Act
+        boolean first = cancelled.cancel();
+        boolean second = cancelled.cancel();
+        wheel.schedule(later::countDown, Duration.ofMillis(60));
+
+        // Assert
+        assertTrue(first);
+        assertFalse(second, "Une échéance ne s'annule qu'une fois");
+        assertTrue(later.await(5, TimeUnit.SECONDS));
+        assertEquals(0, runs.get());
+        assertEquals(0, wheel.size());
+    }
+}